@@ -0,0 +1,116 @@
+package com.vendingmachine.benchmark;
+
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.model.DispenseResult;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.model.Snack;
+import com.vendingmachine.service.VendingMachine;
+import com.vendingmachine.service.VendingMachineActor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sales through a {@link VendingMachineActor} against the machine's own
+ * thread-safe calls and against one lock around each call. Run with
+ * {@code -t} set to the contention level; {@code codes} spreads the buyers
+ * over one slot or all six. {@code actorPipelined} has each caller keep
+ * {@value #PIPELINE} sales in flight, which is what lets the owner batch.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ActorBenchmark {
+
+    private static final String[] CODES = {"D1", "S1", "D2", "S2", "D3", "S3"};
+    private static final List<Integer> COINS = List.of(5);
+    private static final int PIPELINE = 16;
+
+    @Param({"1", "6"})
+    private int codes;
+
+    private VendingMachine vendingMachine;
+    private VendingMachineActor actor;
+    private final Object lock = new Object();
+
+    @State(Scope.Thread)
+    public static class Caller {
+        int next;
+        final CompletableFuture<?>[] inFlight = new CompletableFuture<?>[PIPELINE];
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() throws VendingMachineException {
+        vendingMachine = new VendingMachine();
+        for (int i = 1; i <= 3; i++) {
+            Snack snack = new Snack("S" + i, "Snack " + i, 2, LocalDate.now(), 30);
+            snack.setStock(Integer.MAX_VALUE);
+            vendingMachine.addItem(snack);
+            Drink drink = new Drink("D" + i, "Drink " + i, 2, 330);
+            drink.setStock(Integer.MAX_VALUE);
+            vendingMachine.addItem(drink);
+        }
+        actor = VendingMachineActor.start(vendingMachine);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        actor.close();
+    }
+
+    private String code(Caller caller) {
+        int next = caller.next;
+        caller.next = next + 1 == codes ? 0 : next + 1;
+        return CODES[next];
+    }
+
+    @Benchmark
+    public DispenseResult direct(Caller caller) {
+        return vendingMachine.dispenseItem(code(caller), COINS);
+    }
+
+    @Benchmark
+    public DispenseResult locked(Caller caller) {
+        String code = code(caller);
+        synchronized (lock) {
+            return vendingMachine.dispenseItem(code, COINS);
+        }
+    }
+
+    @Benchmark
+    public DispenseResult actor(Caller caller) {
+        return actor.dispenseItem(code(caller), COINS).join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PIPELINE)
+    public DispenseResult actorPipelined(Caller caller) {
+        for (int i = 0; i < PIPELINE; i++) {
+            caller.inFlight[i] = actor.dispenseItem(code(caller), COINS);
+        }
+        DispenseResult last = null;
+        for (int i = 0; i < PIPELINE; i++) {
+            last = (DispenseResult) caller.inFlight[i].join();
+        }
+        return last;
+    }
+}
@@ -0,0 +1,82 @@
+package com.vendingmachine.benchmark;
+
+import com.vendingmachine.analytics.SalesAnalytics;
+import com.vendingmachine.service.Denominations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code recordSale} throughput over 64 items with a skewed mix, and the
+ * cost of each query against a history of a few million sales.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnalyticsBenchmark {
+
+    private static final int ITEMS = 64;
+    private static final List<Integer> COINS = List.of(5, 1);
+    private static final List<Integer> CHANGE = List.of(2);
+
+    private final String[] codes = new String[ITEMS];
+    private SalesAnalytics analytics;
+    private int next;
+    private long now;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        for (int i = 0; i < ITEMS; i++) {
+            codes[i] = "I" + i;
+        }
+        analytics = new SalesAnalytics(Denominations.standard(), SalesAnalytics.DEFAULT_MAX_ITEMS,
+                SalesAnalytics.DEFAULT_HOURS, SalesAnalytics.DEFAULT_TOP_SELLERS, Clock.systemUTC());
+        now = System.currentTimeMillis();
+        for (int i = 0; i < 1 << 22; i++) {
+            recordSale();
+        }
+    }
+
+    @Benchmark
+    public void recordSale() {
+        // Squaring a uniform index skews sales towards the low codes.
+        int r = next++ & 1023;
+        int item = (r * r) >>> 14;
+        analytics.recordSale(codes[item], 1, 4, COINS, CHANGE, now + (next & 0xFFFF));
+    }
+
+    @Benchmark
+    public Object topSellers() {
+        return analytics.getTopSellers(SalesAnalytics.DEFAULT_TOP_SELLERS);
+    }
+
+    @Benchmark
+    public long[] lastDay() {
+        return analytics.getHourlyRevenue(24);
+    }
+
+    @Benchmark
+    public Object coinMix() {
+        return analytics.getCoinsReceived();
+    }
+
+    @Benchmark
+    public long itemUnits() {
+        return analytics.getUnits("I7");
+    }
+}
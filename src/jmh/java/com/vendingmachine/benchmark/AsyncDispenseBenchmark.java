@@ -0,0 +1,103 @@
+package com.vendingmachine.benchmark;
+
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.model.DispenseResult;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.persistence.FsyncPolicy;
+import com.vendingmachine.persistence.TransactionJournal;
+import com.vendingmachine.service.VendingMachine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Time to serve one customer. Each customer spends {@code coinMicros} at the
+ * coin acceptor, and each sale runs the dispense motor for {@code motorMicros}
+ * and appends to an {@link FsyncPolicy#ALWAYS} journal. {@code dispenseSync}
+ * does all of it in sequence. {@code dispensePipelined} takes the next
+ * customer's coins while the previous sale is still being released.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AsyncDispenseBenchmark {
+
+    @Param({"200"})
+    private long coinMicros;
+
+    @Param({"200"})
+    private long motorMicros;
+
+    private long coinNanos;
+
+    private Path directory;
+    private TransactionJournal journal;
+    private VendingMachine machine;
+    private List<Integer> coins;
+    private CompletableFuture<DispenseResult> previous;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException, VendingMachineException {
+        directory = Files.createTempDirectory("async-dispense");
+        journal = new TransactionJournal(directory.resolve("transactions.journal"), FsyncPolicy.ALWAYS);
+        machine = new VendingMachine();
+        Drink drink = new Drink("D1", "Drink", 2, 330);
+        drink.setStock(Integer.MAX_VALUE);
+        machine.addItem(drink);
+        machine.setTransactionLog(journal);
+        long motorNanos = TimeUnit.MICROSECONDS.toNanos(motorMicros);
+        machine.setDispenseMechanism(item -> LockSupport.parkNanos(motorNanos));
+        coinNanos = TimeUnit.MICROSECONDS.toNanos(coinMicros);
+        coins = List.of(2);
+        previous = CompletableFuture.completedFuture(null);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        previous.join();
+        machine.close();
+        journal.close();
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public DispenseResult dispenseSync() {
+        LockSupport.parkNanos(coinNanos);
+        return machine.dispenseItem("D1", coins);
+    }
+
+    @Benchmark
+    public DispenseResult dispensePipelined() {
+        LockSupport.parkNanos(coinNanos);
+        CompletableFuture<DispenseResult> next = machine.dispenseItemAsync("D1", coins);
+        DispenseResult done = previous.join();
+        previous = next;
+        return done;
+    }
+}
@@ -0,0 +1,56 @@
+package com.vendingmachine.benchmark;
+
+import com.vendingmachine.service.CoinFloat;
+import com.vendingmachine.service.CoinHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CoinFloatBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int coinsPerDenomination;
+
+    @Param({"7", "98", "999"})
+    private int changeAmount;
+
+    private CoinFloat fullFloat;
+    private CoinFloat constrainedFloat;
+    private int[] changeCounts;
+
+    @Setup
+    public void setUp() {
+        CoinHandler coinHandler = new CoinHandler();
+        int n = coinsPerDenomination;
+        fullFloat = new CoinFloat(coinHandler, new int[]{n, n, n, n});
+        // No $1 coins and a single $5: greedy never fits, so every call takes the bounded DP.
+        constrainedFloat = new CoinFloat(coinHandler, new int[]{0, n, 1, n});
+        changeCounts = new int[coinHandler.getDenominationCount()];
+    }
+
+    @Benchmark
+    public boolean findChangeFullFloat() {
+        return fullFloat.findChange(changeAmount, changeCounts);
+    }
+
+    @Benchmark
+    public boolean findChangeConstrainedFloat() {
+        return constrainedFloat.findChange(changeAmount, changeCounts);
+    }
+}
@@ -0,0 +1,79 @@
+package com.vendingmachine.benchmark;
+
+import com.vendingmachine.model.PaymentResult;
+import com.vendingmachine.service.CoinHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CoinHandlerBenchmark {
+
+    private static final int[] COINS = {1, 2, 5, 10};
+
+    @Param({"1", "8", "64"})
+    private int coinCount;
+
+    @Param({"0", "7", "98"})
+    private int changeAmount;
+
+    private CoinHandler coinHandler;
+    private List<Integer> coins;
+    private int[] coinCounts;
+    private int[] changeCounts;
+    private int price;
+
+    @Setup
+    public void setUp() {
+        coinHandler = new CoinHandler();
+        coins = new ArrayList<>();
+        Random random = new Random(42);
+        int total = 0;
+        for (int i = 0; i < coinCount; i++) {
+            int coin = COINS[random.nextInt(COINS.length)];
+            coins.add(coin);
+            total += coin;
+        }
+        price = Math.max(1, total - changeAmount);
+        coinCounts = coinHandler.toCounts(coins);
+        changeCounts = new int[coinCounts.length];
+    }
+
+    @Benchmark
+    public PaymentResult processPayment() {
+        return coinHandler.processPayment(coins, price);
+    }
+
+    @Benchmark
+    public int processPaymentCounts() {
+        return coinHandler.processPayment(coinCounts, price, changeCounts);
+    }
+
+    @Benchmark
+    public List<Integer> calculateChange() {
+        return coinHandler.calculateChange(changeAmount);
+    }
+
+    @Benchmark
+    public String formatCoins() {
+        return coinHandler.formatCoins(coins);
+    }
+}
@@ -0,0 +1,112 @@
+package com.vendingmachine.benchmark;
+
+import com.vendingmachine.events.EventBus;
+import com.vendingmachine.events.EventHandler;
+import com.vendingmachine.events.EventProcessor;
+import com.vendingmachine.events.VendingEvent;
+import com.vendingmachine.model.DispenseResult;
+import com.vendingmachine.model.Drink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispense events through an {@link EventBus} with one or three handlers,
+ * each doing a little work per event. {@code publish} is the selling thread's
+ * cost while the handlers keep up; {@code publishAndAwait} waits for the
+ * slowest handler to see the event, which is the consumer lag of an idle bus;
+ * {@code inline} runs the same handlers on the calling thread, as a journal
+ * or metrics call in the sale path would.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventBusBenchmark {
+
+    private static final int WORK = 32;
+
+    @Param({"1", "3"})
+    private int consumers;
+
+    private EventBus bus;
+    private EventProcessor[] processors;
+    private EventHandler[] handlers;
+    private VendingEvent inlineEvent;
+    private long stockState;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        stockState = new Drink("D1", "Water", 2, 500).setStockAndGetState(10);
+        handlers = new EventHandler[consumers];
+        for (int i = 0; i < consumers; i++) {
+            handlers[i] = (event, sequence, endOfBatch) -> Blackhole.consumeCPU(WORK);
+        }
+        bus = new EventBus(EventBus.DEFAULT_BUFFER_SIZE);
+        processors = new EventProcessor[consumers];
+        for (int i = 0; i < consumers; i++) {
+            processors[i] = bus.addHandler("handler-" + i, handlers[i]);
+        }
+        bus.start();
+
+        // Any slot will do for calling the handlers directly.
+        EventBus scratch = new EventBus(1);
+        scratch.addHandler("capture", (event, sequence, endOfBatch) -> inlineEvent = event);
+        scratch.start();
+        scratch.publishRestock("D1", stockState);
+        scratch.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        bus.close();
+    }
+
+    private long publishOne() {
+        bus.publishDispense("D1", DispenseResult.Outcome.SUCCESS, 1, 2, 5, 3, stockState);
+        return bus.getCursor();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public long publish() {
+        return publishOne();
+    }
+
+    @Benchmark
+    public long publishAndAwait() {
+        long sequence = publishOne();
+        for (EventProcessor processor : processors) {
+            // Yield rather than spin, so the handler threads get the CPU on a small host.
+            while (processor.getSequence() < sequence) {
+                Thread.yield();
+            }
+        }
+        return sequence;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void inline() {
+        for (EventHandler handler : handlers) {
+            handler.onEvent(inlineEvent, 0, true);
+        }
+    }
+}
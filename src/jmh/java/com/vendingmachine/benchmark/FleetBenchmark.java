@@ -0,0 +1,120 @@
+package com.vendingmachine.benchmark;
+
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.fleet.Fleet;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.model.Product;
+import com.vendingmachine.model.ProductCatalog;
+import com.vendingmachine.model.Snack;
+import com.vendingmachine.service.CoinHandler;
+import com.vendingmachine.service.VendingMachine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Run with {@code -prof gc} and divide {@code gc.alloc.rate.norm} of the build
+ * benchmarks by {@code machines} to get bytes per machine.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FleetBenchmark {
+
+    private static final List<String> SLOTS = Arrays.asList("S1", "S2", "S3", "D1", "D2", "D3");
+
+    @Param({"10000"})
+    private int machines;
+
+    private ProductCatalog catalog;
+    private CoinHandler coinHandler;
+    private Product[] products;
+    private String[] machineIds;
+    private Fleet fleet;
+
+    @Setup
+    public void setUp() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        catalog = new ProductCatalog();
+        coinHandler = new CoinHandler();
+        products = new Product[SLOTS.size()];
+        for (int i = 0; i < products.length; i++) {
+            products[i] = catalog.intern(SLOTS.get(i) + " product", 2);
+        }
+        machineIds = new String[machines];
+        for (int i = 0; i < machines; i++) {
+            machineIds[i] = "machine-" + i;
+        }
+        fleet = buildFleet();
+        for (int m = 0; m < machines; m++) {
+            for (int s = 0; s < SLOTS.size(); s++) {
+                fleet.restock(m, s, Integer.MAX_VALUE);
+            }
+        }
+    }
+
+    @Benchmark
+    public Fleet buildFleet() {
+        Fleet built = new Fleet(catalog, coinHandler, SLOTS, machines);
+        for (String id : machineIds) {
+            int machine = built.addMachine(id);
+            for (int s = 0; s < products.length; s++) {
+                built.stockSlot(machine, s, products[s], 10);
+            }
+        }
+        return built;
+    }
+
+    @Benchmark
+    public VendingMachine[] buildMachines() throws VendingMachineException {
+        VendingMachine[] built = new VendingMachine[machines];
+        for (int m = 0; m < machines; m++) {
+            VendingMachine machine = new VendingMachine();
+            for (int i = 1; i <= 3; i++) {
+                Snack snack = new Snack("S" + i, "S" + i + " product", 2, LocalDate.now(), 30);
+                snack.setStock(10);
+                machine.addItem(snack);
+                Drink drink = new Drink("D" + i, "D" + i + " product", 2, 330);
+                drink.setStock(10);
+                machine.addItem(drink);
+            }
+            built[m] = machine;
+        }
+        return built;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int dispenseByIds(ThreadState state) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int machine = fleet.machineIndex(machineIds[random.nextInt(machines)]);
+        int slot = fleet.slotIndex(SLOTS.get(random.nextInt(SLOTS.size())));
+        return fleet.dispense(machine, slot, state.coins, state.change);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        final int[] coins = {0, 1, 0, 0};
+        final int[] change = new int[4];
+    }
+}
@@ -0,0 +1,141 @@
+package com.vendingmachine.benchmark;
+
+import com.vendingmachine.api.VendingMachineServer;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.model.Snack;
+import com.vendingmachine.service.VendingMachine;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load test for {@link VendingMachineServer} on localhost. Each
+ * simulated client keeps one request in flight, alternating purchases and
+ * inventory reads, for the given duration.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.vendingmachine.benchmark.HttpLoadTest [clients] [seconds]
+ * </pre>
+ */
+public class HttpLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        VendingMachine machine = new VendingMachine();
+        for (int i = 1; i <= 3; i++) {
+            Snack snack = new Snack("S" + i, "Snack " + i, 2, LocalDate.now(), 30);
+            snack.setStock(Integer.MAX_VALUE);
+            machine.addItem(snack);
+            Drink drink = new Drink("D" + i, "Drink " + i, 2, 330);
+            drink.setStock(Integer.MAX_VALUE);
+            machine.addItem(drink);
+        }
+
+        ExecutorService clientExecutor = VendingMachineServer.newRequestExecutor();
+        try (VendingMachineServer server = new VendingMachineServer(machine, 0)) {
+            server.start();
+            String base = "http://localhost:" + server.getPort();
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .executor(clientExecutor)
+                    .build();
+            HttpRequest inventory = HttpRequest.newBuilder(URI.create(base + "/inventory")).GET().build();
+            HttpRequest purchase = HttpRequest.newBuilder(URI.create(base + "/purchase"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"code\":\"S1\",\"coins\":[2]}"))
+                    .build();
+
+            long warmupEnd = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+            long end = warmupEnd + Duration.ofSeconds(seconds).toNanos();
+            AtomicLong errors = new AtomicLong();
+            Client[] loops = new Client[clients];
+            CompletableFuture<?>[] done = new CompletableFuture<?>[clients];
+            for (int i = 0; i < clients; i++) {
+                loops[i] = new Client(client, i % 2 == 0 ? purchase : inventory,
+                        i % 2 == 0 ? inventory : purchase, warmupEnd, end, errors);
+                done[i] = loops[i].run();
+            }
+            CompletableFuture.allOf(done).join();
+
+            long[] latencies = Arrays.stream(loops).flatMapToLong(c -> Arrays.stream(c.latencies, 0, c.count))
+                    .sorted().toArray();
+            double throughput = latencies.length / (double) seconds;
+            System.out.printf("clients=%d seconds=%d requests=%d errors=%d%n",
+                    clients, seconds, latencies.length, errors.get());
+            System.out.printf("throughput=%.0f req/s%n", throughput);
+            if (latencies.length > 0) {
+                System.out.printf("latency ms: p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                        percentile(latencies, 0.50), percentile(latencies, 0.90),
+                        percentile(latencies, 0.99), percentile(latencies, 0.999),
+                        latencies[latencies.length - 1] / 1e6);
+            }
+        } finally {
+            clientExecutor.shutdownNow();
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    // Requests of one client run strictly one after another, so its latency
+    // buffer needs no synchronization.
+    private static final class Client {
+        final HttpClient http;
+        final HttpRequest first;
+        final HttpRequest second;
+        final long warmupEnd;
+        final long end;
+        final AtomicLong errors;
+        long[] latencies = new long[1024];
+        int count;
+        boolean flip;
+
+        Client(HttpClient http, HttpRequest first, HttpRequest second,
+               long warmupEnd, long end, AtomicLong errors) {
+            this.http = http;
+            this.first = first;
+            this.second = second;
+            this.warmupEnd = warmupEnd;
+            this.end = end;
+            this.errors = errors;
+        }
+
+        CompletableFuture<Void> run() {
+            long start = System.nanoTime();
+            if (start >= end) {
+                return CompletableFuture.completedFuture(null);
+            }
+            flip = !flip;
+            return http.sendAsync(flip ? first : second, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, failure) -> {
+                        long finished = System.nanoTime();
+                        if (failure != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        } else if (start >= warmupEnd) {
+                            record(finished - start);
+                        }
+                        return null;
+                    })
+                    .thenCompose(ignored -> run());
+        }
+
+        void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+    }
+}
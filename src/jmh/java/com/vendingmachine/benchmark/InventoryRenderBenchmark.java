@@ -0,0 +1,88 @@
+package com.vendingmachine.benchmark;
+
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.model.Item;
+import com.vendingmachine.model.Snack;
+import com.vendingmachine.service.VendingMachine;
+import com.vendingmachine.ui.InventoryRenderer;
+import com.vendingmachine.ui.InventorySink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InventoryRenderBenchmark {
+
+    private VendingMachine vendingMachine;
+    private PrintStream out;
+    private InventorySink sink;
+    private InventoryRenderer renderer;
+
+    @Setup
+    public void setUp() throws VendingMachineException {
+        vendingMachine = new VendingMachine();
+        for (int i = 1; i <= 3; i++) {
+            Snack snack = new Snack("S" + i, "Snack " + i, 2, LocalDate.now().minusDays(26 + i), 30);
+            snack.setStock(5);
+            vendingMachine.addItem(snack);
+            Drink drink = new Drink("D" + i, "Drink " + i, 2, 330);
+            drink.setStock(5);
+            vendingMachine.addItem(drink);
+        }
+        out = new PrintStream(OutputStream.nullOutputStream());
+        sink = text -> {
+            out.print(text);
+            out.flush();
+        };
+        renderer = new InventoryRenderer();
+    }
+
+    // The row-at-a-time printf loop that displayInventory used to run.
+    @Benchmark
+    public void printfPerRow() {
+        out.println("\n=== VENDING MACHINE INVENTORY ===");
+        out.println("Code | Item | Price | Stock | Details");
+        out.println("-".repeat(50));
+        for (Item item : vendingMachine.getItems()) {
+            String status = item.canDispense() ? "✓" : "✗";
+            out.printf("%s %s | %s | $%d | %d | %s\n",
+                    status, item.getCode(), item.getDescription(),
+                    item.getPrice(), item.getStock(), item.getItemDetails());
+        }
+        out.println("-".repeat(50));
+    }
+
+    @Benchmark
+    public void renderBuffered() {
+        renderer.renderTo(vendingMachine.getItems(), sink);
+    }
+
+    @Benchmark
+    public void renderUnchanged() {
+        renderer.renderTo(vendingMachine, sink);
+    }
+
+    @Benchmark
+    public void renderOneSlotChanged() {
+        vendingMachine.getItem("D1").incrementStock();
+        renderer.renderTo(vendingMachine, sink);
+    }
+}
@@ -0,0 +1,63 @@
+package com.vendingmachine.benchmark;
+
+import com.vendingmachine.persistence.FsyncPolicy;
+import com.vendingmachine.persistence.TransactionJournal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JournalBenchmark {
+
+    @Param({"NEVER", "PERIODIC", "ALWAYS"})
+    private FsyncPolicy policy;
+
+    private Path file;
+    private TransactionJournal journal;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("journal-bench", ".log");
+        Files.delete(file);
+        journal = new TransactionJournal(file, policy);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        journal.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void appendSale() {
+        journal.recordSale("S1", 4, 2, 2, 5, 3);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void appendSale4Threads() {
+        journal.recordSale("S1", 4, 2, 2, 5, 3);
+    }
+}
@@ -0,0 +1,77 @@
+package com.vendingmachine.benchmark;
+
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.model.Snack;
+import com.vendingmachine.persistence.FsyncPolicy;
+import com.vendingmachine.persistence.TransactionJournal;
+import com.vendingmachine.service.VendingMachine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JournalRecoveryBenchmark {
+
+    private static final String[] CODES = {"S1", "S2", "S3", "D1", "D2", "D3"};
+
+    @Param({"1000000"})
+    private int records;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void writeJournal() throws IOException {
+        file = Files.createTempFile("journal-recovery", ".log");
+        Files.delete(file);
+        try (TransactionJournal journal = new TransactionJournal(file, FsyncPolicy.NEVER)) {
+            for (int i = 0; i < records; i++) {
+                String code = CODES[i % CODES.length];
+                if (i % 100 == 0) {
+                    journal.recordStock(code, 1_000_000, i + 1);
+                } else {
+                    journal.recordSale(code, 1_000_000 - i, i + 1, 2, 5, 3);
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteJournal() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public VendingMachine openAndRecover() throws IOException, VendingMachineException {
+        VendingMachine machine = new VendingMachine();
+        for (int i = 1; i <= 3; i++) {
+            machine.addItem(new Snack("S" + i, "Snack " + i, 2, LocalDate.now(), 30));
+            machine.addItem(new Drink("D" + i, "Drink " + i, 2, 330));
+        }
+        try (TransactionJournal journal = new TransactionJournal(file, FsyncPolicy.NEVER)) {
+            journal.recover(machine, 0);
+        }
+        return machine;
+    }
+}
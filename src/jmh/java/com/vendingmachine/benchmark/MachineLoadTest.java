@@ -0,0 +1,71 @@
+package com.vendingmachine.benchmark;
+
+import com.vendingmachine.load.LoadDriver;
+import com.vendingmachine.load.LoadReport;
+import com.vendingmachine.load.Workload;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.model.Snack;
+import com.vendingmachine.service.Planogram;
+import com.vendingmachine.service.VendingMachine;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-process load test with a {@link Workload} of Zipf-popular purchases on
+ * 4 x 10 grid machines, one slot left empty, with 2% invalid coins, 1% unknown
+ * codes and 1% sold-out hits. A rate of 0 runs a closed loop; anything else
+ * runs an open loop at that many purchases a second. Each run is preceded by
+ * a warm-up run of the same size.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.vendingmachine.benchmark.MachineLoadTest \
+ *     [threads] [machines] [rate] [purchasesPerThread] [seed]
+ * </pre>
+ */
+public class MachineLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int machineCount = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        double rate = args.length > 2 ? Double.parseDouble(args[2]) : 0;
+        int purchases = args.length > 3 ? Integer.parseInt(args[3]) : 1_000_000;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+
+        Planogram planogram = Planogram.grid(4, 10, Planogram.UNLIMITED);
+        List<VendingMachine> machines = new ArrayList<>();
+        for (int m = 0; m < machineCount; m++) {
+            VendingMachine machine = new VendingMachine(planogram);
+            for (int slot = 0; slot < planogram.size(); slot++) {
+                String code = planogram.codeOf(slot);
+                int price = 1 + slot % 7;
+                if (slot % 2 == 0) {
+                    Snack snack = new Snack(code, "Snack " + code, price, LocalDate.now(), 30);
+                    snack.setStock(slot == planogram.size() - 1 ? 0 : Integer.MAX_VALUE);
+                    machine.addItem(snack);
+                } else {
+                    Drink drink = new Drink(code, "Drink " + code, price, 330);
+                    drink.setStock(slot == planogram.size() - 1 ? 0 : Integer.MAX_VALUE);
+                    machine.addItem(drink);
+                }
+            }
+            machines.add(machine);
+        }
+        Workload workload = Workload.of(machines.get(0))
+                .withInvalidCoinRate(0.02)
+                .withUnknownCodeRate(0.01)
+                .withOutOfStockRate(0.01);
+
+        LoadDriver driver = new LoadDriver(machines, workload, threads, seed);
+        run(driver, rate, purchases);
+        LoadReport report = run(driver, rate, purchases);
+        System.out.printf("threads=%d machines=%d mode=%s%n", threads, machineCount,
+                rate > 0 ? String.format("open %.0f/s", rate) : "closed");
+        System.out.println(report);
+    }
+
+    private static LoadReport run(LoadDriver driver, double rate, int purchases) {
+        return rate > 0 ? driver.openLoop(rate, purchases) : driver.closedLoop(purchases);
+    }
+}
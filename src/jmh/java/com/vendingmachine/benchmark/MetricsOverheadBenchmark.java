@@ -0,0 +1,68 @@
+package com.vendingmachine.benchmark;
+
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.metrics.VendingMetrics;
+import com.vendingmachine.model.DispenseResult;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.service.VendingMachine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code dispenseItem} with metrics off, counting only, counting with the
+ * default latency sampling, and timing every call. {@code sale} buys with change; {@code rejected} asks
+ * for an unknown code, the cheapest path and so the one where the
+ * instrumentation shows most.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsOverheadBenchmark {
+
+    private static final List<Integer> COINS = List.of(5);
+
+    @Param({"off", "counters", "sampled", "every"})
+    private String metrics;
+
+    private VendingMachine vendingMachine;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws VendingMachineException {
+        vendingMachine = new VendingMachine();
+        Drink drink = new Drink("D1", "Water", 2, 500);
+        drink.setStock(Integer.MAX_VALUE);
+        vendingMachine.addItem(drink);
+        switch (metrics) {
+            case "sampled" -> vendingMachine.setMetrics(new VendingMetrics());
+            case "every" -> vendingMachine.setMetrics(new VendingMetrics(1));
+            case "counters" -> vendingMachine.setMetrics(new VendingMetrics(1 << 30));
+            default -> vendingMachine.setMetrics(null);
+        }
+    }
+
+    @Benchmark
+    public DispenseResult sale() {
+        return vendingMachine.dispenseItem("D1", COINS);
+    }
+
+    @Benchmark
+    public DispenseResult rejected() {
+        return vendingMachine.dispenseItem("X9", COINS);
+    }
+}
@@ -0,0 +1,92 @@
+package com.vendingmachine.benchmark;
+
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.model.DispenseResult;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.model.OrderResult;
+import com.vendingmachine.model.Snack;
+import com.vendingmachine.service.VendingMachine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A cart of {@code unitsPerItem} units of each of the six $2 items, bought as
+ * one order or as one {@code dispenseItem} call per unit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderBenchmark {
+
+    private static final String[] CODES = {"S1", "S2", "S3", "D1", "D2", "D3"};
+
+    @Param({"1", "5"})
+    private int unitsPerItem;
+
+    private VendingMachine vendingMachine;
+    private Map<String, Integer> order;
+    private List<Integer> orderCoins;
+    private List<Integer> unitCoins;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws VendingMachineException {
+        vendingMachine = new VendingMachine();
+        for (int i = 1; i <= 3; i++) {
+            Snack snack = new Snack("S" + i, "Snack " + i, 2, LocalDate.now(), 30);
+            snack.setStock(Integer.MAX_VALUE);
+            vendingMachine.addItem(snack);
+            Drink drink = new Drink("D" + i, "Drink " + i, 2, 330);
+            drink.setStock(Integer.MAX_VALUE);
+            vendingMachine.addItem(drink);
+        }
+        order = new LinkedHashMap<>();
+        for (String code : CODES) {
+            order.put(code, unitsPerItem);
+        }
+        // Every purchase overpays by 3, so each path computes change.
+        unitCoins = List.of(5);
+        orderCoins = new ArrayList<>();
+        int amount = 2 * CODES.length * unitsPerItem + 3;
+        for (int coin : new int[]{10, 5, 2, 1}) {
+            for (; amount >= coin; amount -= coin) {
+                orderCoins.add(coin);
+            }
+        }
+    }
+
+    @Benchmark
+    public OrderResult batchOrder() {
+        return vendingMachine.dispenseOrder(order, orderCoins);
+    }
+
+    @Benchmark
+    public void itemByItem(Blackhole blackhole) {
+        for (String code : CODES) {
+            for (int unit = 0; unit < unitsPerItem; unit++) {
+                DispenseResult result = vendingMachine.dispenseItem(code, unitCoins);
+                blackhole.consume(result);
+            }
+        }
+    }
+}
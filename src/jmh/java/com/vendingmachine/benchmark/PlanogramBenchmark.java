@@ -0,0 +1,122 @@
+package com.vendingmachine.benchmark;
+
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.model.DispenseResult;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.model.Item;
+import com.vendingmachine.model.Snack;
+import com.vendingmachine.service.Planogram;
+import com.vendingmachine.service.VendingMachine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Slot lookup and iteration on the standard six-slot machine and on a 10 x 12
+ * grid. {@code map...} runs the same work against a
+ * {@code ConcurrentHashMap<String, Item>}, the structure the machine used
+ * before planograms. {@code ...Fresh} looks up codes in new String objects, as
+ * they arrive from a request, so their hash codes are not cached.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlanogramBenchmark {
+
+    private static final List<Integer> COINS = List.of(5);
+
+    @Param({"6", "120"})
+    private int slots;
+
+    private VendingMachine vendingMachine;
+    private Map<String, Item> map;
+    private String[] codes;
+    private char[][] codeChars;
+    private int next;
+
+    @Setup
+    public void setUp() throws VendingMachineException {
+        Planogram planogram = slots == 6 ? Planogram.standard() : Planogram.grid(10, 12, Planogram.UNLIMITED);
+        vendingMachine = new VendingMachine(planogram);
+        map = new ConcurrentHashMap<>();
+        codes = new String[planogram.size()];
+        codeChars = new char[planogram.size()][];
+        for (int slot = 0; slot < planogram.size(); slot++) {
+            String code = planogram.codeOf(slot);
+            Item item = planogram.rowTypeOf(slot) == Planogram.RowType.SNACKS
+                    ? new Snack(code, "Snack " + code, 2, LocalDate.now(), 30)
+                    : new Drink(code, "Drink " + code, 2, 330);
+            item.setStock(Integer.MAX_VALUE);
+            vendingMachine.addItem(item);
+            map.put(code, item);
+            codes[slot] = code;
+            codeChars[slot] = code.toCharArray();
+        }
+    }
+
+    private int nextSlot() {
+        int slot = next;
+        next = slot + 1 == codes.length ? 0 : slot + 1;
+        return slot;
+    }
+
+    @Benchmark
+    public Item planogramLookup() {
+        return vendingMachine.getItem(codes[nextSlot()]);
+    }
+
+    @Benchmark
+    public Item mapLookup() {
+        return map.get(codes[nextSlot()]);
+    }
+
+    @Benchmark
+    public Item planogramLookupFresh() {
+        return vendingMachine.getItem(new String(codeChars[nextSlot()]));
+    }
+
+    @Benchmark
+    public Item mapLookupFresh() {
+        return map.get(new String(codeChars[nextSlot()]));
+    }
+
+    @Benchmark
+    public long planogramIterate() {
+        long stock = 0;
+        for (Item item : vendingMachine.getItems()) {
+            stock += item.getStockState();
+        }
+        return stock;
+    }
+
+    @Benchmark
+    public long mapIterate() {
+        long stock = 0;
+        for (Item item : map.values()) {
+            stock += item.getStockState();
+        }
+        return stock;
+    }
+
+    @Benchmark
+    public DispenseResult dispense() {
+        return vendingMachine.dispenseItem(codes[nextSlot()], COINS);
+    }
+}
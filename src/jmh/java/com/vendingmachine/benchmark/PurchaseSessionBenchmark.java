@@ -0,0 +1,74 @@
+package com.vendingmachine.benchmark;
+
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.model.DispenseResult;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.service.PurchaseSessionExecutor;
+import com.vendingmachine.service.VendingMachine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Completes {@code sessions} purchase sessions that each block for
+ * {@code thinkMillis} before buying, the way a customer feeding coins does.
+ * Platform threads come from a pool of {@code PLATFORM_THREADS}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PurchaseSessionBenchmark {
+
+    private static final int PLATFORM_THREADS = 200;
+
+    @Param({"virtual", "platform"})
+    private String threads;
+
+    @Param({"10000"})
+    private int sessions;
+
+    @Param({"20"})
+    private int thinkMillis;
+
+    private VendingMachine machine;
+    private List<Integer> coins;
+
+    @Setup
+    public void setUp() throws VendingMachineException {
+        machine = new VendingMachine();
+        Drink drink = new Drink("D1", "Drink", 2, 330);
+        drink.setStock(Integer.MAX_VALUE);
+        machine.addItem(drink);
+        coins = List.of(2);
+    }
+
+    @Benchmark
+    public void runSessions() {
+        try (PurchaseSessionExecutor executor = "virtual".equals(threads)
+                ? PurchaseSessionExecutor.virtualThreads(machine)
+                : PurchaseSessionExecutor.platformThreads(machine, PLATFORM_THREADS)) {
+            for (int i = 0; i < sessions; i++) {
+                executor.submit(this::session);
+            }
+        }
+    }
+
+    private DispenseResult session(VendingMachine vm) throws InterruptedException {
+        Thread.sleep(thinkMillis);
+        return vm.dispenseItem("D1", coins);
+    }
+}
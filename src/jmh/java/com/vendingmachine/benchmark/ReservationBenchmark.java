@@ -0,0 +1,96 @@
+package com.vendingmachine.benchmark;
+
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.model.DispenseResult;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.service.Reservation;
+import com.vendingmachine.service.ReservationManager;
+import com.vendingmachine.service.VendingMachine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code sellDirect} and {@code holdThenSell} compare a plain sale with taking a
+ * hold and selling against it. {@code wheelTick} keeps {@code outstanding} holds
+ * in flight over a 240 tick hold: each call takes one tick's share of new
+ * holds, sells half of them and advances the wheel, which expires the unsold
+ * holds taken 240 ticks earlier.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReservationBenchmark {
+
+    private static final int HOLD_TICKS = 240;
+    private static final List<Integer> COINS = List.of(2);
+
+    @Param({"10000", "200000"})
+    private int outstanding;
+
+    private VendingMachine vendingMachine;
+    private ReservationManager reservations;
+    private int perTick;
+    private int sales;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws VendingMachineException {
+        vendingMachine = new VendingMachine();
+        Drink drink = new Drink("D1", "Water", 2, 500);
+        drink.setStock(Integer.MAX_VALUE);
+        vendingMachine.addItem(drink);
+        reservations = ReservationManager.manual(vendingMachine, HOLD_TICKS);
+        perTick = outstanding / HOLD_TICKS;
+        for (int tick = 0; tick < HOLD_TICKS; tick++) {
+            wheelTick();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        reservations.close();
+    }
+
+    @Benchmark
+    public DispenseResult sellDirect() {
+        return vendingMachine.dispenseItem("D1", COINS);
+    }
+
+    @Benchmark
+    public DispenseResult holdThenSell() {
+        Reservation reservation = reservations.reserve("D1");
+        DispenseResult result = vendingMachine.dispenseReserved(reservation, COINS);
+        // Tick now and then so consumed holds are dropped as they would be by the timer.
+        if ((++sales & 1023) == 0) {
+            reservations.tick();
+        }
+        return result;
+    }
+
+    @Benchmark
+    public int wheelTick() {
+        for (int i = 0; i < perTick; i++) {
+            Reservation reservation = reservations.reserve("D1");
+            if ((i & 1) == 0) {
+                vendingMachine.dispenseReserved(reservation, COINS);
+            }
+        }
+        return reservations.tick();
+    }
+}
@@ -0,0 +1,113 @@
+package com.vendingmachine.benchmark;
+
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.model.DispenseResult;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.model.Snack;
+import com.vendingmachine.service.RestockBatch;
+import com.vendingmachine.service.VendingMachine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Restocking all six slots one call at a time against one
+ * {@link RestockBatch}. {@code ...Stock} only sets stock; {@code ...Reprice}
+ * also changes every price, which the per-item path can only do by adding a
+ * new item over each slot. The {@code contended} group runs a batch restock
+ * alongside a buyer to show what the buyer pays for the switch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RestockBenchmark {
+
+    private static final String[] CODES = {"S1", "S2", "S3", "D1", "D2", "D3"};
+    private static final int STOCK = 1_000_000;
+    private static final List<Integer> COINS = List.of(5);
+
+    private VendingMachine vendingMachine;
+    private RestockBatch stockBatch;
+    private RestockBatch repriceBatch;
+    private int price;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws VendingMachineException {
+        vendingMachine = new VendingMachine();
+        for (int i = 1; i <= 3; i++) {
+            Snack snack = new Snack("S" + i, "Snack " + i, 2, LocalDate.now(), 30);
+            snack.setStock(STOCK);
+            vendingMachine.addItem(snack);
+            Drink drink = new Drink("D" + i, "Drink " + i, 2, 330);
+            drink.setStock(STOCK);
+            vendingMachine.addItem(drink);
+        }
+        stockBatch = new RestockBatch();
+        repriceBatch = new RestockBatch();
+        for (String code : CODES) {
+            stockBatch.stock(code, STOCK);
+            repriceBatch.stock(code, STOCK).price(code, 3);
+        }
+    }
+
+    @Benchmark
+    public void perItemStock() throws VendingMachineException {
+        for (String code : CODES) {
+            vendingMachine.restockItem(code, STOCK);
+        }
+    }
+
+    @Benchmark
+    public void batchStock() throws VendingMachineException {
+        vendingMachine.restock(stockBatch);
+    }
+
+    @Benchmark
+    public void perItemReprice() throws VendingMachineException {
+        price = price == 2 ? 3 : 2;
+        for (int i = 1; i <= 3; i++) {
+            Snack snack = new Snack("S" + i, "Snack " + i, price, LocalDate.now(), 30);
+            snack.setStock(STOCK);
+            vendingMachine.addItem(snack);
+            Drink drink = new Drink("D" + i, "Drink " + i, price, 330);
+            drink.setStock(STOCK);
+            vendingMachine.addItem(drink);
+        }
+    }
+
+    @Benchmark
+    public void batchReprice() throws VendingMachineException {
+        vendingMachine.restock(repriceBatch);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public void restocker() throws VendingMachineException {
+        vendingMachine.restock(stockBatch);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public DispenseResult buyer() {
+        return vendingMachine.dispenseItem("D1", COINS);
+    }
+}
@@ -0,0 +1,110 @@
+package com.vendingmachine.benchmark;
+
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.model.DispenseResult;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.model.Item;
+import com.vendingmachine.model.Snack;
+import com.vendingmachine.service.VendingMachine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VendingMachineBenchmark {
+
+    private static final String[] CODES = {"S1", "S2", "S3", "D1", "D2", "D3"};
+
+    private VendingMachine vendingMachine;
+    private List<Integer> exactCoins;
+    private List<Integer> coinsWithChange;
+    private List<Integer> shortCoins;
+    private List<Integer> invalidCoins;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws VendingMachineException {
+        vendingMachine = new VendingMachine();
+        for (int i = 1; i <= 3; i++) {
+            vendingMachine.addItem(stocked(new Snack("S" + i, "Snack " + i, 2, LocalDate.now(), 30)));
+            vendingMachine.addItem(stocked(new Drink("D" + i, "Drink " + i, 2, 330)));
+        }
+        exactCoins = Arrays.asList(2);
+        coinsWithChange = Arrays.asList(10, 5, 1);
+        shortCoins = Arrays.asList(1);
+        invalidCoins = Arrays.asList(3);
+    }
+
+    private static Item stocked(Item item) {
+        item.setStock(Integer.MAX_VALUE);
+        return item;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public DispenseResult dispenseExact() {
+        return vendingMachine.dispenseItem("S1", exactCoins);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public DispenseResult dispenseWithChange() {
+        return vendingMachine.dispenseItem("S1", coinsWithChange);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public DispenseResult dispenseItemNotFound() {
+        return vendingMachine.dispenseItem("X9", exactCoins);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean dispenseInsufficientFunds() {
+        return vendingMachine.dispenseItem("S1", shortCoins).isSuccess();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean dispenseInvalidCoins() {
+        return vendingMachine.dispenseItem("S1", invalidCoins).isSuccess();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean dispenseItemNotFoundChecked() {
+        return vendingMachine.dispenseItem("X9", exactCoins).isSuccess();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public DispenseResult dispenseSameCode8Threads() {
+        return vendingMachine.dispenseItem("S1", exactCoins);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public DispenseResult dispenseSpreadCodes8Threads() {
+        String code = CODES[ThreadLocalRandom.current().nextInt(CODES.length)];
+        return vendingMachine.dispenseItem(code, exactCoins);
+    }
+}
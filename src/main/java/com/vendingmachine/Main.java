@@ -1,28 +1,144 @@
 package com.vendingmachine;
 
+import com.vendingmachine.analytics.SalesAnalytics;
+import com.vendingmachine.api.VendingMachineServer;
+import com.vendingmachine.metrics.VendingMetrics;
 import com.vendingmachine.model.Drink;
+import com.vendingmachine.model.ExpiryClock;
+import com.vendingmachine.model.Item;
 import com.vendingmachine.model.Snack;
+import com.vendingmachine.persistence.FsyncPolicy;
+import com.vendingmachine.persistence.InventorySnapshot;
+import com.vendingmachine.persistence.SnapshotScheduler;
+import com.vendingmachine.persistence.TransactionJournal;
+import com.vendingmachine.service.ExpirySweeper;
+import com.vendingmachine.service.ReservationManager;
 import com.vendingmachine.service.VendingMachine;
 import com.vendingmachine.exception.VendingMachineException;
 import com.vendingmachine.ui.ConsoleUI;
+import com.vendingmachine.ui.InventorySink;
 
+import javax.management.JMException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
 
 public class Main {
+    private static final long EXPIRY_SWEEP_MILLIS = 60_000;
+    private static final long HOLD_MILLIS = 120_000;
+    private static final long HOLD_TICK_MILLIS = 500;
+    private static final String USAGE = "Usage: vending-machine [--http <port> | <data-directory>]";
+
     public static void main(String[] args) {
         System.out.println("Vending Machine System");
         System.out.println("======================");
         System.out.println("Initializing system...\n");
 
+        if (args.length > 0 && "--http".equals(args[0])) {
+            int port = args.length == 2 ? parsePort(args[1]) : -1;
+            if (port < 0) {
+                System.err.println(USAGE);
+                return;
+            }
+            runHttp(port);
+            return;
+        }
+        if (args.length > 0) {
+            runPersistent(Paths.get(args[0]));
+            return;
+        }
+
         VendingMachine vendingMachine = initializeVendingMachine();
 
         if (vendingMachine == null) {
             System.err.println("Failed to initialize vending machine. Exiting.");
             return;
         }
+        enableMetrics(vendingMachine);
+
+        ExpirySweeper sweeper = new ExpirySweeper(vendingMachine, ExpiryClock.system(), EXPIRY_SWEEP_MILLIS);
+        try (ReservationManager reservations = ReservationManager.timed(
+                vendingMachine, HOLD_MILLIS, HOLD_TICK_MILLIS)) {
+            ConsoleUI consoleUI = new ConsoleUI(vendingMachine, InventorySink.console(), reservations);
+            consoleUI.start();
+        } finally {
+            sweeper.close();
+        }
+    }
 
-        ConsoleUI consoleUI = new ConsoleUI(vendingMachine);
-        consoleUI.start();
+    // Returns -1 unless the argument is a port number; 0 picks a free port.
+    private static int parsePort(String argument) {
+        try {
+            int port = Integer.parseInt(argument);
+            return port <= 65_535 ? port : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void runHttp(int port) {
+        VendingMachine vendingMachine = initializeVendingMachine();
+        if (vendingMachine == null) {
+            System.err.println("Failed to initialize vending machine. Exiting.");
+            return;
+        }
+        enableMetrics(vendingMachine);
+
+        ExpirySweeper sweeper = new ExpirySweeper(vendingMachine, ExpiryClock.system(), EXPIRY_SWEEP_MILLIS);
+        try (VendingMachineServer server = new VendingMachineServer(vendingMachine, port)) {
+            server.start();
+            System.out.println("\nListening on http://localhost:" + server.getPort());
+            System.out.println("Press Enter to stop.");
+            new Scanner(System.in).nextLine();
+        } catch (IOException e) {
+            System.err.println("Error starting HTTP server: " + e.getMessage());
+        } catch (NoSuchElementException e) {
+            // stdin closed; shut down
+        } finally {
+            sweeper.close();
+        }
+    }
+
+    private static void runPersistent(Path dataDir) {
+        Path snapshotPath = dataDir.resolve("inventory.snapshot");
+        try {
+            Files.createDirectories(dataDir);
+            try (TransactionJournal journal = new TransactionJournal(
+                    dataDir.resolve("transactions.journal"), FsyncPolicy.PERIODIC)) {
+                VendingMachine vendingMachine;
+                if (Files.exists(snapshotPath) || journal.getNextSequence() > 0) {
+                    System.out.println("Recovering inventory from " + dataDir + "...\n");
+                    vendingMachine = InventorySnapshot.recover(snapshotPath, journal);
+                } else {
+                    vendingMachine = initializeVendingMachine();
+                    if (vendingMachine == null) {
+                        System.err.println("Failed to initialize vending machine. Exiting.");
+                        return;
+                    }
+                }
+                vendingMachine.setTransactionLog(journal);
+                enableMetrics(vendingMachine);
+
+                ExpirySweeper sweeper = new ExpirySweeper(
+                        vendingMachine, ExpiryClock.system(), EXPIRY_SWEEP_MILLIS);
+                try (SnapshotScheduler snapshots = new SnapshotScheduler(
+                        vendingMachine, journal, snapshotPath, 60_000);
+                     ReservationManager reservations = ReservationManager.timed(
+                        vendingMachine, HOLD_MILLIS, HOLD_TICK_MILLIS)) {
+                    snapshots.snapshotNow();
+                    new ConsoleUI(vendingMachine, InventorySink.console(), reservations).start();
+                } finally {
+                    sweeper.close();
+                }
+            }
+        } catch (IOException | VendingMachineException e) {
+            System.err.println("Error opening data directory: " + e.getMessage());
+            e.printStackTrace();
+        }
     }
 
     private static VendingMachine initializeVendingMachine() {
@@ -34,29 +150,29 @@ public class Main {
             Snack chips = new Snack("S1", "Lays Classic Chips", 2,
                     LocalDate.now().minusDays(5), 30);
             chips.setStock(5);
-            machine.addItem(chips);
+            addItem(machine, chips);
 
             Snack cookies = new Snack("S2", "Chocolate Cookies", 3,
                     LocalDate.now().minusDays(2), 14);
             cookies.setStock(3);
-            machine.addItem(cookies);
+            addItem(machine, cookies);
 
             Snack candy = new Snack("S3", "Snickers Bar", 2,
                     LocalDate.now().minusDays(50), 60);
             candy.setStock(4);
-            machine.addItem(candy);
+            addItem(machine, candy);
 
             Drink coke = new Drink("D1", "Coca-Cola", 2, 330);
             coke.setStock(6);
-            machine.addItem(coke);
+            addItem(machine, coke);
 
             Drink water = new Drink("D2", "Spring Water", 1, 500);
             water.setStock(8);
-            machine.addItem(water);
+            addItem(machine, water);
 
             Drink juice = new Drink("D3", "Orange Juice", 2, 45);
             juice.setStock(2);
-            machine.addItem(juice);
+            addItem(machine, juice);
 
             System.out.println("Inventory loaded successfully!");
             System.out.println("   - " + machine.getSnackCount() + " snack types");
@@ -70,4 +186,20 @@ public class Main {
 
         return machine;
     }
-}
\ No newline at end of file
+
+    private static void enableMetrics(VendingMachine machine) {
+        VendingMetrics metrics = new VendingMetrics();
+        machine.setMetrics(metrics);
+        machine.setSalesAnalytics(new SalesAnalytics(machine.getDenominations()));
+        try {
+            metrics.register("main");
+        } catch (JMException e) {
+            System.err.println("Metrics are not available over JMX: " + e.getMessage());
+        }
+    }
+
+    private static void addItem(VendingMachine machine, Item item) throws VendingMachineException {
+        machine.addItem(item);
+        System.out.println("Added: " + item);
+    }
+}
@@ -0,0 +1,285 @@
+package com.vendingmachine.analytics;
+
+import com.vendingmachine.service.Denominations;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running sales totals kept in fixed memory: units and revenue per item, an
+ * hourly ring of totals, the best sellers, and the coins taken in and paid
+ * out per denomination.
+ *
+ * <p>Every figure is a {@link LongAdder} and each sale adds to them in place,
+ * so a query reads the current totals rather than replaying history. The
+ * per-item and coin adders are allocated up front; an hour's pair is
+ * allocated by the first sale of that hour, so the hourly ring costs one
+ * small allocation an hour. Sales take no lock, so concurrent sales do not
+ * queue behind one another; queries sum the adders and rank the best sellers
+ * when asked. Figures read while sales are running may be a sale apart.
+ * Items beyond {@code maxItems} still count towards the totals and hourly
+ * figures but get no row of their own.
+ *
+ * <p>Hours older than the ring are dropped. A sale that found its hour's
+ * bucket just before a sale a full ring later replaced it still adds to the
+ * old bucket, which no query can reach any more; that sale is lost only from
+ * an hour the ring has already let go.
+ */
+public class SalesAnalytics {
+    public static final int DEFAULT_MAX_ITEMS = 256;
+    public static final int DEFAULT_HOURS = 7 * 24;
+    public static final int DEFAULT_TOP_SELLERS = 10;
+
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+
+    public record ItemSales(String code, long units, long revenue) {
+    }
+
+    private final Denominations denominations;
+    private final Clock clock;
+    private final int topSellers;
+
+    private final Map<String, Integer> itemIndex = new ConcurrentHashMap<>();
+    private final AtomicInteger nextItem = new AtomicInteger();
+    private final LongAdder[] units;
+    private final LongAdder[] revenue;
+    private final LongAdder totalUnits = new LongAdder();
+    private final LongAdder totalRevenue = new LongAdder();
+    private final LongAdder untrackedUnits = new LongAdder();
+
+    // A new bucket replaces an older hour's in its slot with one CAS.
+    private final AtomicReferenceArray<Hour> hours;
+
+    private final LongAdder[] coinsReceived;
+    private final LongAdder[] coinsPaidOut;
+
+    public SalesAnalytics(Denominations denominations) {
+        this(denominations, DEFAULT_MAX_ITEMS, DEFAULT_HOURS, DEFAULT_TOP_SELLERS, Clock.systemUTC());
+    }
+
+    public SalesAnalytics(Denominations denominations, int maxItems, int hours, int topSellers, Clock clock) {
+        if (maxItems < 1 || hours < 1 || topSellers < 1) {
+            throw new IllegalArgumentException("Sizes must be positive");
+        }
+        this.denominations = denominations;
+        this.clock = clock;
+        this.topSellers = Math.min(topSellers, maxItems);
+        this.units = adders(maxItems);
+        this.revenue = adders(maxItems);
+        this.hours = new AtomicReferenceArray<>(hours);
+        this.coinsReceived = adders(denominations.size());
+        this.coinsPaidOut = adders(denominations.size());
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    public void recordSale(String code, int price, List<Integer> coinsIn, List<Integer> change) {
+        recordSale(code, 1, price, coinsIn, change, clock.millis());
+    }
+
+    public void recordSale(String code, int quantity, int amount, List<Integer> coinsIn, List<Integer> change) {
+        recordSale(code, quantity, amount, coinsIn, change, clock.millis());
+    }
+
+    /**
+     * Records {@code quantity} units of {@code code} sold for {@code amount} in
+     * total. Either coin list may be empty, for example on all but one line of
+     * a multi-item order.
+     */
+    public void recordSale(String code, int quantity, int amount,
+                           List<Integer> coinsIn, List<Integer> change, long epochMillis) {
+        totalUnits.add(quantity);
+        totalRevenue.add(amount);
+
+        int item = indexOf(code);
+        if (item >= 0) {
+            units[item].add(quantity);
+            revenue[item].add(amount);
+        } else {
+            untrackedUnits.add(quantity);
+        }
+
+        long hour = Math.floorDiv(epochMillis, MILLIS_PER_HOUR);
+        int slot = (int) Math.floorMod(hour, (long) hours.length());
+        Hour bucket = hours.get(slot);
+        while (bucket == null || bucket.stamp < hour) {
+            Hour fresh = new Hour(hour);
+            if (hours.compareAndSet(slot, bucket, fresh)) {
+                bucket = fresh;
+            } else {
+                bucket = hours.get(slot);
+            }
+        }
+        // A sale stamped older than the ring reaches back is dropped from the
+        // hourly figures rather than overwriting a newer hour.
+        if (bucket.stamp == hour) {
+            bucket.units.add(quantity);
+            bucket.revenue.add(amount);
+        }
+
+        countCoins(coinsIn, coinsReceived);
+        countCoins(change, coinsPaidOut);
+    }
+
+    // Returns -1 once every row is taken. Only an item's first sale reaches
+    // computeIfAbsent; later ones are a plain lookup.
+    private int indexOf(String code) {
+        Integer index = itemIndex.get(code);
+        if (index == null) {
+            index = itemIndex.computeIfAbsent(code, key -> {
+                int next;
+                do {
+                    next = nextItem.get();
+                    if (next == units.length) {
+                        return null;
+                    }
+                } while (!nextItem.compareAndSet(next, next + 1));
+                return next;
+            });
+        }
+        return index != null ? index : -1;
+    }
+
+    private void countCoins(List<Integer> coins, LongAdder[] counts) {
+        if (coins == null) {
+            return;
+        }
+        for (int i = 0, n = coins.size(); i < n; i++) {
+            Integer coin = coins.get(i);
+            int index = coin != null ? denominations.indexOf(coin) : -1;
+            if (index >= 0) {
+                counts[index].increment();
+            }
+        }
+    }
+
+    public long getUnits(String code) {
+        Integer index = itemIndex.get(code);
+        return index != null ? units[index].sum() : 0;
+    }
+
+    public long getRevenue(String code) {
+        Integer index = itemIndex.get(code);
+        return index != null ? revenue[index].sum() : 0;
+    }
+
+    public long getTotalUnits() {
+        return totalUnits.sum();
+    }
+
+    public long getTotalRevenue() {
+        return totalRevenue.sum();
+    }
+
+    public long getUntrackedUnits() {
+        return untrackedUnits.sum();
+    }
+
+    /**
+     * Returns up to {@code n} best-selling items by units, best first, and
+     * never more than the {@code topSellers} the instance was built with.
+     * Ties go to the item that sold first.
+     */
+    public List<ItemSales> getTopSellers(int n) {
+        int limit = Math.max(0, Math.min(n, topSellers));
+        int[] best = new int[limit];
+        long[] bestUnits = new long[best.length];
+        String[] bestCodes = new String[best.length];
+        int size = 0;
+        for (Map.Entry<String, Integer> entry : itemIndex.entrySet()) {
+            int item = entry.getValue();
+            long sold = units[item].sum();
+            int position = size;
+            while (position > 0 && (bestUnits[position - 1] < sold
+                    || bestUnits[position - 1] == sold && best[position - 1] > item)) {
+                position--;
+            }
+            if (position == limit) {
+                continue;
+            }
+            int moved = Math.min(size, limit - 1) - position;
+            System.arraycopy(best, position, best, position + 1, moved);
+            System.arraycopy(bestUnits, position, bestUnits, position + 1, moved);
+            System.arraycopy(bestCodes, position, bestCodes, position + 1, moved);
+            best[position] = item;
+            bestUnits[position] = sold;
+            bestCodes[position] = entry.getKey();
+            size = Math.min(size + 1, limit);
+        }
+        List<ItemSales> sellers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            sellers.add(new ItemSales(bestCodes[i], bestUnits[i], revenue[best[i]].sum()));
+        }
+        return sellers;
+    }
+
+    /**
+     * Units sold in each of the last {@code hours} hours, oldest first, ending
+     * with the current hour.
+     */
+    public long[] getHourlyUnits(int hours) {
+        return hourly(true, hours);
+    }
+
+    public long[] getHourlyRevenue(int hours) {
+        return hourly(false, hours);
+    }
+
+    private long[] hourly(boolean unitsWanted, int count) {
+        if (count < 1 || count > hours.length()) {
+            throw new IllegalArgumentException("Hours must be between 1 and " + hours.length());
+        }
+        long now = Math.floorDiv(clock.millis(), MILLIS_PER_HOUR);
+        long[] result = new long[count];
+        for (int i = 0; i < count; i++) {
+            long hour = now - (count - 1 - i);
+            Hour bucket = hours.get((int) Math.floorMod(hour, (long) hours.length()));
+            if (bucket != null && bucket.stamp == hour) {
+                result[i] = (unitsWanted ? bucket.units : bucket.revenue).sum();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Coins taken in, keyed by denomination from smallest to largest.
+     */
+    public Map<Integer, Long> getCoinsReceived() {
+        return coinMix(coinsReceived);
+    }
+
+    public Map<Integer, Long> getCoinsPaidOut() {
+        return coinMix(coinsPaidOut);
+    }
+
+    private Map<Integer, Long> coinMix(LongAdder[] counts) {
+        Map<Integer, Long> mix = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            mix.put(denominations.valueAt(i), counts[i].sum());
+        }
+        return mix;
+    }
+
+    private static final class Hour {
+        final long stamp;
+        final LongAdder units = new LongAdder();
+        final LongAdder revenue = new LongAdder();
+
+        Hour(long stamp) {
+            this.stamp = stamp;
+        }
+    }
+}
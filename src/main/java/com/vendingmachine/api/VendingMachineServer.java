@@ -0,0 +1,430 @@
+package com.vendingmachine.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.vendingmachine.analytics.SalesAnalytics;
+import com.vendingmachine.exception.ItemNotFoundException;
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.metrics.VendingMetrics;
+import com.vendingmachine.model.DispenseResult;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.model.Item;
+import com.vendingmachine.model.OrderResult;
+import com.vendingmachine.model.Snack;
+import com.vendingmachine.service.RestockBatch;
+import com.vendingmachine.service.VendingMachine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded HTTP/JSON front-end for a {@link VendingMachine}.
+ *
+ * <pre>
+ * GET  /inventory                                  list every slot
+ * POST /purchase  {"code":"S1","coins":[2,1]}      buy one item
+ * POST /order     {"items":{"S1":2,"D1":1},"coins":[10]}  buy several items at once
+ * POST /restock   {"code":"S1","stock":5}          set a slot's stock
+ * POST /restock   {"items":[{"code":"S1","stock":5,"price":3,"manufactureDate":"2025-01-01"}]}
+ *                                                  change many slots at once, all or nothing
+ * POST /items     {"type":"drink","code":"D1",...} add an item
+ * GET  /metrics                                    counters and latencies, Prometheus text format
+ * GET  /sales                                      sales totals, best sellers, last 24 hours, coin mix
+ * </pre>
+ *
+ * Each request runs on its own virtual thread. Request bodies over
+ * {@link #MAX_BODY_BYTES} are refused with 413.
+ */
+public class VendingMachineServer implements Closeable {
+    private static final int BACKLOG = 4096;
+    static final int MAX_BODY_BYTES = 64 * 1024;
+
+    // The JDK server writes headers and body separately; with Nagle on, the body
+    // waits out the client's delayed ACK (about 40ms per request). The property is
+    // read once when the server classes load, so set it before the first server.
+    static {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final VendingMachine machine;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public VendingMachineServer(VendingMachine machine, int port) throws IOException {
+        this.machine = machine;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), BACKLOG);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/inventory", handler("GET", body -> inventory()));
+        server.createContext("/purchase", handler("POST", this::purchase));
+        server.createContext("/order", handler("POST", this::order));
+        server.createContext("/restock", handler("POST", this::restock));
+        server.createContext("/items", handler("POST", this::addItem));
+        server.createContext("/metrics", handler("GET", body -> metrics()));
+        server.createContext("/sales", handler("GET", body -> sales()));
+    }
+
+    public static ExecutorService newRequestExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private Response inventory() {
+        StringBuilder json = new StringBuilder(256).append('[');
+        boolean first = true;
+        for (Item item : machine.getItems()) {
+            if (!first) json.append(',');
+            first = false;
+            appendItem(json, item);
+        }
+        return Response.ok(json.append(']'));
+    }
+
+    private Response metrics() {
+        VendingMetrics metrics = machine.getMetrics();
+        if (metrics == null) {
+            return Response.error(404, "Metrics are not enabled");
+        }
+        return Response.text(metrics.writeText(new StringBuilder(2048)));
+    }
+
+    private Response sales() {
+        SalesAnalytics analytics = machine.getSalesAnalytics();
+        if (analytics == null) {
+            return Response.error(404, "Sales analytics are not enabled");
+        }
+        StringBuilder json = new StringBuilder(512);
+        json.append("{\"units\":").append(analytics.getTotalUnits())
+            .append(",\"revenue\":").append(analytics.getTotalRevenue())
+            .append(",\"topSellers\":[");
+        List<SalesAnalytics.ItemSales> sellers = analytics.getTopSellers(SalesAnalytics.DEFAULT_TOP_SELLERS);
+        for (int i = 0; i < sellers.size(); i++) {
+            SalesAnalytics.ItemSales seller = sellers.get(i);
+            if (i > 0) json.append(',');
+            json.append("{\"code\":");
+            Json.appendString(json, seller.code());
+            json.append(",\"units\":").append(seller.units())
+                .append(",\"revenue\":").append(seller.revenue()).append('}');
+        }
+        json.append("],\"hourlyUnits\":");
+        appendLongArray(json, analytics.getHourlyUnits(24));
+        json.append(",\"hourlyRevenue\":");
+        appendLongArray(json, analytics.getHourlyRevenue(24));
+        json.append(",\"coinsReceived\":");
+        appendCoinMix(json, analytics.getCoinsReceived());
+        json.append(",\"coinsPaidOut\":");
+        appendCoinMix(json, analytics.getCoinsPaidOut());
+        return Response.ok(json.append('}'));
+    }
+
+    private static void appendLongArray(StringBuilder json, long[] values) {
+        json.append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) json.append(',');
+            json.append(values[i]);
+        }
+        json.append(']');
+    }
+
+    private static void appendCoinMix(StringBuilder json, Map<Integer, Long> mix) {
+        json.append('{');
+        boolean first = true;
+        for (Map.Entry<Integer, Long> coin : mix.entrySet()) {
+            if (!first) json.append(',');
+            first = false;
+            json.append('"').append(coin.getKey()).append("\":").append(coin.getValue());
+        }
+        json.append('}');
+    }
+
+    private Response purchase(Map<String, Object> body) {
+        String code = requireString(body, "code");
+        List<Integer> coins = requireIntList(body, "coins");
+        if (machine.getItem(code) == null) {
+            return Response.error(404, "Item not found: " + code);
+        }
+
+        DispenseResult result = machine.dispenseItem(code, coins);
+        StringBuilder json = new StringBuilder(128);
+        json.append("{\"success\":").append(result.isSuccess()).append(",\"message\":");
+        Json.appendString(json, result.getMessage());
+        json.append(",\"change\":");
+        Json.appendIntArray(json, result.getChange()).append('}');
+        return new Response(result.isSuccess() ? 200 : 409, json);
+    }
+
+    private Response order(Map<String, Object> body) {
+        Object items = body.get("items");
+        if (!(items instanceof Map<?, ?> lines)) {
+            throw new IllegalArgumentException("Missing object field: items");
+        }
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> line : lines.entrySet()) {
+            if (!(line.getValue() instanceof Integer quantity)) {
+                throw new IllegalArgumentException("Quantity for " + line.getKey() + " must be an integer");
+            }
+            quantities.put((String) line.getKey(), quantity);
+        }
+        List<Integer> coins = requireIntList(body, "coins");
+
+        OrderResult result = machine.dispenseOrder(quantities, coins);
+        StringBuilder json = new StringBuilder(128);
+        json.append("{\"success\":").append(result.isSuccess()).append(",\"message\":");
+        Json.appendString(json, result.getMessage());
+        json.append(",\"total\":").append(result.getTotalPrice()).append(",\"change\":");
+        Json.appendIntArray(json, result.getChange()).append('}');
+        return new Response(result.isSuccess() ? 200 : 409, json);
+    }
+
+    private Response restock(Map<String, Object> body) {
+        if (body.containsKey("items")) {
+            return restockBatch(body);
+        }
+        String code = requireString(body, "code");
+        int stock = requireInt(body, "stock");
+        if (stock < 0) {
+            return Response.error(400, "Stock cannot be negative");
+        }
+        try {
+            machine.restockItem(code, stock);
+        } catch (ItemNotFoundException e) {
+            return Response.error(404, e.getMessage());
+        } catch (VendingMachineException e) {
+            return Response.error(409, e.getMessage());
+        }
+        return Response.ok(appendItem(new StringBuilder(128), machine.getItem(code)));
+    }
+
+    private Response restockBatch(Map<String, Object> body) {
+        if (!(body.get("items") instanceof List<?> items)) {
+            throw new IllegalArgumentException("Missing array field: items");
+        }
+        RestockBatch batch = new RestockBatch();
+        for (Object entry : items) {
+            if (!(entry instanceof Map<?, ?>)) {
+                throw new IllegalArgumentException("Each restock item must be an object");
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> line = (Map<String, Object>) entry;
+            String code = requireString(line, "code");
+            if (line.containsKey("stock")) {
+                batch.stock(code, requireInt(line, "stock"));
+            }
+            if (line.containsKey("price")) {
+                batch.price(code, requireInt(line, "price"));
+            }
+            if (line.containsKey("manufactureDate")) {
+                try {
+                    batch.manufactureDate(code, LocalDate.parse(requireString(line, "manufactureDate")));
+                } catch (DateTimeParseException e) {
+                    throw new IllegalArgumentException("Invalid manufactureDate");
+                }
+            }
+        }
+
+        try {
+            machine.restock(batch);
+        } catch (ItemNotFoundException e) {
+            return Response.error(404, e.getMessage());
+        } catch (VendingMachineException e) {
+            return Response.error(409, e.getMessage());
+        }
+        return inventory();
+    }
+
+    private Response addItem(Map<String, Object> body) {
+        String type = requireString(body, "type");
+        String code = requireString(body, "code");
+        String description = requireString(body, "description");
+        int price = requireInt(body, "price");
+        if (price <= 0) {
+            return Response.error(400, "Price must be positive");
+        }
+        int stock = body.containsKey("stock") ? requireInt(body, "stock") : 0;
+        if (stock < 0) {
+            return Response.error(400, "Stock cannot be negative");
+        }
+        Item item;
+        if ("snack".equals(type)) {
+            LocalDate manufactureDate;
+            try {
+                manufactureDate = LocalDate.parse(requireString(body, "manufactureDate"));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid manufactureDate");
+            }
+            item = new Snack(code, description, price, manufactureDate, requireInt(body, "shelfLifeDays"));
+        } else if ("drink".equals(type)) {
+            int volume = requireInt(body, "volumeMl");
+            item = body.containsKey("minVolumeThreshold")
+                    ? new Drink(code, description, price, volume, requireInt(body, "minVolumeThreshold"))
+                    : new Drink(code, description, price, volume);
+        } else {
+            throw new IllegalArgumentException("Unknown item type: " + type);
+        }
+        if (body.containsKey("stock")) {
+            item.setStock(stock);
+        }
+
+        try {
+            machine.addItem(item);
+        } catch (VendingMachineException e) {
+            return Response.error(409, e.getMessage());
+        }
+        return new Response(201, appendItem(new StringBuilder(128), item));
+    }
+
+    private static StringBuilder appendItem(StringBuilder json, Item item) {
+        json.append("{\"code\":");
+        Json.appendString(json, item.getCode());
+        json.append(",\"description\":");
+        Json.appendString(json, item.getDescription());
+        json.append(",\"price\":").append(item.getPrice());
+        json.append(",\"stock\":").append(item.getStock());
+        json.append(",\"available\":").append(item.canDispense());
+        json.append(",\"details\":");
+        Json.appendString(json, item.getItemDetails());
+        return json.append('}');
+    }
+
+    private static String requireString(Map<String, Object> body, String field) {
+        Object value = body.get(field);
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("Missing string field: " + field);
+        }
+        return (String) value;
+    }
+
+    private static int requireInt(Map<String, Object> body, String field) {
+        Object value = body.get(field);
+        if (!(value instanceof Integer)) {
+            throw new IllegalArgumentException("Missing integer field: " + field);
+        }
+        return (Integer) value;
+    }
+
+    private static List<Integer> requireIntList(Map<String, Object> body, String field) {
+        Object value = body.get(field);
+        if (!(value instanceof List)) {
+            throw new IllegalArgumentException("Missing array field: " + field);
+        }
+        List<Integer> values = new ArrayList<>();
+        for (Object element : (List<?>) value) {
+            if (!(element instanceof Integer)) {
+                throw new IllegalArgumentException("Field " + field + " must hold integers");
+            }
+            values.add((Integer) element);
+        }
+        return values;
+    }
+
+    private static HttpHandler handler(String method, Endpoint endpoint) {
+        return exchange -> {
+            Response response;
+            try {
+                if (!method.equals(exchange.getRequestMethod())) {
+                    response = Response.error(405, "Use " + method);
+                } else if ("POST".equals(method)) {
+                    byte[] body = readBody(exchange);
+                    response = body == null
+                            ? Response.error(413, "Request body is larger than " + MAX_BODY_BYTES + " bytes")
+                            : endpoint.handle(Json.parseObject(new String(body, StandardCharsets.UTF_8)));
+                } else {
+                    response = endpoint.handle(null);
+                }
+            } catch (IllegalArgumentException e) {
+                response = Response.error(400, e.getMessage());
+            } catch (RuntimeException e) {
+                response = Response.error(500, "Internal error");
+            }
+            send(exchange, response);
+        };
+    }
+
+    // Reads at most one byte past the limit, so an oversized body is
+    // refused without being held in memory; null when it is too large.
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            return body.length > MAX_BODY_BYTES ? null : body;
+        }
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] bytes = response.body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", response.contentType);
+        exchange.sendResponseHeaders(response.status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Endpoint {
+        Response handle(Map<String, Object> body);
+    }
+
+    private static final class Response {
+        static final String JSON = "application/json; charset=utf-8";
+        static final String TEXT = "text/plain; version=0.0.4; charset=utf-8";
+
+        final int status;
+        final CharSequence body;
+        final String contentType;
+
+        Response(int status, CharSequence body) {
+            this(status, body, JSON);
+        }
+
+        Response(int status, CharSequence body, String contentType) {
+            this.status = status;
+            this.body = body;
+            this.contentType = contentType;
+        }
+
+        static Response ok(CharSequence body) {
+            return new Response(200, body);
+        }
+
+        static Response text(CharSequence body) {
+            return new Response(200, body, TEXT);
+        }
+
+        static Response error(int status, String message) {
+            return new Response(status, Json.appendString(new StringBuilder("{\"error\":"), message).append('}'));
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.vendingmachine.events;
+
+import com.vendingmachine.model.DispenseResult;
+import com.vendingmachine.model.Item;
+import com.vendingmachine.model.PaymentResult;
+
+import java.io.Closeable;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands dispense, payment, restock and expiry events to handlers on their own
+ * threads, so logging, metrics and persistence stay off the selling thread.
+ *
+ * <p>Events live in a ring of {@link VendingEvent}s allocated up front. A
+ * publisher claims the next sequence, fills the slot it maps to and marks it
+ * published; nothing is allocated per event. Each handler's
+ * {@link EventProcessor} tracks the last sequence it has handled, and a
+ * publisher that would wrap onto a slot some processor has not reached yet
+ * waits for it, so no event is lost to a slow handler.
+ *
+ * <p>Add handlers, then {@link #start()}, then hand the bus to the machine.
+ */
+public final class EventBus implements Closeable {
+    public static final int DEFAULT_BUFFER_SIZE = 1024;
+
+    private static final VarHandle PUBLISHED = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 200;
+    private static final long PARK_NANOS = 50_000;
+
+    private final VendingEvent[] entries;
+    // The sequence last published into each slot; a slot is readable for
+    // sequence s once it holds s.
+    private final long[] published;
+    private final int mask;
+    private final Sequence cursor = new Sequence(-1);
+    private final List<EventProcessor> processors = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile Sequence[] gating = new Sequence[0];
+    private volatile long gatingCache = -1;
+    private volatile boolean started;
+    private volatile boolean closed;
+
+    public EventBus() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * {@code bufferSize} must be a power of two.
+     */
+    public EventBus(int bufferSize) {
+        if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("Buffer size must be a power of two: " + bufferSize);
+        }
+        entries = new VendingEvent[bufferSize];
+        for (int i = 0; i < bufferSize; i++) {
+            entries[i] = new VendingEvent();
+        }
+        published = new long[bufferSize];
+        Arrays.fill(published, -1);
+        mask = bufferSize - 1;
+    }
+
+    /**
+     * Adds a handler that sees every event after each processor in
+     * {@code after} has handled it.
+     */
+    public synchronized EventProcessor addHandler(String name, EventHandler handler, EventProcessor... after) {
+        if (started) {
+            throw new IllegalStateException("Handlers must be added before the bus starts");
+        }
+        Sequence[] dependencies = new Sequence[after.length];
+        for (int i = 0; i < after.length; i++) {
+            if (!processors.contains(after[i])) {
+                throw new IllegalArgumentException(after[i].getName() + " is not a handler on this bus");
+            }
+            dependencies[i] = after[i].sequence();
+        }
+        EventProcessor processor = new EventProcessor(this, name, handler, dependencies);
+        processors.add(processor);
+        Sequence[] sequences = Arrays.copyOf(gating, gating.length + 1);
+        sequences[gating.length] = processor.sequence();
+        gating = sequences;
+        return processor;
+    }
+
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        for (EventProcessor processor : processors) {
+            Thread thread = new Thread(processor, "event-" + processor.getName());
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+    }
+
+    public void publishDispense(String code, DispenseResult.Outcome outcome, int quantity, int price,
+                                int totalPaid, int change, long stockState) {
+        long sequence = next();
+        VendingEvent event = claim(sequence, VendingEvent.Type.DISPENSE, code);
+        event.dispenseOutcome = outcome;
+        event.quantity = quantity;
+        event.amount = price;
+        event.totalPaid = totalPaid;
+        event.change = change;
+        setStock(event, stockState);
+        publish(sequence);
+    }
+
+    public void publishPayment(PaymentResult.Outcome outcome, int amountDue, int totalPaid, int change) {
+        long sequence = next();
+        VendingEvent event = claim(sequence, VendingEvent.Type.PAYMENT, null);
+        event.paymentOutcome = outcome;
+        event.amount = amountDue;
+        event.totalPaid = totalPaid;
+        event.change = change;
+        publish(sequence);
+    }
+
+    public void publishRestock(String code, long stockState) {
+        long sequence = next();
+        VendingEvent event = claim(sequence, VendingEvent.Type.RESTOCK, code);
+        setStock(event, stockState);
+        publish(sequence);
+    }
+
+    public void publishExpiry(String code, long stockState, long epochDay) {
+        long sequence = next();
+        VendingEvent event = claim(sequence, VendingEvent.Type.EXPIRY, code);
+        setStock(event, stockState);
+        event.epochDay = epochDay;
+        publish(sequence);
+    }
+
+    private VendingEvent claim(long sequence, VendingEvent.Type type, String code) {
+        VendingEvent event = entries[(int) sequence & mask];
+        event.clear();
+        event.type = type;
+        event.code = code;
+        return event;
+    }
+
+    private static void setStock(VendingEvent event, long stockState) {
+        if (stockState != Item.NO_STOCK) {
+            event.stock = Item.stockOf(stockState);
+            event.stockVersion = Item.versionOf(stockState);
+        }
+    }
+
+    // Claims a sequence, waiting while its slot still holds an event that
+    // some processor has not handled. The slowest processor's position is
+    // cached, so most claims read no processor state at all.
+    private long next() {
+        long sequence = cursor.incrementAndGet();
+        long wrapPoint = sequence - entries.length;
+        if (wrapPoint > gatingCache) {
+            long slowest;
+            int tries = 0;
+            while (wrapPoint > (slowest = minimum(gating, sequence)) && !closed) {
+                backOff(tries++);
+            }
+            gatingCache = slowest;
+        }
+        return sequence;
+    }
+
+    private void publish(long sequence) {
+        PUBLISHED.setRelease(published, (int) sequence & mask, sequence);
+    }
+
+    VendingEvent entry(long sequence) {
+        return entries[(int) sequence & mask];
+    }
+
+    // The highest sequence from next up to limit such that it and everything
+    // before it is published, or next - 1 if next itself is not.
+    long highestPublished(long next, long limit) {
+        long sequence = next - 1;
+        while (sequence < limit
+                && (long) PUBLISHED.getAcquire(published, (int) (sequence + 1) & mask) == sequence + 1) {
+            sequence++;
+        }
+        return sequence;
+    }
+
+    static long minimum(Sequence[] sequences, long ifEmpty) {
+        long minimum = ifEmpty;
+        for (Sequence sequence : sequences) {
+            minimum = Math.min(minimum, sequence.get());
+        }
+        return minimum;
+    }
+
+    // Spins briefly, then yields, then parks, so an idle processor or a
+    // blocked publisher gives the CPU back without adding much latency.
+    static void backOff(int tries) {
+        if (tries < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (tries < YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    /**
+     * The last sequence claimed by a publisher, or -1 before the first event.
+     */
+    public long getCursor() {
+        return cursor.get();
+    }
+
+    /**
+     * How many claimed events the slowest processor has yet to handle.
+     */
+    public long getLag() {
+        long cursor = getCursor();
+        return cursor - minimum(gating, cursor);
+    }
+
+    public int getBufferSize() {
+        return entries.length;
+    }
+
+    public synchronized List<EventProcessor> getProcessors() {
+        return List.copyOf(processors);
+    }
+
+    /**
+     * Lets every processor finish the events already claimed, then stops
+     * them. Events published afterwards are dropped.
+     */
+    @Override
+    public void close() {
+        List<Thread> stopping;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            for (EventProcessor processor : processors) {
+                processor.stop();
+            }
+            stopping = List.copyOf(threads);
+        }
+        try {
+            for (Thread thread : stopping) {
+                thread.join(5_000);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closed = true;
+        gating = new Sequence[0];
+    }
+}
@@ -0,0 +1,11 @@
+package com.vendingmachine.events;
+
+/**
+ * Consumes events from an {@link EventBus} on the bus's thread for this
+ * handler. {@code endOfBatch} is true for the last event currently available,
+ * which is the moment to flush anything buffered.
+ */
+@FunctionalInterface
+public interface EventHandler {
+    void onEvent(VendingEvent event, long sequence, boolean endOfBatch);
+}
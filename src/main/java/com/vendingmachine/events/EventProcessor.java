@@ -0,0 +1,84 @@
+package com.vendingmachine.events;
+
+/**
+ * Runs one {@link EventHandler} on its own thread. It follows the bus's
+ * published events, and if it was added after other processors it also stays
+ * behind each of them, so a handler can rely on work done upstream.
+ */
+public final class EventProcessor implements Runnable {
+    private final EventBus bus;
+    private final String name;
+    private final EventHandler handler;
+    private final Sequence[] dependencies;
+    private final Sequence sequence = new Sequence(-1);
+    private volatile RuntimeException lastFailure;
+    private volatile boolean running = true;
+
+    EventProcessor(EventBus bus, String name, EventHandler handler, Sequence[] dependencies) {
+        this.bus = bus;
+        this.name = name;
+        this.handler = handler;
+        this.dependencies = dependencies;
+    }
+
+    @Override
+    public void run() {
+        long next = sequence.get() + 1;
+        int idle = 0;
+        while (true) {
+            long available = bus.highestPublished(next, limit());
+            if (available < next) {
+                // Stop only once everything claimed before close has been handled.
+                if (!running && next > bus.getCursor()) {
+                    return;
+                }
+                EventBus.backOff(idle++);
+                continue;
+            }
+            for (long s = next; s <= available; s++) {
+                try {
+                    handler.onEvent(bus.entry(s), s, s == available);
+                } catch (RuntimeException e) {
+                    lastFailure = e;
+                }
+            }
+            sequence.setRelease(available);
+            next = available + 1;
+            idle = 0;
+        }
+    }
+
+    private long limit() {
+        if (dependencies.length == 0) {
+            return bus.getCursor();
+        }
+        return EventBus.minimum(dependencies, Long.MAX_VALUE);
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    Sequence sequence() {
+        return sequence;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The last sequence this processor has handled, or -1 before the first.
+     */
+    public long getSequence() {
+        return sequence.get();
+    }
+
+    /**
+     * The last exception the handler threw. A failing event is skipped, so
+     * one bad handler cannot hold up the producers.
+     */
+    public RuntimeException getLastFailure() {
+        return lastFailure;
+    }
+}
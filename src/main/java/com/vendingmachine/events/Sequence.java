@@ -0,0 +1,47 @@
+package com.vendingmachine.events;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+// Padding on both sides keeps each hot counter on its own cache line, so a
+// producer bumping the cursor does not stall a consumer publishing progress.
+// Superclass fields are laid out first, which is what holds the order.
+abstract class SequenceLeftPadding {
+    long p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class SequenceValue extends SequenceLeftPadding {
+    volatile long value;
+}
+
+abstract class SequenceRightPadding extends SequenceValue {
+    long p11, p12, p13, p14, p15, p16, p17;
+}
+
+final class Sequence extends SequenceRightPadding {
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    Sequence(long initial) {
+        value = initial;
+    }
+
+    long get() {
+        return value;
+    }
+
+    void setRelease(long sequence) {
+        VALUE.setRelease(this, sequence);
+    }
+
+    long incrementAndGet() {
+        return (long) VALUE.getAndAdd(this, 1L) + 1;
+    }
+}
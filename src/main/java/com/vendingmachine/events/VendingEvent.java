@@ -0,0 +1,113 @@
+package com.vendingmachine.events;
+
+import com.vendingmachine.model.DispenseResult;
+import com.vendingmachine.model.PaymentResult;
+
+/**
+ * One slot of an {@link EventBus} ring. The bus allocates every slot up front
+ * and refills it for each event, so a handler must copy anything it wants to
+ * keep before it returns. Fields that do not apply to the event's type read as
+ * zero or null.
+ */
+public final class VendingEvent {
+    public enum Type {
+        DISPENSE,
+        PAYMENT,
+        RESTOCK,
+        EXPIRY
+    }
+
+    Type type;
+    String code;
+    DispenseResult.Outcome dispenseOutcome;
+    PaymentResult.Outcome paymentOutcome;
+    int quantity;
+    int amount;
+    int totalPaid;
+    int change;
+    int stock;
+    int stockVersion;
+    long epochDay;
+
+    VendingEvent() {
+    }
+
+    void clear() {
+        dispenseOutcome = null;
+        paymentOutcome = null;
+        quantity = 0;
+        amount = 0;
+        totalPaid = 0;
+        change = 0;
+        stock = 0;
+        stockVersion = 0;
+        epochDay = 0;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * The slot code, or null for a payment, which is taken before the slot
+     * matters.
+     */
+    public String getCode() {
+        return code;
+    }
+
+    public DispenseResult.Outcome getDispenseOutcome() {
+        return dispenseOutcome;
+    }
+
+    public PaymentResult.Outcome getPaymentOutcome() {
+        return paymentOutcome;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * The price of a dispense, or the amount due for a payment.
+     */
+    public int getAmount() {
+        return amount;
+    }
+
+    public int getTotalPaid() {
+        return totalPaid;
+    }
+
+    public int getChange() {
+        return change;
+    }
+
+    /**
+     * Stock left after a successful dispense, set by a restock, or withdrawn
+     * by an expiry.
+     */
+    public int getStock() {
+        return stock;
+    }
+
+    public int getStockVersion() {
+        return stockVersion;
+    }
+
+    public long getEpochDay() {
+        return epochDay;
+    }
+
+    @Override
+    public String toString() {
+        return switch (type) {
+            case DISPENSE -> String.format("DISPENSE %s %s x%d $%d paid $%d change $%d stock %d",
+                code, dispenseOutcome, quantity, amount, totalPaid, change, stock);
+            case PAYMENT -> String.format("PAYMENT %s due $%d paid $%d change $%d",
+                paymentOutcome, amount, totalPaid, change);
+            case RESTOCK -> String.format("RESTOCK %s stock %d", code, stock);
+            case EXPIRY -> String.format("EXPIRY %s stock %d day %d", code, stock, epochDay);
+        };
+    }
+}
@@ -0,0 +1,306 @@
+package com.vendingmachine.fleet;
+
+import com.vendingmachine.model.DrinkProduct;
+import com.vendingmachine.model.ExpiryClock;
+import com.vendingmachine.model.Product;
+import com.vendingmachine.model.ProductCatalog;
+import com.vendingmachine.model.SnackProduct;
+import com.vendingmachine.service.CoinHandler;
+import com.vendingmachine.service.Planogram;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Hosts many machines that share one slot layout, one product catalog and one
+ * {@link CoinHandler}. Per-slot state lives in flat arrays indexed by
+ * {@code machine * slotsPerMachine + slot}, so a machine costs a few primitive
+ * words per slot plus its registry entry instead of a map and an object per item.
+ *
+ * <p>Each slot's stock shares a word with a change counter, as in
+ * {@link com.vendingmachine.model.Item}, and product and price are published
+ * by the volatile write to that word that follows them. Restocking a filled
+ * slot with another product or price empties it first, so a sale that read
+ * the old ones fails its compare-and-set and starts over.
+ */
+public class Fleet {
+    public static final int UNKNOWN = -1;
+    public static final int NOT_STOCKED = -4;
+    public static final int OUT_OF_STOCK = -5;
+    public static final int CANNOT_DISPENSE = -6;
+
+    private static final int EMPTY = -1;
+
+    private final ProductCatalog catalog;
+    private final CoinHandler coinHandler;
+    private final ExpiryClock clock;
+    private final String[] slotCodes;
+    private final int[] slotCapacities;
+    private final Map<String, Integer> slotIndex;
+    private final int capacity;
+
+    private final Map<String, Integer> machineIndex = new ConcurrentHashMap<>();
+    private final String[] machineIds;
+    private final int[] productIds;
+    private final int[] prices;
+    private final AtomicLongArray stock;
+    private int machineCount;
+
+    /**
+     * A fleet whose slots have no stock limit, checking expiry against the
+     * system clock.
+     */
+    public Fleet(ProductCatalog catalog, CoinHandler coinHandler, List<String> slotCodes, int capacity) {
+        this(catalog, coinHandler, slotCodes.toArray(new String[0]), unlimited(slotCodes.size()), capacity,
+                ExpiryClock.system());
+    }
+
+    /**
+     * A fleet laid out like {@code planogram}, with its slot codes and the
+     * stock each slot holds.
+     */
+    public Fleet(ProductCatalog catalog, CoinHandler coinHandler, Planogram planogram, int capacity,
+                 ExpiryClock clock) {
+        this(catalog, coinHandler, codesOf(planogram), capacitiesOf(planogram), capacity, clock);
+    }
+
+    private Fleet(ProductCatalog catalog, CoinHandler coinHandler, String[] slotCodes, int[] slotCapacities,
+                  int capacity, ExpiryClock clock) {
+        if (slotCodes.length == 0) {
+            throw new IllegalArgumentException("Layout needs at least one slot");
+        }
+        if (capacity <= 0 || (long) capacity * slotCodes.length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid fleet capacity: " + capacity);
+        }
+        this.catalog = catalog;
+        this.coinHandler = coinHandler;
+        this.clock = clock;
+        this.slotCodes = slotCodes;
+        this.slotCapacities = slotCapacities;
+        this.slotIndex = new HashMap<>();
+        for (int i = 0; i < this.slotCodes.length; i++) {
+            if (slotIndex.put(this.slotCodes[i], i) != null) {
+                throw new IllegalArgumentException("Duplicate slot code: " + this.slotCodes[i]);
+            }
+        }
+        this.capacity = capacity;
+
+        int cells = capacity * this.slotCodes.length;
+        this.machineIds = new String[capacity];
+        this.productIds = new int[cells];
+        this.prices = new int[cells];
+        this.stock = new AtomicLongArray(cells);
+        Arrays.fill(productIds, EMPTY);
+    }
+
+    private static int[] unlimited(int slots) {
+        int[] capacities = new int[slots];
+        Arrays.fill(capacities, Planogram.UNLIMITED);
+        return capacities;
+    }
+
+    private static String[] codesOf(Planogram planogram) {
+        String[] codes = new String[planogram.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = planogram.codeOf(i);
+        }
+        return codes;
+    }
+
+    private static int[] capacitiesOf(Planogram planogram) {
+        int[] capacities = new int[planogram.size()];
+        for (int i = 0; i < capacities.length; i++) {
+            capacities[i] = planogram.capacityOf(i);
+        }
+        return capacities;
+    }
+
+    public synchronized int addMachine(String machineId) {
+        if (machineIndex.containsKey(machineId)) {
+            throw new IllegalArgumentException("Machine already registered: " + machineId);
+        }
+        if (machineCount == capacity) {
+            throw new IllegalStateException("Fleet is full: " + capacity + " machines");
+        }
+        int index = machineCount++;
+        machineIds[index] = machineId;
+        machineIndex.put(machineId, index);
+        return index;
+    }
+
+    public int machineIndex(String machineId) {
+        Integer index = machineIndex.get(machineId);
+        return index == null ? UNKNOWN : index;
+    }
+
+    public int slotIndex(String slotCode) {
+        Integer index = slotIndex.get(slotCode);
+        return index == null ? UNKNOWN : index;
+    }
+
+    public synchronized void stockSlot(int machine, int slot, Product product, int price, int quantity) {
+        int cell = cell(machine, slot);
+        checkQuantity(slot, quantity);
+        int id = product.getId();
+        if (catalog.get(id) != product) {
+            throw new IllegalArgumentException("Product is not in this fleet's catalog: " + product);
+        }
+        if (productIds[cell] != id || prices[cell] != price) {
+            setStock(cell, 0);
+            productIds[cell] = id;
+            prices[cell] = price;
+        }
+        setStock(cell, quantity);
+    }
+
+    public void stockSlot(int machine, int slot, Product product, int quantity) {
+        stockSlot(machine, slot, product, product.getPrice(), quantity);
+    }
+
+    public void restock(int machine, int slot, int quantity) {
+        int cell = cell(machine, slot);
+        checkQuantity(slot, quantity);
+        stock.get(cell);
+        if (productIds[cell] == EMPTY) {
+            throw new IllegalStateException("Slot " + slotCodes[slot] + " is not stocked");
+        }
+        setStock(cell, quantity);
+    }
+
+    private void checkQuantity(int slot, int quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Stock cannot be negative: " + quantity);
+        }
+        if (quantity > slotCapacities[slot]) {
+            throw new IllegalArgumentException(
+                    String.format("Slot %s holds at most %d", slotCodes[slot], slotCapacities[slot]));
+        }
+    }
+
+    // Bumps the change counter even when the stock is unchanged, so a sale
+    // that read the slot before this write cannot complete after it.
+    private void setStock(int cell, int quantity) {
+        long current;
+        do {
+            current = stock.get(cell);
+        } while (!stock.compareAndSet(cell, current, pack(quantity, versionOf(current) + 1)));
+    }
+
+    /**
+     * Sells one unit from a slot. Coin and change counts are indexed like
+     * {@link CoinHandler#getAcceptedCoins()}. Returns the change amount, one of
+     * the {@link CoinHandler} payment codes, {@link #NOT_STOCKED},
+     * {@link #OUT_OF_STOCK} or {@link #CANNOT_DISPENSE} for an expired snack
+     * or a drink below its minimum volume. Allocates nothing.
+     */
+    public int dispense(int machine, int slot, int[] coinCounts, int[] changeCounts) {
+        int cell = cell(machine, slot);
+        while (true) {
+            long state = stock.get(cell);
+            int id = productIds[cell];
+            if (id == EMPTY) {
+                return NOT_STOCKED;
+            }
+            if (stockOf(state) <= 0) {
+                return OUT_OF_STOCK;
+            }
+            if (!canDispense(catalog.get(id))) {
+                return CANNOT_DISPENSE;
+            }
+            int changeAmount = coinHandler.processPayment(coinCounts, prices[cell], changeCounts);
+            if (changeAmount < 0) {
+                return changeAmount;
+            }
+            // Fails if anything changed the slot since it was read, including
+            // a restock that republished it with another product or price.
+            if (stock.compareAndSet(cell, state, pack(stockOf(state) - 1, versionOf(state) + 1))) {
+                return changeAmount;
+            }
+        }
+    }
+
+    // The same rules as Snack and Drink, applied to the shared product.
+    private boolean canDispense(Product product) {
+        return switch (product) {
+            case SnackProduct snack -> clock.today() <= snack.getExpiryEpochDay();
+            case DrinkProduct drink -> drink.isAboveThreshold();
+            default -> true;
+        };
+    }
+
+    private static int stockOf(long state) {
+        return (int) state;
+    }
+
+    private static int versionOf(long state) {
+        return (int) (state >>> 32);
+    }
+
+    private static long pack(int stock, int version) {
+        return ((long) version << 32) | (stock & 0xFFFFFFFFL);
+    }
+
+    public Product getProduct(int machine, int slot) {
+        int cell = cell(machine, slot);
+        stock.get(cell);
+        int id = productIds[cell];
+        return id == EMPTY ? null : catalog.get(id);
+    }
+
+    public int getPrice(int machine, int slot) {
+        int cell = cell(machine, slot);
+        stock.get(cell);
+        return prices[cell];
+    }
+
+    public int getStock(int machine, int slot) {
+        return stockOf(stock.get(cell(machine, slot)));
+    }
+
+    public String getMachineId(int machine) {
+        return machineIds[checkMachine(machine)];
+    }
+
+    public String getSlotCode(int slot) {
+        return slotCodes[slot];
+    }
+
+    public synchronized int getMachineCount() {
+        return machineCount;
+    }
+
+    public int getSlotsPerMachine() {
+        return slotCodes.length;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public ProductCatalog getCatalog() {
+        return catalog;
+    }
+
+    public CoinHandler getCoinHandler() {
+        return coinHandler;
+    }
+
+    private int cell(int machine, int slot) {
+        checkMachine(machine);
+        if (slot < 0 || slot >= slotCodes.length) {
+            throw new IndexOutOfBoundsException("Unknown slot index: " + slot);
+        }
+        return machine * slotCodes.length + slot;
+    }
+
+    private int checkMachine(int machine) {
+        if (machine < 0 || machine >= capacity) {
+            throw new IndexOutOfBoundsException("Unknown machine index: " + machine);
+        }
+        return machine;
+    }
+}
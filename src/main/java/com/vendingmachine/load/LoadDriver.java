@@ -0,0 +1,174 @@
+package com.vendingmachine.load;
+
+import com.vendingmachine.metrics.LatencyHistogram;
+import com.vendingmachine.model.DispenseResult;
+import com.vendingmachine.service.VendingMachine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends a {@link Workload} of purchases to one or more machines from a fixed
+ * number of threads, in process, and reports throughput and latency.
+ *
+ * <p>A closed loop sends each thread's next purchase as soon as the last one
+ * returns, which finds the most the machines can take. An open loop sends
+ * purchases on a fixed schedule whether or not earlier ones have finished,
+ * and times each from when it was due, so a stall shows up in the latency of
+ * everything queued behind it rather than as a quiet gap.
+ *
+ * <p>Each thread draws from its own generator, seeded from the driver's seed,
+ * and picks a machine uniformly for every purchase. With one thread a run is
+ * fully repeatable.
+ */
+public final class LoadDriver {
+    // Below this an open-loop thread spins for its next slot instead of parking.
+    private static final long SPIN_NANOS = 50_000;
+
+    private final List<VendingMachine> machines;
+    private final Workload workload;
+    private final int threads;
+    private final long seed;
+
+    public LoadDriver(List<VendingMachine> machines, Workload workload, int threads, long seed) {
+        if (machines.isEmpty()) {
+            throw new IllegalArgumentException("At least one machine is needed");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be positive: " + threads);
+        }
+        this.machines = List.copyOf(machines);
+        this.workload = workload;
+        this.threads = threads;
+        this.seed = seed;
+    }
+
+    public LoadReport closedLoop(int purchasesPerThread) {
+        return run(purchasesPerThread, 0);
+    }
+
+    /**
+     * Sends {@code purchasesPerSecond} purchases a second in total, spread
+     * evenly over the threads.
+     */
+    public LoadReport openLoop(double purchasesPerSecond, int purchasesPerThread) {
+        if (!(purchasesPerSecond > 0)) {
+            throw new IllegalArgumentException("Rate must be positive: " + purchasesPerSecond);
+        }
+        return run(purchasesPerThread, (long) (threads * 1e9 / purchasesPerSecond));
+    }
+
+    // An interval of zero runs closed loop.
+    private LoadReport run(int purchasesPerThread, long intervalNanos) {
+        if (purchasesPerThread < 1) {
+            throw new IllegalArgumentException("Purchases per thread must be positive: " + purchasesPerThread);
+        }
+        LatencyHistogram latency = new LatencyHistogram();
+        SplittableRandom seeds = new SplittableRandom(seed);
+        List<Worker> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            workers.add(new Worker(workload.generator(seeds.nextLong()), purchasesPerThread, latency));
+        }
+
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        long[] start = new long[1];
+        List<Thread> running = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            Worker worker = workers.get(i);
+            // Stagger open-loop threads so their purchases interleave evenly.
+            long offset = intervalNanos * i / threads;
+            Thread thread = new Thread(() -> {
+                ready.countDown();
+                awaitQuietly(go);
+                worker.run(start[0] + offset, intervalNanos);
+            }, "load-" + i);
+            thread.start();
+            running.add(thread);
+        }
+        awaitQuietly(ready);
+        start[0] = System.nanoTime();
+        go.countDown();
+        // Workers run to the end whatever happens here, so an interrupt only
+        // delays it: the report must not read counts still being written.
+        boolean interrupted = false;
+        for (Thread thread : running) {
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start[0];
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        Map<DispenseResult.Outcome, Long> outcomes = new EnumMap<>(DispenseResult.Outcome.class);
+        for (Worker worker : workers) {
+            for (DispenseResult.Outcome outcome : DispenseResult.Outcome.values()) {
+                long count = worker.outcomes[outcome.ordinal()];
+                if (count > 0) {
+                    outcomes.merge(outcome, count, Long::sum);
+                }
+            }
+        }
+        return new LoadReport((long) threads * purchasesPerThread, elapsed,
+                Collections.unmodifiableMap(outcomes), latency.snapshot());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class Worker {
+        final Workload.Generator generator;
+        final int purchases;
+        final LatencyHistogram latency;
+        final long[] outcomes = new long[DispenseResult.Outcome.values().length];
+
+        Worker(Workload.Generator generator, int purchases, LatencyHistogram latency) {
+            this.generator = generator;
+            this.purchases = purchases;
+            this.latency = latency;
+        }
+
+        void run(long firstDue, long intervalNanos) {
+            int machineCount = machines.size();
+            for (int i = 0; i < purchases; i++) {
+                // Drawn before the clock starts, so only the machine's time is measured.
+                Workload.Purchase purchase = generator.next();
+                VendingMachine machine = machineCount == 1 ? machines.get(0)
+                        : machines.get(generator.nextInt(machineCount));
+                long due = intervalNanos == 0 ? System.nanoTime() : waitUntil(firstDue + i * intervalNanos);
+                DispenseResult result = machine.dispenseItem(purchase.code(), purchase.coins());
+                latency.record(System.nanoTime() - due);
+                outcomes[result.getOutcome().ordinal()]++;
+            }
+        }
+
+        private long waitUntil(long due) {
+            long remaining;
+            while ((remaining = due - System.nanoTime()) > 0) {
+                if (remaining > SPIN_NANOS) {
+                    LockSupport.parkNanos(remaining - SPIN_NANOS);
+                } else {
+                    Thread.onSpinWait();
+                }
+            }
+            return due;
+        }
+    }
+}
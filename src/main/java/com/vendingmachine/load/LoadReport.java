@@ -0,0 +1,40 @@
+package com.vendingmachine.load;
+
+import com.vendingmachine.metrics.LatencyHistogram;
+import com.vendingmachine.model.DispenseResult;
+
+import java.util.Map;
+
+/**
+ * What one {@link LoadDriver} run did: how many purchases over how long, what
+ * came of them, and how long each took from the moment it was due.
+ */
+public record LoadReport(long purchases, long elapsedNanos, Map<DispenseResult.Outcome, Long> outcomes,
+                         LatencyHistogram.Snapshot latency) {
+
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : purchases * 1e9 / elapsedNanos;
+    }
+
+    public long getCount(DispenseResult.Outcome outcome) {
+        return outcomes.getOrDefault(outcome, 0L);
+    }
+
+    /**
+     * Latency in microseconds at {@code percentile}, within the histogram's
+     * 3% precision.
+     */
+    public double getLatencyMicros(double percentile) {
+        return latency.getValueAtPercentile(percentile) / 1e3;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("purchases=%d seconds=%.2f throughput=%.0f/s%n"
+                        + "latency us: p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f%n"
+                        + "outcomes: %s",
+                purchases, elapsedNanos / 1e9, getThroughput(),
+                getLatencyMicros(50), getLatencyMicros(90), getLatencyMicros(99), getLatencyMicros(99.9),
+                latency.getMax() / 1e3, outcomes);
+    }
+}
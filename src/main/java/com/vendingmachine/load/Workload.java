@@ -0,0 +1,316 @@
+package com.vendingmachine.load;
+
+import com.vendingmachine.model.Item;
+import com.vendingmachine.service.Denominations;
+import com.vendingmachine.service.VendingMachine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * The shape of the purchases a {@link LoadDriver} sends: which items people
+ * buy, how they pay, and how often they get it wrong. Item popularity follows
+ * a Zipf distribution over the machine's in-stock slots in slot order, so the
+ * first slot sells most. Customers pay exact change with the fewest coins,
+ * overpay with one coin or the fewest large ones, or count out the smallest
+ * coin, in proportions set by {@link #withPaymentMix}.
+ *
+ * <p>Instances are immutable; the {@code with...} methods return copies.
+ * {@link #generator(long)} turns one into a repeatable stream of purchases.
+ */
+public final class Workload {
+    public static final double DEFAULT_ZIPF_EXPONENT = 1.0;
+
+    // Column 0 never names a slot, so this code is unknown to every planogram.
+    static final String UNKNOWN_CODE = "Z0";
+
+    public enum Kind {
+        VALID,
+        INVALID_COIN,
+        UNKNOWN_CODE,
+        OUT_OF_STOCK
+    }
+
+    public record Purchase(String code, List<Integer> coins, Kind kind) {
+    }
+
+    private final String[] codes;
+    private final int[] prices;
+    private final String[] soldOutCodes;
+    private final int[] soldOutPrices;
+    private final Denominations denominations;
+    private final double zipfExponent;
+    private final double exactRate;
+    private final double overpayRate;
+    private final double invalidCoinRate;
+    private final double unknownCodeRate;
+    private final double outOfStockRate;
+
+    private Workload(String[] codes, int[] prices, String[] soldOutCodes, int[] soldOutPrices,
+                     Denominations denominations, double zipfExponent, double exactRate, double overpayRate,
+                     double invalidCoinRate, double unknownCodeRate, double outOfStockRate) {
+        this.codes = codes;
+        this.prices = prices;
+        this.soldOutCodes = soldOutCodes;
+        this.soldOutPrices = soldOutPrices;
+        this.denominations = denominations;
+        this.zipfExponent = zipfExponent;
+        this.exactRate = exactRate;
+        this.overpayRate = overpayRate;
+        this.invalidCoinRate = invalidCoinRate;
+        this.unknownCodeRate = unknownCodeRate;
+        this.outOfStockRate = outOfStockRate;
+    }
+
+    /**
+     * Buys from the slots {@code machine} has in stock now. Slots that are
+     * empty now are the ones out-of-stock purchases aim at. Half of all
+     * payments are exact, 35% overpay and 15% use the smallest coin; every
+     * error rate starts at zero.
+     */
+    public static Workload of(VendingMachine machine) {
+        List<Item> inStock = new ArrayList<>();
+        List<Item> soldOut = new ArrayList<>();
+        for (Item item : machine.getItems()) {
+            (item.getStock() > 0 ? inStock : soldOut).add(item);
+        }
+        if (inStock.isEmpty()) {
+            throw new IllegalArgumentException("The machine has nothing in stock to buy");
+        }
+        return new Workload(codesOf(inStock), pricesOf(inStock), codesOf(soldOut), pricesOf(soldOut),
+                machine.getDenominations(), DEFAULT_ZIPF_EXPONENT, 0.5, 0.35, 0, 0, 0);
+    }
+
+    private static String[] codesOf(List<Item> items) {
+        return items.stream().map(Item::getCode).toArray(String[]::new);
+    }
+
+    private static int[] pricesOf(List<Item> items) {
+        return items.stream().mapToInt(Item::getPrice).toArray();
+    }
+
+    /**
+     * Zero makes every item equally popular; larger values concentrate
+     * sales on the first few slots.
+     */
+    public Workload withZipfExponent(double exponent) {
+        if (exponent < 0 || Double.isNaN(exponent)) {
+            throw new IllegalArgumentException("Zipf exponent cannot be negative: " + exponent);
+        }
+        return new Workload(codes, prices, soldOutCodes, soldOutPrices, denominations, exponent,
+                exactRate, overpayRate, invalidCoinRate, unknownCodeRate, outOfStockRate);
+    }
+
+    /**
+     * Fractions of payments made with exact change and with overpayment; the
+     * rest are counted out in the smallest coin.
+     */
+    public Workload withPaymentMix(double exact, double overpay) {
+        requireRate(exact);
+        requireRate(overpay);
+        requireRate(exact + overpay);
+        return new Workload(codes, prices, soldOutCodes, soldOutPrices, denominations, zipfExponent,
+                exact, overpay, invalidCoinRate, unknownCodeRate, outOfStockRate);
+    }
+
+    /**
+     * Fraction of purchases of a stocked item that slip in a coin the
+     * machine does not accept.
+     */
+    public Workload withInvalidCoinRate(double rate) {
+        requireRate(rate);
+        return new Workload(codes, prices, soldOutCodes, soldOutPrices, denominations, zipfExponent,
+                exactRate, overpayRate, rate, unknownCodeRate, outOfStockRate);
+    }
+
+    public Workload withUnknownCodeRate(double rate) {
+        requireRate(rate);
+        requireRate(rate + outOfStockRate);
+        return new Workload(codes, prices, soldOutCodes, soldOutPrices, denominations, zipfExponent,
+                exactRate, overpayRate, invalidCoinRate, rate, outOfStockRate);
+    }
+
+    /**
+     * Fraction of purchases aimed at a slot that was empty when this
+     * workload was built.
+     */
+    public Workload withOutOfStockRate(double rate) {
+        requireRate(rate);
+        requireRate(unknownCodeRate + rate);
+        if (rate > 0 && soldOutCodes.length == 0) {
+            throw new IllegalArgumentException("The machine has no empty slot to aim out-of-stock purchases at");
+        }
+        return new Workload(codes, prices, soldOutCodes, soldOutPrices, denominations, zipfExponent,
+                exactRate, overpayRate, invalidCoinRate, unknownCodeRate, rate);
+    }
+
+    private static void requireRate(double rate) {
+        if (!(rate >= 0 && rate <= 1)) {
+            throw new IllegalArgumentException("Rate must be between 0 and 1: " + rate);
+        }
+    }
+
+    /**
+     * A stream of purchases that is the same for the same seed. A generator
+     * is not thread-safe; give each thread its own.
+     */
+    public Generator generator(long seed) {
+        return new Generator(this, seed);
+    }
+
+    public List<String> getCodes() {
+        return List.of(codes);
+    }
+
+    public double getZipfExponent() {
+        return zipfExponent;
+    }
+
+    /**
+     * Draws purchases without allocating: every purchase it can return is
+     * built when the generator is, and {@link #next()} only picks one.
+     */
+    public static final class Generator {
+        private static final int EXACT = 0;
+        private static final int OVERPAY = 1;
+        private static final int SMALL_COINS = 2;
+
+        private final Workload workload;
+        private final SplittableRandom random;
+        private final double[] popularity;
+        // Per stocked item, indexed by payment style, then the invalid-coin purchase.
+        private final Purchase[][] valid;
+        private final Purchase[] invalid;
+        private final Purchase[] soldOut;
+        private final Purchase unknown;
+
+        private Generator(Workload workload, long seed) {
+            this.workload = workload;
+            this.random = new SplittableRandom(seed);
+            this.popularity = cumulativeZipf(workload.codes.length, workload.zipfExponent);
+            int items = workload.codes.length;
+            this.valid = new Purchase[items][];
+            this.invalid = new Purchase[items];
+            int invalidCoin = firstRejectedCoin(workload.denominations);
+            for (int i = 0; i < items; i++) {
+                String code = workload.codes[i];
+                int price = workload.prices[i];
+                valid[i] = new Purchase[] {
+                    new Purchase(code, exact(price), Kind.VALID),
+                    new Purchase(code, overpay(price), Kind.VALID),
+                    new Purchase(code, smallCoins(price), Kind.VALID)
+                };
+                List<Integer> withInvalid = new ArrayList<>(valid[i][EXACT].coins());
+                withInvalid.add(invalidCoin);
+                invalid[i] = new Purchase(code, List.copyOf(withInvalid), Kind.INVALID_COIN);
+            }
+            this.soldOut = new Purchase[workload.soldOutCodes.length];
+            for (int i = 0; i < soldOut.length; i++) {
+                soldOut[i] = new Purchase(workload.soldOutCodes[i], exact(workload.soldOutPrices[i]),
+                        Kind.OUT_OF_STOCK);
+            }
+            this.unknown = new Purchase(UNKNOWN_CODE, valid[0][EXACT].coins(), Kind.UNKNOWN_CODE);
+        }
+
+        public Purchase next() {
+            double roll = random.nextDouble();
+            if (roll < workload.unknownCodeRate) {
+                return unknown;
+            }
+            if (roll < workload.unknownCodeRate + workload.outOfStockRate) {
+                return soldOut[random.nextInt(soldOut.length)];
+            }
+            int item = pickItem();
+            if (random.nextDouble() < workload.invalidCoinRate) {
+                return invalid[item];
+            }
+            double style = random.nextDouble();
+            if (style < workload.exactRate) {
+                return valid[item][EXACT];
+            }
+            return valid[item][style < workload.exactRate + workload.overpayRate ? OVERPAY : SMALL_COINS];
+        }
+
+        /**
+         * A uniform draw in {@code [0, bound)} from this generator's stream,
+         * for callers that spread purchases over several machines.
+         */
+        public int nextInt(int bound) {
+            return random.nextInt(bound);
+        }
+
+        private int pickItem() {
+            double target = random.nextDouble();
+            int low = 0;
+            int high = popularity.length - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (popularity[middle] > target) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            return low;
+        }
+
+        private static double[] cumulativeZipf(int items, double exponent) {
+            double[] cumulative = new double[items];
+            double total = 0;
+            for (int rank = 0; rank < items; rank++) {
+                total += 1 / Math.pow(rank + 1, exponent);
+                cumulative[rank] = total;
+            }
+            for (int rank = 0; rank < items; rank++) {
+                cumulative[rank] /= total;
+            }
+            cumulative[items - 1] = 1;
+            return cumulative;
+        }
+
+        // The fewest coins that make the price, or an overpayment if the
+        // denominations cannot make it exactly.
+        private List<Integer> exact(int price) {
+            Denominations denominations = workload.denominations;
+            int[] counts = new int[denominations.size()];
+            if (!denominations.fillChange(price, counts)) {
+                return overpay(price);
+            }
+            List<Integer> coins = new ArrayList<>();
+            for (int i = counts.length - 1; i >= 0; i--) {
+                for (int n = 0; n < counts[i]; n++) {
+                    coins.add(denominations.valueAt(i));
+                }
+            }
+            return List.copyOf(coins);
+        }
+
+        // One coin worth at least the price, or the largest coin until the
+        // price is covered.
+        private List<Integer> overpay(int price) {
+            Denominations denominations = workload.denominations;
+            for (int i = 0; i < denominations.size(); i++) {
+                if (denominations.valueAt(i) >= price) {
+                    return List.of(denominations.valueAt(i));
+                }
+            }
+            int largest = denominations.valueAt(denominations.size() - 1);
+            return Collections.nCopies((price + largest - 1) / largest, largest);
+        }
+
+        private List<Integer> smallCoins(int price) {
+            int smallest = workload.denominations.valueAt(0);
+            return Collections.nCopies((price + smallest - 1) / smallest, smallest);
+        }
+
+        private static int firstRejectedCoin(Denominations denominations) {
+            int coin = 1;
+            while (denominations.accepts(coin)) {
+                coin++;
+            }
+            return coin;
+        }
+    }
+}
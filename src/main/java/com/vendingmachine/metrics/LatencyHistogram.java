@@ -0,0 +1,127 @@
+package com.vendingmachine.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log-linear histogram of nanosecond latencies in the style of HdrHistogram.
+ * Values below 32 get a bucket each; above that every power of two is split
+ * into 32 buckets, so a reported value is within about 3% of the recorded one.
+ * Values from 0 up to about 18 minutes fit in 1,152 buckets; anything larger
+ * lands in the last one.
+ *
+ * <p>Recording is one atomic add on a stripe chosen by thread id, so threads
+ * on different cores rarely touch the same cache line, plus an add to a
+ * {@link LongAdder} that keeps the exact sum. Reads merge the stripes and are
+ * meant for scrapes, not the hot path.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+    private static final long MAX_VALUE = (1L << MAX_EXPONENT) - 1;
+
+    private final AtomicLongArray[] stripes;
+    private final int stripeMask;
+    private final LongAdder sum = new LongAdder();
+
+    public LatencyHistogram() {
+        int stripeCount = Integer.highestOneBit(Math.min(Runtime.getRuntime().availableProcessors(), 8));
+        this.stripes = new AtomicLongArray[stripeCount];
+        this.stripeMask = stripeCount - 1;
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new AtomicLongArray(BUCKETS);
+        }
+    }
+
+    public void record(long nanos) {
+        int stripe = (int) Thread.currentThread().threadId() & stripeMask;
+        stripes[stripe].incrementAndGet(bucketOf(nanos));
+        sum.add(Math.max(nanos, 0));
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return value < 0 ? 0 : (int) value;
+        }
+        value = Math.min(value, MAX_VALUE);
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    // Highest value that falls in the bucket.
+    static long valueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                long count = stripe.get(i);
+                counts[i] += count;
+                total += count;
+            }
+        }
+        return new Snapshot(counts, total, sum.sum());
+    }
+
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long totalCount;
+        private final long sum;
+
+        private Snapshot(long[] counts, long totalCount, long sum) {
+            this.counts = counts;
+            this.totalCount = totalCount;
+            this.sum = sum;
+        }
+
+        public long getCount() {
+            return totalCount;
+        }
+
+        /**
+         * The exact total of every recorded value, not rounded to buckets.
+         */
+        public long getSum() {
+            return sum;
+        }
+
+        /**
+         * Returns the smallest bucket value that at least {@code percentile}
+         * percent of recorded values are at or below, or 0 if nothing has been
+         * recorded.
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (totalCount == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(totalCount * percentile / 100.0));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return valueOf(i);
+                }
+            }
+            return getMax();
+        }
+
+        public long getMax() {
+            for (int i = counts.length - 1; i >= 0; i--) {
+                if (counts[i] != 0) {
+                    return valueOf(i);
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.vendingmachine.metrics;
+
+import com.vendingmachine.model.DispenseResult.Outcome;
+import com.vendingmachine.model.PaymentResult;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts dispense and payment outcomes and keeps latency histograms for both.
+ *
+ * <p>Every call is counted, each outcome in its own {@link LongAdder}.
+ * Latency is timed for one call in {@code sampleEvery}, picked at random, so
+ * most calls never read the clock. The percentiles stay representative and
+ * the cost per call is a random draw and an adder increment.
+ *
+ * <p>A purchase is counted once, at the outcome it ends with. Its payment is
+ * counted when the coin float has paid the change or refused to, so a refusal
+ * counts as no exact change rather than success; a purchase that passes the
+ * payment check but loses its unit hands the coins back and counts no
+ * payment.
+ */
+public class VendingMetrics implements VendingMetricsMXBean {
+    public static final int DEFAULT_SAMPLE_EVERY = 8;
+    public static final long NOT_TIMED = Long.MIN_VALUE;
+
+    private static final Outcome[] OUTCOMES = Outcome.values();
+    private static final PaymentResult.Outcome[] PAYMENT_OUTCOMES = PaymentResult.Outcome.values();
+
+    private final LongAdder[] dispenses = adders(OUTCOMES.length);
+    private final LongAdder[] payments = adders(PAYMENT_OUTCOMES.length);
+    private final LatencyHistogram dispenseLatency = new LatencyHistogram();
+    private final LatencyHistogram paymentLatency = new LatencyHistogram();
+    private final int sampleMask;
+
+    public VendingMetrics() {
+        this(DEFAULT_SAMPLE_EVERY);
+    }
+
+    /**
+     * {@code sampleEvery} must be a power of two; 1 times every call.
+     */
+    public VendingMetrics(int sampleEvery) {
+        if (sampleEvery < 1 || Integer.bitCount(sampleEvery) != 1) {
+            throw new IllegalArgumentException("Sample rate must be a power of two: " + sampleEvery);
+        }
+        this.sampleMask = sampleEvery - 1;
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * Returns the start time for a call that should be timed, or
+     * {@link #NOT_TIMED}. Pass the value back when recording the outcome.
+     */
+    public long startTimer() {
+        if (sampleMask != 0 && (ThreadLocalRandom.current().nextInt() & sampleMask) != 0) {
+            return NOT_TIMED;
+        }
+        return System.nanoTime();
+    }
+
+    public void recordDispense(Outcome outcome, long startNanos) {
+        dispenses[outcome.ordinal()].increment();
+        if (startNanos != NOT_TIMED) {
+            dispenseLatency.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    public void recordPayment(PaymentResult.Outcome outcome, long startNanos) {
+        payments[outcome.ordinal()].increment();
+        if (startNanos != NOT_TIMED) {
+            paymentLatency.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    public long getDispenseCount(Outcome outcome) {
+        return dispenses[outcome.ordinal()].sum();
+    }
+
+    public long getPaymentCount(PaymentResult.Outcome outcome) {
+        return payments[outcome.ordinal()].sum();
+    }
+
+    public LatencyHistogram getDispenseLatency() {
+        return dispenseLatency;
+    }
+
+    public LatencyHistogram getPaymentLatency() {
+        return paymentLatency;
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server under
+     * {@code com.vendingmachine:type=VendingMetrics,name=<name>}.
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName("com.vendingmachine:type=VendingMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    /**
+     * Appends every counter and latency summary in the Prometheus text format.
+     */
+    public StringBuilder writeText(StringBuilder out) {
+        out.append("# TYPE vending_dispense_total counter\n");
+        for (Outcome outcome : OUTCOMES) {
+            appendSample(out, "vending_dispense_total", "outcome", label(outcome), getDispenseCount(outcome));
+        }
+        appendSummary(out, "vending_dispense_latency_nanos", dispenseLatency.snapshot(), getDispenseCount());
+
+        out.append("# TYPE vending_payment_total counter\n");
+        for (PaymentResult.Outcome outcome : PAYMENT_OUTCOMES) {
+            appendSample(out, "vending_payment_total", "outcome", label(outcome), getPaymentCount(outcome));
+        }
+        appendSummary(out, "vending_payment_latency_nanos", paymentLatency.snapshot(), getPaymentCount());
+        return out;
+    }
+
+    // The count is every call, not just the timed ones, and the sum scales
+    // the timed calls' total up to match, so rate(sum) / rate(count) is the
+    // mean latency. With every call timed both are exact.
+    private static void appendSummary(StringBuilder out, String name, LatencyHistogram.Snapshot snapshot,
+                                      long count) {
+        out.append("# TYPE ").append(name).append(" summary\n");
+        appendSample(out, name, "quantile", "0.5", snapshot.getValueAtPercentile(50));
+        appendSample(out, name, "quantile", "0.99", snapshot.getValueAtPercentile(99));
+        appendSample(out, name, "quantile", "0.999", snapshot.getValueAtPercentile(99.9));
+        appendSample(out, name, "quantile", "1", snapshot.getMax());
+        long timed = snapshot.getCount();
+        long sum = timed == 0 ? 0 : Math.round((double) snapshot.getSum() * count / timed);
+        out.append(name).append("_sum ").append(sum).append('\n');
+        out.append(name).append("_count ").append(count).append('\n');
+    }
+
+    private static void appendSample(StringBuilder out, String name, String label, String value, long sample) {
+        out.append(name).append('{').append(label).append("=\"").append(value).append("\"} ")
+                .append(sample).append('\n');
+    }
+
+    private static String label(Enum<?> outcome) {
+        return outcome.name().toLowerCase(Locale.ROOT);
+    }
+
+    private long totalOf(LongAdder[] adders) {
+        long total = 0;
+        for (LongAdder adder : adders) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public long getDispenseCount() {
+        return totalOf(dispenses);
+    }
+
+    @Override
+    public long getDispenseSuccesses() {
+        return getDispenseCount(Outcome.SUCCESS);
+    }
+
+    @Override
+    public long getItemNotFound() {
+        return getDispenseCount(Outcome.ITEM_NOT_FOUND);
+    }
+
+    @Override
+    public long getOutOfStock() {
+        return getDispenseCount(Outcome.OUT_OF_STOCK);
+    }
+
+    @Override
+    public long getNotAvailable() {
+        return getDispenseCount(Outcome.NOT_AVAILABLE);
+    }
+
+    @Override
+    public long getDispensePaymentFailures() {
+        return getDispenseCount(Outcome.PAYMENT_FAILED);
+    }
+
+    @Override
+    public long getHoldsExpired() {
+        return getDispenseCount(Outcome.HOLD_EXPIRED);
+    }
+
+    @Override
+    public long getDispenseLatencyP50Nanos() {
+        return dispenseLatency.snapshot().getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getDispenseLatencyP99Nanos() {
+        return dispenseLatency.snapshot().getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getDispenseLatencyP999Nanos() {
+        return dispenseLatency.snapshot().getValueAtPercentile(99.9);
+    }
+
+    @Override
+    public long getDispenseLatencyMaxNanos() {
+        return dispenseLatency.snapshot().getMax();
+    }
+
+    @Override
+    public long getPaymentCount() {
+        return totalOf(payments);
+    }
+
+    @Override
+    public long getPaymentSuccesses() {
+        return getPaymentCount(PaymentResult.Outcome.SUCCESS);
+    }
+
+    @Override
+    public long getInvalidCoins() {
+        return getPaymentCount(PaymentResult.Outcome.INVALID_COINS);
+    }
+
+    @Override
+    public long getInsufficientFunds() {
+        return getPaymentCount(PaymentResult.Outcome.INSUFFICIENT_FUNDS);
+    }
+
+    @Override
+    public long getNoExactChange() {
+        return getPaymentCount(PaymentResult.Outcome.NO_EXACT_CHANGE);
+    }
+
+    @Override
+    public long getPaymentLatencyP50Nanos() {
+        return paymentLatency.snapshot().getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getPaymentLatencyP99Nanos() {
+        return paymentLatency.snapshot().getValueAtPercentile(99);
+    }
+
+    @Override
+    public int getSampleEvery() {
+        return sampleMask + 1;
+    }
+}
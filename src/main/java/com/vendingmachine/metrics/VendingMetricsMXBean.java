@@ -0,0 +1,42 @@
+package com.vendingmachine.metrics;
+
+public interface VendingMetricsMXBean {
+
+    long getDispenseCount();
+
+    long getDispenseSuccesses();
+
+    long getItemNotFound();
+
+    long getOutOfStock();
+
+    long getNotAvailable();
+
+    long getDispensePaymentFailures();
+
+    long getHoldsExpired();
+
+    long getDispenseLatencyP50Nanos();
+
+    long getDispenseLatencyP99Nanos();
+
+    long getDispenseLatencyP999Nanos();
+
+    long getDispenseLatencyMaxNanos();
+
+    long getPaymentCount();
+
+    long getPaymentSuccesses();
+
+    long getInvalidCoins();
+
+    long getInsufficientFunds();
+
+    long getNoExactChange();
+
+    long getPaymentLatencyP50Nanos();
+
+    long getPaymentLatencyP99Nanos();
+
+    int getSampleEvery();
+}
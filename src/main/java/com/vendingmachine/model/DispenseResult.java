@@ -1,61 +1,110 @@
 package com.vendingmachine.model;
 
+import java.util.Collections;
 import java.util.List;
-import java.util.ArrayList;
 
 public class DispenseResult {
+
+    public enum Outcome {
+        SUCCESS,
+        ITEM_NOT_FOUND,
+        OUT_OF_STOCK,
+        NOT_AVAILABLE,
+        PAYMENT_FAILED,
+        HOLD_EXPIRED
+    }
+
+    private static final String EXPIRED = "Product has expired";
+
+    private final Outcome outcome;
     private final boolean success;
     private final Item item;
     private final List<Integer> change;
-    private final String message;
+    // What the message needs beyond the item: a code, a reason or a payment.
+    private final Object detail;
+    private String message;
 
     public DispenseResult(boolean success, Item item, List<Integer> change, String message) {
-        this.success = success;
+        this(success ? Outcome.SUCCESS : Outcome.NOT_AVAILABLE, item, change, message);
+    }
+
+    public DispenseResult(Outcome outcome, Item item, List<Integer> change, String message) {
+        this(outcome, item, change, null, message);
+    }
+
+    // Factories leave the message null and it is built on first request, so
+    // callers that only check the outcome never pay for formatting.
+    private DispenseResult(Outcome outcome, Item item, List<Integer> change, Object detail, String message) {
+        this.outcome = outcome;
+        this.success = outcome == Outcome.SUCCESS;
         this.item = item;
-        this.change = change != null ? new ArrayList<>(change) : new ArrayList<>();
+        this.change = change != null ? Collections.unmodifiableList(change) : Collections.emptyList();
+        this.detail = detail;
         this.message = message;
     }
 
     public static DispenseResult success(Item item, List<Integer> change) {
-        String msg = String.format("Successfully dispensed: %s", item.getDescription());
-        return new DispenseResult(true, item, change, msg);
+        return new DispenseResult(Outcome.SUCCESS, item, change, null, null);
     }
 
     public static DispenseResult itemNotFound(String code) {
-        String msg = String.format("Item not found: %s", code);
-        return new DispenseResult(false, null, null, msg);
+        return new DispenseResult(Outcome.ITEM_NOT_FOUND, null, null, code, null);
     }
 
     public static DispenseResult itemNotAvailable(Item item, String reason) {
-        String msg = String.format("%s is not available: %s", item.getDescription(), reason);
-        return new DispenseResult(false, item, null, msg);
+        return new DispenseResult(Outcome.NOT_AVAILABLE, item, null, reason, null);
     }
 
     public static DispenseResult outOfStock(Item item) {
-        String msg = String.format("%s is out of stock", item.getDescription());
-        return new DispenseResult(false, item, null, msg);
+        return new DispenseResult(Outcome.OUT_OF_STOCK, item, null, null, null);
+    }
+
+    public static DispenseResult reservationEnded(Item item) {
+        return new DispenseResult(Outcome.HOLD_EXPIRED, item, null, null, null);
     }
 
     public static DispenseResult paymentFailed(String reason) {
-        return new DispenseResult(false, null, null, reason);
+        return new DispenseResult(Outcome.PAYMENT_FAILED, null, null, reason, null);
+    }
+
+    public static DispenseResult paymentFailed(PaymentResult payment) {
+        return new DispenseResult(Outcome.PAYMENT_FAILED, null, null, payment, null);
     }
 
+    // A low-volume drink leaves the reason null; its volume never changes, so
+    // the reason is formatted with the message.
     public static DispenseResult cannotDispense(Item item) {
-        String reason = "";
-        if (item instanceof Snack) {
-            Snack snack = (Snack) item;
-            if (snack.isExpired()) {
-                reason = "Product has expired";
-            }
-        } else if (item instanceof Drink) {
-            Drink drink = (Drink) item;
-            if (!drink.isAboveThreshold()) {
-                reason = String.format("Volume too low (%dml)", drink.getVolumeMl());
-            }
-        }
+        String reason = switch (item) {
+            case Snack snack when snack.isWithdrawn() || snack.isExpired() -> EXPIRED;
+            case Drink drink when !drink.isAboveThreshold() -> null;
+            case Snack snack -> "";
+            case Drink drink -> "";
+        };
         return itemNotAvailable(item, reason);
     }
 
+    private String formatMessage() {
+        return switch (outcome) {
+            case SUCCESS -> "Successfully dispensed: " + item.getDescription();
+            case ITEM_NOT_FOUND -> "Item not found: " + detail;
+            case OUT_OF_STOCK -> item.getDescription() + " is out of stock";
+            case NOT_AVAILABLE -> item.getDescription() + " is not available: " + reason();
+            case PAYMENT_FAILED -> detail instanceof PaymentResult payment ? payment.getMessage() : (String) detail;
+            case HOLD_EXPIRED -> "Your hold on " + item.getDescription() + " has expired";
+        };
+    }
+
+    private String reason() {
+        if (detail == null && item instanceof Drink drink) {
+            return "Volume too low (" + drink.getVolumeMl() + "ml)";
+        }
+        return (String) detail;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
     public boolean isSuccess() {
         return success;
     }
@@ -65,18 +114,23 @@ public class DispenseResult {
     }
 
     public List<Integer> getChange() {
-        return new ArrayList<>(change);
+        return change;
     }
 
     public String getMessage() {
-        return message;
+        String msg = message;
+        if (msg == null) {
+            msg = formatMessage();
+            message = msg;
+        }
+        return msg;
     }
 
     @Override
     public String toString() {
         if (success) {
             StringBuilder sb = new StringBuilder();
-            sb.append("SUCCESS: ").append(message);
+            sb.append("SUCCESS: ").append(getMessage());
             if (!change.isEmpty()) {
                 sb.append("\nChange returned: ");
                 for (int i = 0; i < change.size(); i++) {
@@ -91,7 +145,7 @@ public class DispenseResult {
             }
             return sb.toString();
         } else {
-            return "FAILED: " + message;
+            return "FAILED: " + getMessage();
         }
     }
 }
\ No newline at end of file
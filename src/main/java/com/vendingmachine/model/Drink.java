@@ -1,31 +1,40 @@
 package com.vendingmachine.model;
 
-public class Drink extends Item {
-    private int volumeMl;
-    private int minVolumeThreshold;
+public final class Drink extends Item {
+    public static final int DEFAULT_MIN_VOLUME_THRESHOLD = 50;
 
     public Drink(String code, String description, int price, int volumeMl) {
-        super(code, description, price);
-        this.volumeMl = volumeMl;
-        this.minVolumeThreshold = 50;
+        this(code, description, price, volumeMl, DEFAULT_MIN_VOLUME_THRESHOLD);
     }
 
     public Drink(String code, String description, int price, int volumeMl, int minVolumeThreshold) {
-        super(code, description, price);
-        this.volumeMl = volumeMl;
-        this.minVolumeThreshold = minVolumeThreshold;
+        this(code, ProductCatalog.shared().internDrink(description, price, volumeMl, minVolumeThreshold));
+    }
+
+    public Drink(String code, DrinkProduct product) {
+        super(code, product);
+    }
+
+    @Override
+    Drink newSlot(Product product) {
+        return new Drink(getCode(), (DrinkProduct) product);
+    }
+
+    @Override
+    public DrinkProduct getProduct() {
+        return (DrinkProduct) super.getProduct();
     }
 
     public int getVolumeMl() {
-        return volumeMl;
+        return getProduct().getVolumeMl();
     }
 
     public int getMinVolumeThreshold() {
-        return minVolumeThreshold;
+        return getProduct().getMinVolumeThreshold();
     }
 
     public boolean isAboveThreshold() {
-        return volumeMl >= minVolumeThreshold;
+        return getProduct().isAboveThreshold();
     }
 
     @Override
@@ -36,9 +45,9 @@ public class Drink extends Item {
     @Override
     public String getItemDetails() {
         if (!isAboveThreshold()) {
-            return String.format("%s - %dml (BELOW MINIMUM VOLUME)", getDescription(), volumeMl);
+            return String.format("%s - %dml (BELOW MINIMUM VOLUME)", getDescription(), getVolumeMl());
         } else {
-            return String.format("%s - %dml", getDescription(), volumeMl);
+            return String.format("%s - %dml", getDescription(), getVolumeMl());
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.vendingmachine.model;
+
+public final class DrinkProduct extends Product {
+    private final int volumeMl;
+    private final int minVolumeThreshold;
+
+    DrinkProduct(String description, int price, int volumeMl, int minVolumeThreshold) {
+        super(description, price);
+        this.volumeMl = volumeMl;
+        this.minVolumeThreshold = minVolumeThreshold;
+    }
+
+    public int getVolumeMl() {
+        return volumeMl;
+    }
+
+    public int getMinVolumeThreshold() {
+        return minVolumeThreshold;
+    }
+
+    public boolean isAboveThreshold() {
+        return volumeMl >= minVolumeThreshold;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!super.equals(o)) return false;
+        DrinkProduct other = (DrinkProduct) o;
+        return volumeMl == other.volumeMl && minVolumeThreshold == other.minVolumeThreshold;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * super.hashCode() + volumeMl) + minVolumeThreshold;
+    }
+}
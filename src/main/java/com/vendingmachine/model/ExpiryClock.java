@@ -0,0 +1,56 @@
+package com.vendingmachine.model;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coarse-grained calendar clock for expiry checks. The current day is cached as
+ * an epoch day and only re-read from the underlying {@link Clock} on
+ * {@link #tick()}, so checking a snack costs one volatile read and a compare.
+ */
+public final class ExpiryClock {
+    public static final long SYSTEM_TICK_MILLIS = 60_000;
+
+    private final Clock source;
+    private volatile long today;
+
+    public ExpiryClock(Clock source) {
+        this.source = source;
+        tick();
+    }
+
+    public static ExpiryClock system() {
+        return SystemClockHolder.INSTANCE;
+    }
+
+    public long today() {
+        return today;
+    }
+
+    public LocalDate getDate() {
+        return LocalDate.ofEpochDay(today);
+    }
+
+    public long tick() {
+        long day = LocalDate.now(source).toEpochDay();
+        today = day;
+        return day;
+    }
+
+    private static final class SystemClockHolder {
+        static final ExpiryClock INSTANCE = new ExpiryClock(Clock.systemDefaultZone());
+
+        static {
+            ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "expiry-clock");
+                thread.setDaemon(true);
+                return thread;
+            });
+            ticker.scheduleAtFixedRate(INSTANCE::tick,
+                    SYSTEM_TICK_MILLIS, SYSTEM_TICK_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+}
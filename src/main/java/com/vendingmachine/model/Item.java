@@ -1,46 +1,221 @@
 package com.vendingmachine.model;
 
-public abstract class Item {
-    private String code;
-    private String description;
-    private int price;
-    private int stock;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+public abstract sealed class Item permits Snack, Drink {
+    public static final long NO_STOCK = -1L;
+
+    private static final AtomicLongFieldUpdater<Item> STOCK_STATE =
+            AtomicLongFieldUpdater.newUpdater(Item.class, "stockState");
+    private static final int VERSION_MASK = 0x7FFFFFFF;
+    // Set in the otherwise unused top bit once a slot has been replaced.
+    private static final long RETIRED = Long.MIN_VALUE;
+
+    private final String code;
+    private final Product product;
+
+    // Stock in the low 32 bits and a 31-bit change counter above it, updated
+    // together so every stock level can be tagged with the change that made it.
+    private volatile long stockState;
+    // Written before the retiring CAS, so anyone who sees the slot retired sees it.
+    private boolean stockCarriedOver;
 
     public Item(String code, String description, int price) {
+        this(code, ProductCatalog.shared().intern(description, price));
+    }
+
+    // A slot holds only its code, the shared product and its stock word.
+    protected Item(String code, Product product) {
         this.code = code;
-        this.description = description;
-        this.price = price;
-        this.stock = 0;
+        this.product = product;
+        this.stockState = 0L;
     }
 
     public String getCode() {
         return code;
     }
 
+    public Product getProduct() {
+        return product;
+    }
+
     public String getDescription() {
-        return description;
+        return product.getDescription();
     }
 
     public int getPrice() {
-        return price;
+        return product.getPrice();
     }
 
     public int getStock() {
-        return stock;
+        return stockOf(stockState);
+    }
+
+    public int getStockVersion() {
+        return versionOf(stockState);
+    }
+
+    public long getStockState() {
+        return stockState;
+    }
+
+    /**
+     * Changes whenever anything shown for this slot may have changed, so callers
+     * can cache what they render and compare revisions instead of re-rendering.
+     */
+    public long getRevision() {
+        return getStockVersion();
     }
 
     public void setStock(int stock) {
-        this.stock = stock;
+        setStockAndGetState(stock);
+    }
+
+    public long setStockAndGetState(int stock) {
+        long current;
+        long next;
+        do {
+            current = stockState;
+            next = pack(stock, versionOf(current) + 1);
+        } while (!STOCK_STATE.compareAndSet(this, current, next));
+        return next;
     }
 
     public void decrementStock() {
-        if (stock > 0) {
-            stock--;
-        }
+        tryDecrementStock();
+    }
+
+    // Claims one unit with a CAS so two buyers can never both take the last one.
+    public boolean tryDecrementStock() {
+        return decrementAndGetState() != NO_STOCK;
+    }
+
+    public long decrementAndGetState() {
+        return decrementAndGetState(1);
+    }
+
+    // Claims all {@code quantity} units or none of them.
+    public long decrementAndGetState(int quantity) {
+        long current;
+        long next;
+        do {
+            current = stockState;
+            int stock = stockOf(current);
+            if (stock < quantity) {
+                return NO_STOCK;
+            }
+            next = pack(stock - quantity, versionOf(current) + 1);
+        } while (!STOCK_STATE.compareAndSet(this, current, next));
+        return next;
+    }
+
+    public void incrementStock() {
+        incrementAndGetState();
+    }
+
+    public long incrementAndGetState() {
+        return incrementAndGetState(1);
+    }
+
+    // Returns NO_STOCK, changing nothing, once the slot has been retired: the
+    // replacement's stock was counted with the unit already in it.
+    public long incrementAndGetState(int quantity) {
+        long current;
+        long next;
+        do {
+            current = stockState;
+            if (current < 0) {
+                return NO_STOCK;
+            }
+            next = pack(stockOf(current) + quantity, versionOf(current) + 1);
+        } while (!STOCK_STATE.compareAndSet(this, current, next));
+        return next;
+    }
+
+    /**
+     * Retires this slot and returns a new one with the same code selling
+     * {@code product}. The replacement holds {@code stock} units, or this
+     * slot's stock at retirement if {@code stock} is negative.
+     *
+     * <p>A retired slot holds no stock and refuses later claims and returns,
+     * so every change made to it carries a lower stock version than the
+     * replacement's and journal replay orders the two correctly. When the
+     * stock carried over, units claimed before retirement and handed back
+     * after it belong to the replacement; see {@link #isStockCarriedOver()}.
+     */
+    public Item replace(Product product, int stock) {
+        long current;
+        long retired;
+        do {
+            current = stockState;
+            if (current < 0) {
+                throw new IllegalStateException(code + " has already been replaced");
+            }
+            stockCarriedOver = stock < 0;
+            retired = RETIRED | pack(0, versionOf(current) + 1);
+        } while (!STOCK_STATE.compareAndSet(this, current, retired));
+
+        Item replacement = newSlot(product);
+        replacement.stockState = pack(stock < 0 ? stockOf(current) : stock, versionOf(retired) + 1);
+        return replacement;
+    }
+
+    abstract Item newSlot(Product product);
+
+    public boolean isRetired() {
+        return stockState < 0;
+    }
+
+    /**
+     * Whether this slot was retired with its stock moved to the replacement,
+     * in which case a unit returned to it should go to the replacement.
+     */
+    public boolean isStockCarriedOver() {
+        return isRetired() && stockCarriedOver;
+    }
+
+    /**
+     * Whether {@code version} is a later change than this item's current
+     * stock version.
+     */
+    public boolean isOlderThan(int version) {
+        return isNewer(version, versionOf(stockState));
+    }
+
+    /**
+     * Applies a recorded stock level unless this item has already seen the same
+     * or a later change, so replaying records twice or out of order is harmless.
+     */
+    public boolean restoreStockState(int stock, int version) {
+        long current;
+        do {
+            current = stockState;
+            if (!isNewer(version, versionOf(current))) {
+                return false;
+            }
+        } while (!STOCK_STATE.compareAndSet(this, current, pack(stock, version)));
+        return true;
+    }
+
+    public static int stockOf(long stockState) {
+        return (int) stockState;
+    }
+
+    public static int versionOf(long stockState) {
+        return (int) (stockState >>> 32) & VERSION_MASK;
+    }
+
+    private static long pack(int stock, int version) {
+        return ((long) (version & VERSION_MASK) << 32) | (stock & 0xFFFFFFFFL);
+    }
+
+    private static boolean isNewer(int version, int than) {
+        int distance = (version - than) & VERSION_MASK;
+        return distance != 0 && distance < (1 << 30);
     }
 
     public boolean isInStock() {
-        return stock > 0;
+        return getStock() > 0;
     }
 
     public abstract boolean canDispense();
@@ -51,8 +226,8 @@ public abstract class Item {
     public String toString() {
         return String.format("%s - %s: $%d (Stock: %d)",
                 code,
-                description,
-                price,
-                stock);
+                getDescription(),
+                getPrice(),
+                getStock());
     }
 }
\ No newline at end of file
@@ -0,0 +1,167 @@
+package com.vendingmachine.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class OrderResult {
+
+    public enum Outcome {
+        SUCCESS,
+        EMPTY_ORDER,
+        INVALID_QUANTITY,
+        TOTAL_TOO_LARGE,
+        ITEM_NOT_FOUND,
+        OUT_OF_STOCK,
+        NOT_AVAILABLE,
+        INSUFFICIENT_STOCK,
+        PAYMENT_FAILED
+    }
+
+    // Failures that carry no details are immutable, so one instance serves every caller.
+    private static final OrderResult EMPTY_ORDER = new OrderResult(Outcome.EMPTY_ORDER, null, 0, null,
+        null, null, 0, 0, "Order is empty");
+    private static final OrderResult TOTAL_TOO_LARGE = new OrderResult(Outcome.TOTAL_TOO_LARGE, null, 0, null,
+        null, null, 0, 0, "Order total is too large");
+
+    private final Outcome outcome;
+    private final boolean success;
+    private final Map<String, Integer> quantities;
+    private final int totalPrice;
+    private final List<Integer> change;
+    private final Item item;
+    // What the message needs beyond the item: a code, a refusal or a payment.
+    private final Object detail;
+    private final int requested;
+    // Stock left when the order was refused; the item's own count moves on.
+    private final int available;
+    private String message;
+
+    public OrderResult(boolean success, Map<String, Integer> quantities, int totalPrice,
+                       List<Integer> change, String message) {
+        this(success ? Outcome.SUCCESS : Outcome.NOT_AVAILABLE, quantities, totalPrice, change,
+            null, null, 0, 0, message);
+    }
+
+    // Factories leave the message null and it is built on first request, so
+    // callers that only check the outcome never pay for formatting.
+    private OrderResult(Outcome outcome, Map<String, Integer> quantities, int totalPrice, List<Integer> change,
+                        Item item, Object detail, int requested, int available, String message) {
+        this.outcome = outcome;
+        this.success = outcome == Outcome.SUCCESS;
+        this.quantities = quantities != null
+            ? Collections.unmodifiableMap(new LinkedHashMap<>(quantities))
+            : Collections.emptyMap();
+        this.totalPrice = totalPrice;
+        this.change = change != null ? Collections.unmodifiableList(change) : Collections.emptyList();
+        this.item = item;
+        this.detail = detail;
+        this.requested = requested;
+        this.available = available;
+        this.message = message;
+    }
+
+    public static OrderResult success(Map<String, Integer> quantities, int totalPrice, List<Integer> change) {
+        return new OrderResult(Outcome.SUCCESS, quantities, totalPrice, change, null, null, 0, 0, null);
+    }
+
+    public static OrderResult emptyOrder() {
+        return EMPTY_ORDER;
+    }
+
+    public static OrderResult totalTooLarge() {
+        return TOTAL_TOO_LARGE;
+    }
+
+    public static OrderResult invalidQuantity(String code, int quantity) {
+        return failure(Outcome.INVALID_QUANTITY, null, code, quantity, 0);
+    }
+
+    public static OrderResult itemNotFound(String code) {
+        return failure(Outcome.ITEM_NOT_FOUND, null, code, 0, 0);
+    }
+
+    public static OrderResult outOfStock(Item item) {
+        return failure(Outcome.OUT_OF_STOCK, item, null, 0, 0);
+    }
+
+    public static OrderResult cannotDispense(Item item) {
+        return failure(Outcome.NOT_AVAILABLE, item, DispenseResult.cannotDispense(item), 0, 0);
+    }
+
+    public static OrderResult insufficientStock(Item item, int requested) {
+        return failure(Outcome.INSUFFICIENT_STOCK, item, null, requested, item.getStock());
+    }
+
+    public static OrderResult paymentFailed(PaymentResult payment) {
+        return failure(Outcome.PAYMENT_FAILED, null, payment, 0, 0);
+    }
+
+    public static OrderResult failed(String reason) {
+        return new OrderResult(false, null, 0, null, reason);
+    }
+
+    private static OrderResult failure(Outcome outcome, Item item, Object detail, int requested, int available) {
+        return new OrderResult(outcome, null, 0, null, item, detail, requested, available, null);
+    }
+
+    private String formatMessage() {
+        return switch (outcome) {
+            case SUCCESS -> {
+                int units = 0;
+                for (int quantity : quantities.values()) {
+                    units += quantity;
+                }
+                yield "Successfully dispensed " + units + " item" + (units == 1 ? "" : "s") + " for $" + totalPrice;
+            }
+            case EMPTY_ORDER -> "Order is empty";
+            case TOTAL_TOO_LARGE -> "Order total is too large";
+            case INVALID_QUANTITY -> "Invalid quantity " + requested + " for " + detail;
+            case ITEM_NOT_FOUND -> "Item not found: " + detail;
+            case OUT_OF_STOCK -> item.getDescription() + " is out of stock";
+            case NOT_AVAILABLE -> ((DispenseResult) detail).getMessage();
+            case INSUFFICIENT_STOCK -> "Only " + available + " of " + item.getDescription() + " left, "
+                + requested + " requested";
+            case PAYMENT_FAILED -> ((PaymentResult) detail).getMessage();
+        };
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public Map<String, Integer> getQuantities() {
+        return quantities;
+    }
+
+    public int getTotalPrice() {
+        return totalPrice;
+    }
+
+    public List<Integer> getChange() {
+        return change;
+    }
+
+    public Item getItem() {
+        return item;
+    }
+
+    public String getMessage() {
+        String msg = message;
+        if (msg == null) {
+            msg = formatMessage();
+            message = msg;
+        }
+        return msg;
+    }
+
+    @Override
+    public String toString() {
+        return (success ? "SUCCESS: " : "FAILED: ") + getMessage();
+    }
+}
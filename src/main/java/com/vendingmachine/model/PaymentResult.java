@@ -1,34 +1,71 @@
 package com.vendingmachine.model;
 
+import java.util.Collections;
 import java.util.List;
-import java.util.ArrayList;
 
 public class PaymentResult {
+
+    public enum Outcome {
+        SUCCESS,
+        INVALID_COINS,
+        INSUFFICIENT_FUNDS,
+        NO_EXACT_CHANGE
+    }
+
+    private static final String SUCCESS_MESSAGE = "Payment successful";
+
+    private final Outcome outcome;
     private final boolean success;
     private final int totalPaid;
     private final List<Integer> change;
-    private final String message;
+    // The price that was not met or the change that could not be made.
+    private final int amount;
+    private final List<Integer> invalidCoins;
+    private String message;
 
     public PaymentResult(boolean success, int totalPaid, List<Integer> change, String message) {
-        this.success = success;
+        this(success ? Outcome.SUCCESS : Outcome.INSUFFICIENT_FUNDS, totalPaid, change, 0, null, message);
+    }
+
+    // Factories leave the message null and it is built on first request.
+    private PaymentResult(Outcome outcome, int totalPaid, List<Integer> change, int amount,
+                          List<Integer> invalidCoins, String message) {
+        this.outcome = outcome;
+        this.success = outcome == Outcome.SUCCESS;
         this.totalPaid = totalPaid;
-        this.change = change != null ? new ArrayList<>(change) : new ArrayList<>();
+        this.change = change != null ? Collections.unmodifiableList(change) : Collections.emptyList();
+        this.amount = amount;
+        this.invalidCoins = invalidCoins;
         this.message = message;
     }
 
     public static PaymentResult success(int totalPaid, List<Integer> change) {
-        return new PaymentResult(true, totalPaid, change, "Payment successful");
+        return new PaymentResult(Outcome.SUCCESS, totalPaid, change, 0, null, SUCCESS_MESSAGE);
     }
 
     public static PaymentResult insufficientFunds(int totalPaid, int required) {
-        String msg = String.format("Insufficient funds. Paid: $%d, Required: $%d",
-                totalPaid, required);
-        return new PaymentResult(false, totalPaid, null, msg);
+        return new PaymentResult(Outcome.INSUFFICIENT_FUNDS, totalPaid, null, required, null, null);
+    }
+
+    public static PaymentResult noExactChange(int totalPaid, int changeAmount) {
+        return new PaymentResult(Outcome.NO_EXACT_CHANGE, totalPaid, null, changeAmount, null, null);
     }
 
     public static PaymentResult invalidCoins(List<Integer> invalidCoins) {
-        String msg = "Invalid coins detected: " + invalidCoins;
-        return new PaymentResult(false, 0, null, msg);
+        return new PaymentResult(Outcome.INVALID_COINS, 0, null, 0, invalidCoins, null);
+    }
+
+    private String formatMessage() {
+        return switch (outcome) {
+            case SUCCESS -> SUCCESS_MESSAGE;
+            case INSUFFICIENT_FUNDS -> "Insufficient funds. Paid: $" + totalPaid + ", Required: $" + amount;
+            case NO_EXACT_CHANGE -> "Unable to return exact change of $" + amount;
+            case INVALID_COINS -> "Invalid coins detected: " + invalidCoins;
+        };
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
     }
 
     public boolean isSuccess() {
@@ -40,11 +77,16 @@ public class PaymentResult {
     }
 
     public List<Integer> getChange() {
-        return new ArrayList<>(change);
+        return change;
     }
 
     public String getMessage() {
-        return message;
+        String msg = message;
+        if (msg == null) {
+            msg = formatMessage();
+            message = msg;
+        }
+        return msg;
     }
 
     @Override
@@ -53,7 +95,7 @@ public class PaymentResult {
             return String.format("Payment successful. Total: $%d, Change: %s",
                     totalPaid, formatChange());
         } else {
-            return "Payment failed: " + message;
+            return "Payment failed: " + getMessage();
         }
     }
 
@@ -0,0 +1,51 @@
+package com.vendingmachine.model;
+
+/**
+ * Immutable product data shared by every slot that stocks the product.
+ * Instances come from a {@link ProductCatalog}, which gives each one a dense id
+ * unless it holds them weakly.
+ */
+public class Product {
+    private int id = -1;
+    private final String description;
+    private final int price;
+
+    Product(String description, int price) {
+        this.description = description;
+        this.price = price;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    void assignId(int id) {
+        this.id = id;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public int getPrice() {
+        return price;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || o.getClass() != getClass()) return false;
+        Product other = (Product) o;
+        return price == other.price && description.equals(other.description);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * description.hashCode() + price;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: $%d", description, price);
+    }
+}
@@ -0,0 +1,111 @@
+package com.vendingmachine.model;
+
+import java.lang.ref.WeakReference;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns products so every slot, machine and fleet stocking the same product
+ * shares one immutable {@link Product}. Products are numbered densely from 0,
+ * and lookups by id or by value never take a lock.
+ *
+ * <p>A catalog made by {@link #weak()} holds its products only weakly, so one
+ * that no slot sells any more is dropped. Its products get no id, and
+ * interning takes a lock. The {@link #shared()} catalog behind the item
+ * constructors is weak, so adding items and repricing them over a long run
+ * cannot grow it without bound.
+ */
+public class ProductCatalog {
+    private static final ProductCatalog SHARED = weak();
+
+    private final Map<Product, Product> products = new ConcurrentHashMap<>();
+    private volatile Product[] byId = new Product[16];
+    private int size;
+
+    // Set only in a weak catalog; guarded by this.
+    private final Map<Product, WeakReference<Product>> weakProducts;
+
+    public ProductCatalog() {
+        this(false);
+    }
+
+    private ProductCatalog(boolean weak) {
+        this.weakProducts = weak ? new WeakHashMap<>() : null;
+    }
+
+    public static ProductCatalog weak() {
+        return new ProductCatalog(true);
+    }
+
+    public static ProductCatalog shared() {
+        return SHARED;
+    }
+
+    public Product intern(String description, int price) {
+        return intern(new Product(description, price));
+    }
+
+    public SnackProduct internSnack(String description, int price, LocalDate manufactureDate, int shelfLifeDays) {
+        return intern(new SnackProduct(description, price, manufactureDate, shelfLifeDays));
+    }
+
+    public DrinkProduct internDrink(String description, int price, int volumeMl, int minVolumeThreshold) {
+        return intern(new DrinkProduct(description, price, volumeMl, minVolumeThreshold));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <P extends Product> P intern(P candidate) {
+        if (weakProducts != null) {
+            return (P) internWeakly(candidate);
+        }
+        Product existing = products.get(candidate);
+        if (existing != null) {
+            return (P) existing;
+        }
+        return (P) register(candidate);
+    }
+
+    private synchronized Product register(Product candidate) {
+        Product existing = products.get(candidate);
+        if (existing != null) {
+            return existing;
+        }
+        candidate.assignId(size);
+        Product[] table = byId;
+        if (size == table.length) {
+            table = Arrays.copyOf(table, size * 2);
+        }
+        table[size] = candidate;
+        byId = table;
+        size++;
+        products.put(candidate, candidate);
+        return candidate;
+    }
+
+    private synchronized Product internWeakly(Product candidate) {
+        WeakReference<Product> reference = weakProducts.get(candidate);
+        Product existing = reference != null ? reference.get() : null;
+        if (existing != null) {
+            return existing;
+        }
+        weakProducts.put(candidate, new WeakReference<>(candidate));
+        return candidate;
+    }
+
+    public Product get(int id) {
+        Product[] table = byId;
+        return id >= 0 && id < table.length ? table[id] : null;
+    }
+
+    public int size() {
+        if (weakProducts != null) {
+            synchronized (this) {
+                return weakProducts.size();
+            }
+        }
+        return products.size();
+    }
+}
@@ -1,48 +1,89 @@
 package com.vendingmachine.model;
 
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 
-public class Snack extends Item {
-    private LocalDate manufactureDate;
-    private int shelfLifeDays;
+public final class Snack extends Item {
+    private final ExpiryClock clock;
+    private volatile boolean withdrawn;
 
     public Snack(String code, String description, int price, LocalDate manufactureDate, int shelfLifeDays) {
-        super(code, description, price);
-        this.manufactureDate = manufactureDate;
-        this.shelfLifeDays = shelfLifeDays;
+        this(code, ProductCatalog.shared().internSnack(description, price, manufactureDate, shelfLifeDays));
+    }
+
+    public Snack(String code, SnackProduct product) {
+        this(code, product, ExpiryClock.system());
+    }
+
+    public Snack(String code, SnackProduct product, ExpiryClock clock) {
+        super(code, product);
+        this.clock = clock;
+    }
+
+    // A new batch clears the withdrawal; a restock of the same batch keeps it.
+    @Override
+    Snack newSlot(Product product) {
+        Snack snack = new Snack(getCode(), (SnackProduct) product, clock);
+        snack.withdrawn = withdrawn && product == getProduct();
+        return snack;
+    }
+
+    @Override
+    public SnackProduct getProduct() {
+        return (SnackProduct) super.getProduct();
     }
 
     public LocalDate getManufactureDate() {
-        return manufactureDate;
+        return getProduct().getManufactureDate();
     }
 
     public int getShelfLifeDays() {
-        return shelfLifeDays;
+        return getProduct().getShelfLifeDays();
     }
 
     public boolean isExpired() {
-        LocalDate expiryDate = manufactureDate.plusDays(shelfLifeDays);
-        return LocalDate.now().isAfter(expiryDate);
+        return isExpiredOn(clock.today());
+    }
+
+    public boolean isExpiredOn(long epochDay) {
+        return epochDay > getProduct().getExpiryEpochDay();
     }
 
     public int getDaysUntilExpiry() {
-        LocalDate expiryDate = manufactureDate.plusDays(shelfLifeDays);
-        long days = ChronoUnit.DAYS.between(LocalDate.now(), expiryDate);
-        return (int) days;
+        return daysUntilExpiry(clock.today());
+    }
+
+    private int daysUntilExpiry(long today) {
+        return (int) (getProduct().getExpiryEpochDay() - today);
+    }
+
+    // Set by an expiry sweep so later checks skip the date comparison.
+    public void withdraw() {
+        withdrawn = true;
+    }
+
+    public boolean isWithdrawn() {
+        return withdrawn;
+    }
+
+    // Details also depend on the current day and the withdrawn flag, so fold
+    // them in above the 31-bit stock version.
+    @Override
+    public long getRevision() {
+        return (clock.today() << 32) | (withdrawn ? 1L << 31 : 0L) | getStockVersion();
     }
 
     @Override
     public boolean canDispense() {
-        return isInStock() && !isExpired();
+        return !withdrawn && isInStock() && !isExpired();
     }
 
     @Override
     public String getItemDetails() {
-        if (isExpired()) {
+        long today = clock.today();
+        if (withdrawn || isExpiredOn(today)) {
             return String.format("%s (EXPIRED)", getDescription());
         } else {
-            int daysLeft = getDaysUntilExpiry();
+            int daysLeft = daysUntilExpiry(today);
             if (daysLeft <= 3) {
                 return String.format("%s (Expires in %d day%s)",
                     getDescription(),
@@ -53,4 +94,4 @@ public class Snack extends Item {
             }
         }
     }
-}
\ No newline at end of file
+}
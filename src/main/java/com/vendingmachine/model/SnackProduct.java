@@ -0,0 +1,41 @@
+package com.vendingmachine.model;
+
+import java.time.LocalDate;
+
+public final class SnackProduct extends Product {
+    private final LocalDate manufactureDate;
+    private final int shelfLifeDays;
+    private final long expiryEpochDay;
+
+    SnackProduct(String description, int price, LocalDate manufactureDate, int shelfLifeDays) {
+        super(description, price);
+        this.manufactureDate = manufactureDate;
+        this.shelfLifeDays = shelfLifeDays;
+        this.expiryEpochDay = manufactureDate.toEpochDay() + shelfLifeDays;
+    }
+
+    public LocalDate getManufactureDate() {
+        return manufactureDate;
+    }
+
+    public int getShelfLifeDays() {
+        return shelfLifeDays;
+    }
+
+    // Last day on which the product may still be sold.
+    public long getExpiryEpochDay() {
+        return expiryEpochDay;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!super.equals(o)) return false;
+        SnackProduct other = (SnackProduct) o;
+        return shelfLifeDays == other.shelfLifeDays && manufactureDate.equals(other.manufactureDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * super.hashCode() + manufactureDate.hashCode()) + shelfLifeDays;
+    }
+}
@@ -0,0 +1,10 @@
+package com.vendingmachine.persistence;
+
+public enum FsyncPolicy {
+    /** Every append waits until it is on disk; concurrent appenders share one fsync. */
+    ALWAYS,
+    /** A background thread forces the journal at a fixed interval. */
+    PERIODIC,
+    /** Flushing is left to the operating system. */
+    NEVER
+}
@@ -0,0 +1,226 @@
+package com.vendingmachine.persistence;
+
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.model.Item;
+import com.vendingmachine.model.Snack;
+import com.vendingmachine.service.Planogram;
+import com.vendingmachine.service.VendingMachine;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Point-in-time copy of a machine's items, written in a compact versioned
+ * binary format:
+ *
+ * <pre>
+ * int magic, short version, long journalSequence, int itemCount,
+ * itemCount x (byte type, str code, str description, int price, int stock, int stockVersion,
+ *              snack: long manufactureEpochDay, int shelfLifeDays
+ *              drink: int volumeMl, int minVolumeThreshold),
+ * int crc32 of everything before it
+ * </pre>
+ *
+ * Strings are a short byte length followed by UTF-8. Items are read one at a
+ * time while dispensing carries on, so the snapshot is fuzzy; replaying the
+ * journal from {@link #getJournalSequence()} brings it up to date because
+ * journal records only apply over older stock versions.
+ */
+public class InventorySnapshot {
+    private static final int MAGIC = 0x564D534E;
+    private static final short FORMAT_VERSION = 1;
+    private static final byte SNACK = 1;
+    private static final byte DRINK = 2;
+
+    private final long journalSequence;
+    private final List<Item> items;
+
+    private InventorySnapshot(long journalSequence, List<Item> items) {
+        this.journalSequence = journalSequence;
+        this.items = items;
+    }
+
+    public long getJournalSequence() {
+        return journalSequence;
+    }
+
+    public List<Item> getItems() {
+        return Collections.unmodifiableList(items);
+    }
+
+    /**
+     * Writes the machine's items to {@code path}, replacing it atomically.
+     * {@code journalSequence} must be read before the machine is, so that every
+     * change missing from the snapshot is at or after it in the journal.
+     */
+    public static void write(VendingMachine machine, long journalSequence, Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        buffer.putInt(MAGIC).putShort(FORMAT_VERSION).putLong(journalSequence).putInt(0);
+
+        int count = 0;
+        for (Item item : machine.getItems()) {
+            buffer = ensureCapacity(buffer, 64 + 3 * (item.getCode().length() + item.getDescription().length()));
+            long stockState = item.getStockState();
+            switch (item) {
+                case Snack snack -> {
+                    buffer.put(SNACK);
+                    writeCommon(buffer, item, stockState);
+                    buffer.putLong(snack.getManufactureDate().toEpochDay()).putInt(snack.getShelfLifeDays());
+                }
+                case Drink drink -> {
+                    buffer.put(DRINK);
+                    writeCommon(buffer, item, stockState);
+                    buffer.putInt(drink.getVolumeMl()).putInt(drink.getMinVolumeThreshold());
+                }
+            }
+            count++;
+        }
+        buffer.putInt(14, count);
+
+        buffer = ensureCapacity(buffer, 4);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static InventorySnapshot read(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 22 || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid snapshot size: " + size);
+            }
+            buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading
+            }
+            buffer.flip();
+        }
+
+        int body = buffer.limit() - 4;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, body);
+        if ((int) crc.getValue() != buffer.getInt(body)) {
+            throw new IOException("Snapshot checksum mismatch: " + path);
+        }
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not an inventory snapshot: " + path);
+        }
+        short version = buffer.getShort();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + ": " + path);
+        }
+
+        try {
+            long journalSequence = buffer.getLong();
+            int count = buffer.getInt();
+            List<Item> items = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                byte type = buffer.get();
+                String code = readString(buffer);
+                String description = readString(buffer);
+                int price = buffer.getInt();
+                int stock = buffer.getInt();
+                int stockVersion = buffer.getInt();
+                Item item;
+                if (type == SNACK) {
+                    LocalDate manufactureDate = LocalDate.ofEpochDay(buffer.getLong());
+                    item = new Snack(code, description, price, manufactureDate, buffer.getInt());
+                } else if (type == DRINK) {
+                    int volumeMl = buffer.getInt();
+                    item = new Drink(code, description, price, volumeMl, buffer.getInt());
+                } else {
+                    throw new IOException("Unknown item type " + type + " in " + path);
+                }
+                item.restoreStockState(stock, stockVersion);
+                items.add(item);
+            }
+            return new InventorySnapshot(journalSequence, items);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated snapshot: " + path, e);
+        }
+    }
+
+    public VendingMachine restore(VendingMachine machine) throws VendingMachineException {
+        for (Item item : items) {
+            machine.addItem(item);
+        }
+        return machine;
+    }
+
+    /**
+     * Rebuilds a machine from the latest snapshot, if there is one, and the
+     * journal records written since it was taken.
+     */
+    public static VendingMachine recover(Path snapshotPath, TransactionJournal journal)
+            throws IOException, VendingMachineException {
+        return recover(snapshotPath, journal, Planogram.standard());
+    }
+
+    public static VendingMachine recover(Path snapshotPath, TransactionJournal journal, Planogram planogram)
+            throws IOException, VendingMachineException {
+        VendingMachine machine = new VendingMachine(planogram);
+        long fromSequence = 0;
+        if (Files.exists(snapshotPath)) {
+            InventorySnapshot snapshot = read(snapshotPath);
+            snapshot.restore(machine);
+            fromSequence = snapshot.getJournalSequence();
+        }
+        journal.recover(machine, fromSequence);
+        return machine;
+    }
+
+    private static void writeCommon(ByteBuffer buffer, Item item, long stockState) {
+        writeString(buffer, item.getCode());
+        writeString(buffer, item.getDescription());
+        buffer.putInt(item.getPrice())
+                .putInt(Item.stockOf(stockState))
+                .putInt(Item.versionOf(stockState));
+    }
+
+    private static void writeString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int needed) {
+        if (buffer.remaining() >= needed) {
+            return buffer;
+        }
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + needed));
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
+}
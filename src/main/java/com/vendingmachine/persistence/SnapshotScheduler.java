@@ -0,0 +1,66 @@
+package com.vendingmachine.persistence;
+
+import com.vendingmachine.service.VendingMachine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes an {@link InventorySnapshot} of a machine on a background thread at a
+ * fixed interval. Snapshots read item state without locking, so dispensing is
+ * never blocked while one is written.
+ */
+public final class SnapshotScheduler implements Closeable {
+    private final VendingMachine machine;
+    private final TransactionJournal journal;
+    private final Path snapshotPath;
+    private final ScheduledExecutorService executor;
+    private volatile IOException lastFailure;
+
+    public SnapshotScheduler(VendingMachine machine, TransactionJournal journal,
+                             Path snapshotPath, long intervalMillis) {
+        this.machine = machine;
+        this.journal = journal;
+        this.snapshotPath = snapshotPath;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::snapshotQuietly,
+                intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void snapshotNow() throws IOException {
+        long sequence = journal.getNextSequence();
+        InventorySnapshot.write(machine, sequence, snapshotPath);
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshotNow();
+            lastFailure = null;
+        } catch (IOException e) {
+            lastFailure = e;
+        }
+    }
+
+    public IOException getLastFailure() {
+        return lastFailure;
+    }
+
+    @Override
+    public void close() throws IOException {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        snapshotNow();
+    }
+}
@@ -0,0 +1,459 @@
+package com.vendingmachine.persistence;
+
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.model.Item;
+import com.vendingmachine.model.Snack;
+import com.vendingmachine.service.TransactionLog;
+import com.vendingmachine.service.VendingMachine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped log of stock changes, sales and product changes.
+ * Each record holds the stock level an item reached and the version of that
+ * change.
+ *
+ * <p>The file starts with a 16 byte header followed by records laid out as
+ * {@code [int length][int crc][long sequence][byte type][payload]}, where the
+ * CRC covers everything after itself. The file grows in fixed-size mapped
+ * regions and a record never straddles two of them. Replay stops at the
+ * first zero length or bad checksum, which is where a torn write ends.
+ * Opening a journal zeroes everything past that point before appending.
+ */
+public final class TransactionJournal implements TransactionLog, Closeable {
+    public static final int DEFAULT_REGION_SIZE = 64 * 1024 * 1024;
+    public static final long DEFAULT_SYNC_INTERVAL_MILLIS = 10;
+
+    static final byte STOCK = 1;
+    static final byte SALE = 2;
+    static final byte PRODUCT = 3;
+
+    // Stands in for the manufacture date of a product record for a drink.
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private static final int MAGIC = 0x564D4A4C;
+    private static final int VERSION = 2;
+    private static final int FILE_HEADER_SIZE = 16;
+    private static final int RECORD_HEADER_SIZE = 4 + 4 + 8 + 1;
+    private static final int MAX_RECORD_SIZE = RECORD_HEADER_SIZE + 2 + Short.MAX_VALUE + 20;
+    private static final int SKIP_TO_NEXT_REGION = -1;
+
+    private final FileChannel channel;
+    private final FsyncPolicy policy;
+    private final int regionSize;
+    private final ScheduledExecutorService flusher;
+
+    private volatile MappedByteBuffer[] regions = new MappedByteBuffer[0];
+
+    // Guarded by this
+    private final byte[] scratch = new byte[MAX_RECORD_SIZE];
+    private final ByteBuffer scratchBuffer = ByteBuffer.wrap(scratch);
+    private final CRC32 crc = new CRC32();
+    private long writePosition;
+    private long nextSequence;
+    private boolean closed;
+
+    private volatile long appendedPosition;
+
+    private final Object syncLock = new Object();
+    private long syncedPosition;
+
+    public TransactionJournal(Path path, FsyncPolicy policy) throws IOException {
+        this(path, policy, DEFAULT_SYNC_INTERVAL_MILLIS, DEFAULT_REGION_SIZE);
+    }
+
+    public TransactionJournal(Path path, FsyncPolicy policy, long syncIntervalMillis, int regionSize)
+            throws IOException {
+        if (regionSize < FILE_HEADER_SIZE + MAX_RECORD_SIZE) {
+            throw new IllegalArgumentException("Region size too small: " + regionSize);
+        }
+        this.policy = policy;
+        this.regionSize = regionSize;
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            boolean fresh = channel.size() == 0;
+            MappedByteBuffer first = region(0);
+            if (fresh) {
+                first.putInt(0, MAGIC);
+                first.putInt(4, VERSION);
+                first.force();
+            } else if (first.getInt(0) != MAGIC || first.getInt(4) != VERSION) {
+                throw new IOException("Not a transaction journal: " + path);
+            }
+            scan(Long.MAX_VALUE, null);
+            if (!fresh) {
+                clearTail();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        this.appendedPosition = writePosition;
+        this.syncedPosition = writePosition;
+
+        if (policy == FsyncPolicy.PERIODIC) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "journal-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::sync,
+                    syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    @Override
+    public void recordStock(String code, int stock, int version) {
+        append(STOCK, code, stock, version, 0, 0, 0);
+    }
+
+    @Override
+    public void recordSale(String code, int stock, int version, int price, int totalPaid, int changeAmount) {
+        append(SALE, code, stock, version, price, totalPaid, changeAmount);
+    }
+
+    // Laid out as price then the manufacture epoch day, high word first, in
+    // the two ints a sale uses for the amount paid and the change.
+    @Override
+    public void recordProduct(String code, int stock, int version, int price, LocalDate manufactureDate) {
+        long epochDay = manufactureDate != null ? manufactureDate.toEpochDay() : NO_DATE;
+        append(PRODUCT, code, stock, version, price, (int) (epochDay >>> 32), (int) epochDay);
+    }
+
+    private long append(byte type, String code, int stock, int version,
+                        int price, int totalPaid, int changeAmount) {
+        byte[] codeBytes = code.getBytes(StandardCharsets.UTF_8);
+        if (codeBytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Item code too long: " + code.length());
+        }
+        int recordSize = RECORD_HEADER_SIZE + 2 + codeBytes.length + (type == STOCK ? 8 : 20);
+
+        long sequence;
+        long end;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            sequence = nextSequence;
+
+            scratchBuffer.clear();
+            scratchBuffer.putInt(recordSize).putInt(0).putLong(sequence).put(type);
+            scratchBuffer.putShort((short) codeBytes.length).put(codeBytes).putInt(stock).putInt(version);
+            if (type != STOCK) {
+                scratchBuffer.putInt(price).putInt(totalPaid).putInt(changeAmount);
+            }
+            crc.reset();
+            crc.update(scratch, 8, recordSize - 8);
+            scratchBuffer.putInt(4, (int) crc.getValue());
+
+            try {
+                int offset = (int) (writePosition % regionSize);
+                if (offset + recordSize > regionSize) {
+                    if (regionSize - offset >= 4) {
+                        region(writePosition / regionSize).putInt(offset, SKIP_TO_NEXT_REGION);
+                    }
+                    writePosition += regionSize - offset;
+                    offset = 0;
+                }
+                MappedByteBuffer target = region(writePosition / regionSize);
+                target.position(offset);
+                target.put(scratch, 0, recordSize);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            writePosition += recordSize;
+            nextSequence++;
+            end = writePosition;
+            appendedPosition = end;
+        }
+
+        if (policy == FsyncPolicy.ALWAYS) {
+            syncTo(end);
+        }
+        return sequence;
+    }
+
+    public void sync() {
+        syncTo(appendedPosition);
+    }
+
+    // Group commit: whoever holds the lock forces everything appended so far,
+    // so appenders queued behind it usually find their record already durable.
+    private void syncTo(long position) {
+        synchronized (syncLock) {
+            if (syncedPosition >= position) {
+                return;
+            }
+            long target = appendedPosition;
+            MappedByteBuffer[] mapped = regions;
+            int first = (int) (syncedPosition / regionSize);
+            int last = (int) Math.min((target - 1) / regionSize, mapped.length - 1);
+            for (int i = first; i <= last; i++) {
+                mapped[i].force();
+            }
+            syncedPosition = target;
+        }
+    }
+
+    /**
+     * Feeds every record with a sequence number of at least {@code fromSequence}
+     * to {@code sink}, in order. Returns the number of records delivered.
+     */
+    public long replay(long fromSequence, TransactionLog sink) {
+        synchronized (this) {
+            try {
+                return scan(fromSequence, sink);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Re-applies the journal to a machine that already holds its items. Every
+     * record carries the stock level it produced and that level's version, so
+     * records the machine has already seen (for example through a snapshot)
+     * are skipped and the result does not depend on record order.
+     */
+    public long recover(VendingMachine machine, long fromSequence) {
+        return replay(fromSequence, new TransactionLog() {
+            @Override
+            public void recordStock(String code, int stock, int version) {
+                Item item = machine.getItem(code);
+                if (item != null) {
+                    item.restoreStockState(stock, version);
+                }
+            }
+
+            @Override
+            public void recordSale(String code, int stock, int version,
+                                   int price, int totalPaid, int changeAmount) {
+                recordStock(code, stock, version);
+            }
+
+            // The item is rebuilt with the new product, as a snapshot restores
+            // one, unless it already holds this change or a later one.
+            @Override
+            public void recordProduct(String code, int stock, int version, int price,
+                                      LocalDate manufactureDate) {
+                Item item = machine.getItem(code);
+                if (item == null || !item.isOlderThan(version)) {
+                    return;
+                }
+                Item replacement = switch (item) {
+                    case Snack snack -> new Snack(code, snack.getDescription(), price,
+                            manufactureDate != null ? manufactureDate : snack.getManufactureDate(),
+                            snack.getShelfLifeDays());
+                    case Drink drink -> new Drink(code, drink.getDescription(), price,
+                            drink.getVolumeMl(), drink.getMinVolumeThreshold());
+                };
+                replacement.restoreStockState(stock, version);
+                try {
+                    machine.addItem(replacement);
+                } catch (VendingMachineException e) {
+                    throw new IllegalStateException("Cannot restore " + code + " from the journal", e);
+                }
+            }
+        });
+    }
+
+    public synchronized long getNextSequence() {
+        return nextSequence;
+    }
+
+    // With a null sink, validates every record and moves the append position to
+    // the end of the valid prefix. Otherwise walks that already-validated prefix.
+    private long scan(long fromSequence, TransactionLog sink) throws IOException {
+        boolean validate = sink == null;
+        long end = validate ? Long.MAX_VALUE : writePosition;
+        long position = FILE_HEADER_SIZE;
+        long delivered = 0;
+        long lastSequence = -1;
+        byte[] codeBuffer = new byte[64];
+        String[] recentCodes = new String[16];
+        long fileSize = channel.size();
+        long viewIndex = -1;
+        ByteBuffer view = null;
+
+        while (position < end) {
+            int offset = (int) (position % regionSize);
+            if (regionSize - offset < RECORD_HEADER_SIZE) {
+                position += regionSize - offset;
+                continue;
+            }
+            long index = position / regionSize;
+            if (index * regionSize >= fileSize) {
+                break;
+            }
+            MappedByteBuffer region = region(index);
+            if (index != viewIndex) {
+                view = region.duplicate();
+                viewIndex = index;
+            }
+            int length = region.getInt(offset);
+            if (length == SKIP_TO_NEXT_REGION) {
+                position += regionSize - offset;
+                continue;
+            }
+            if (length < RECORD_HEADER_SIZE + 2 || offset + length > regionSize) {
+                break;
+            }
+            long sequence = region.getLong(offset + 8);
+            if (validate) {
+                view.limit(offset + length).position(offset + 8);
+                crc.reset();
+                crc.update(view);
+                if (sequence != lastSequence + 1 || (int) crc.getValue() != region.getInt(offset + 4)) {
+                    break;
+                }
+            } else if (sequence >= fromSequence) {
+                int codeLength = region.getShort(offset + 17);
+                if (codeBuffer.length < codeLength) {
+                    codeBuffer = new byte[codeLength];
+                }
+                view.limit(offset + length).position(offset + 19);
+                view.get(codeBuffer, 0, codeLength);
+                String code = decodeCode(codeBuffer, codeLength, recentCodes);
+                int fields = offset + 19 + codeLength;
+                byte type = region.get(offset + 16);
+                int stock = region.getInt(fields);
+                int version = region.getInt(fields + 4);
+                if (type == STOCK) {
+                    sink.recordStock(code, stock, version);
+                } else if (type == SALE) {
+                    sink.recordSale(code, stock, version, region.getInt(fields + 8),
+                            region.getInt(fields + 12), region.getInt(fields + 16));
+                } else if (type == PRODUCT) {
+                    long epochDay = region.getLong(fields + 12);
+                    sink.recordProduct(code, stock, version, region.getInt(fields + 8),
+                            epochDay != NO_DATE ? LocalDate.ofEpochDay(epochDay) : null);
+                }
+                delivered++;
+            }
+
+            lastSequence = sequence;
+            position += length;
+        }
+
+        if (validate) {
+            writePosition = position;
+            nextSequence = lastSequence + 1;
+        }
+        return delivered;
+    }
+
+    // Zeroes everything past the valid prefix. Otherwise a torn record, and any
+    // intact records behind it, could line up after a later append of the same
+    // or shorter length and replay as if they belonged to the new history.
+    // Only non-zero words are written, so an unused sparse region stays sparse.
+    private void clearTail() throws IOException {
+        long fileSize = channel.size();
+        boolean cleared = false;
+        long position = writePosition;
+        while (position < fileSize) {
+            MappedByteBuffer region = region(position / regionSize);
+            int offset = (int) (position % regionSize);
+            while (offset < regionSize && (offset & 7) != 0) {
+                cleared |= clearByte(region, offset++);
+            }
+            for (; offset + 8 <= regionSize; offset += 8) {
+                if (region.getLong(offset) != 0) {
+                    region.putLong(offset, 0);
+                    cleared = true;
+                }
+            }
+            while (offset < regionSize) {
+                cleared |= clearByte(region, offset++);
+            }
+            if (cleared) {
+                region.force();
+                cleared = false;
+            }
+            position += regionSize - (position % regionSize);
+        }
+    }
+
+    private static boolean clearByte(MappedByteBuffer region, int offset) {
+        if (region.get(offset) == 0) {
+            return false;
+        }
+        region.put(offset, (byte) 0);
+        return true;
+    }
+
+    // Item codes repeat constantly, so keep a tiny hash-indexed cache of decoded
+    // strings instead of allocating one per record.
+    private static String decodeCode(byte[] bytes, int length, String[] recentCodes) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        int slot = hash & (recentCodes.length - 1);
+        String cached = recentCodes[slot];
+        if (cached != null && cached.length() == length) {
+            boolean same = true;
+            for (int i = 0; same && i < length; i++) {
+                same = cached.charAt(i) == bytes[i];
+            }
+            if (same) {
+                return cached;
+            }
+        }
+        String code = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        recentCodes[slot] = code;
+        return code;
+    }
+
+    private MappedByteBuffer region(long index) throws IOException {
+        MappedByteBuffer[] mapped = regions;
+        if (index < mapped.length) {
+            return mapped[(int) index];
+        }
+        synchronized (syncLock) {
+            mapped = regions;
+            MappedByteBuffer[] grown = new MappedByteBuffer[(int) index + 1];
+            System.arraycopy(mapped, 0, grown, 0, mapped.length);
+            for (int i = mapped.length; i <= index; i++) {
+                grown[i] = channel.map(FileChannel.MapMode.READ_WRITE, (long) i * regionSize, regionSize);
+            }
+            regions = grown;
+            return grown[(int) index];
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        if (policy != FsyncPolicy.NEVER) {
+            sync();
+        }
+        channel.close();
+    }
+}
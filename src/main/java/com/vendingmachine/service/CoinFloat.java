@@ -0,0 +1,180 @@
+package com.vendingmachine.service;
+
+import java.util.Arrays;
+
+/**
+ * The coins physically held by a machine. Change is only ever paid out of
+ * coins the float actually has, and a sale is refused when exact change
+ * cannot be made from them.
+ */
+public class CoinFloat {
+    public static final int DEFAULT_MAX_CHANGE = 1000;
+
+    private final CoinHandler coinHandler;
+    private final Denominations denominations;
+    private final int[] counts;
+    private final int maxChange;
+
+    private final int[] candidate;
+    private final int[] probe;
+    private final int[] minCoins;
+    private final int[] itemDenomination;
+    private final int[] itemMultiplier;
+    private final long[] taken;
+
+    public CoinFloat(CoinHandler coinHandler, int[] initialCounts) {
+        this(coinHandler, initialCounts, DEFAULT_MAX_CHANGE);
+    }
+
+    public CoinFloat(CoinHandler coinHandler, int[] initialCounts, int maxChange) {
+        Denominations denominations = coinHandler.getDenominations();
+        if (initialCounts.length != denominations.size()) {
+            throw new IllegalArgumentException(
+                "Expected " + denominations.size() + " coin counts but got " + initialCounts.length);
+        }
+        this.coinHandler = coinHandler;
+        this.denominations = denominations;
+        this.counts = initialCounts.clone();
+        this.maxChange = maxChange;
+
+        int maxItems = 0;
+        for (int i = 0; i < denominations.size(); i++) {
+            maxItems += 32 - Integer.numberOfLeadingZeros(Math.max(maxChange / denominations.valueAt(i), 1));
+        }
+        this.candidate = new int[denominations.size()];
+        this.probe = new int[denominations.size()];
+        this.minCoins = new int[maxChange + 1];
+        this.itemDenomination = new int[maxItems];
+        this.itemMultiplier = new int[maxItems];
+        this.taken = new long[(maxItems * (maxChange + 1) + 63) / 64];
+    }
+
+    public synchronized int getCount(int coin) {
+        int index = denominations.indexOf(coin);
+        return index >= 0 ? counts[index] : 0;
+    }
+
+    public synchronized int[] getCounts() {
+        return counts.clone();
+    }
+
+    public synchronized int getTotal() {
+        return coinHandler.totalOfCounts(counts);
+    }
+
+    public synchronized void credit(int[] coinCounts) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += coinCounts[i];
+        }
+    }
+
+    public synchronized boolean canMakeChange(int amount) {
+        return findChange(amount, probe);
+    }
+
+    /**
+     * Credits the inserted coins and pays {@code changeAmount} out of the float,
+     * writing the coins used into {@code changeCounts}. When exact change cannot
+     * be made the float is left untouched and {@code false} is returned.
+     */
+    public synchronized boolean settle(int[] insertedCounts, int changeAmount, int[] changeCounts) {
+        credit(insertedCounts);
+        if (!findChange(changeAmount, changeCounts)) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] -= insertedCounts[i];
+            }
+            return false;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] -= changeCounts[i];
+        }
+        return true;
+    }
+
+    /**
+     * Undoes a successful {@link #settle}: takes the inserted coins back out
+     * and returns the change to the float.
+     */
+    public synchronized void unsettle(int[] insertedCounts, int[] changeCounts) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += changeCounts[i] - insertedCounts[i];
+        }
+    }
+
+    /**
+     * Fills {@code changeCounts} with the fewest coins available in the float
+     * that add up to {@code amount}, without removing them.
+     */
+    public synchronized boolean findChange(int amount, int[] changeCounts) {
+        Arrays.fill(changeCounts, 0);
+        if (amount <= 0) {
+            return amount == 0;
+        }
+
+        // The unlimited-supply answer is optimal whenever the float can cover it.
+        boolean covered = coinHandler.calculateChange(amount, candidate);
+        for (int i = 0; covered && i < counts.length; i++) {
+            covered = candidate[i] <= counts[i];
+        }
+        if (covered) {
+            System.arraycopy(candidate, 0, changeCounts, 0, changeCounts.length);
+            return true;
+        }
+
+        if (amount > maxChange) {
+            return false;
+        }
+        return solveBounded(amount, changeCounts);
+    }
+
+    // Bounded knapsack: each denomination's supply is split into 1, 2, 4, ... coin
+    // bundles so a 0/1 minimum-coins DP over the amounts stays exact.
+    private boolean solveBounded(int amount, int[] changeCounts) {
+        Arrays.fill(changeCounts, 0);
+        int items = 0;
+        for (int i = 0; i < denominations.size(); i++) {
+            int available = Math.min(counts[i], amount / denominations.valueAt(i));
+            for (int bundle = 1; available > 0; bundle <<= 1) {
+                int size = Math.min(bundle, available);
+                itemDenomination[items] = i;
+                itemMultiplier[items] = size;
+                items++;
+                available -= size;
+            }
+        }
+
+        int width = amount + 1;
+        Arrays.fill(minCoins, 0, width, Integer.MAX_VALUE);
+        Arrays.fill(taken, 0, (items * width + 63) / 64, 0L);
+        minCoins[0] = 0;
+
+        for (int item = 0; item < items; item++) {
+            int coins = itemMultiplier[item];
+            int value = coins * denominations.valueAt(itemDenomination[item]);
+            int row = item * width;
+            for (int a = amount; a >= value; a--) {
+                int previous = minCoins[a - value];
+                if (previous != Integer.MAX_VALUE && previous + coins < minCoins[a]) {
+                    minCoins[a] = previous + coins;
+                    int bit = row + a;
+                    taken[bit >>> 6] |= 1L << bit;
+                }
+            }
+        }
+
+        if (minCoins[amount] == Integer.MAX_VALUE) {
+            return false;
+        }
+
+        int remaining = amount;
+        for (int item = items - 1; item >= 0 && remaining > 0; item--) {
+            int bit = item * width + remaining;
+            if ((taken[bit >>> 6] & (1L << bit)) != 0) {
+                int index = itemDenomination[item];
+                changeCounts[index] += itemMultiplier[item];
+                remaining -= itemMultiplier[item] * denominations.valueAt(index);
+            }
+        }
+        return true;
+    }
+}
@@ -1,100 +1,222 @@
 package com.vendingmachine.service;
 
+import com.vendingmachine.events.EventBus;
+import com.vendingmachine.metrics.VendingMetrics;
 import com.vendingmachine.model.PaymentResult;
 import java.util.*;
 
 public class CoinHandler {
-    private static final List<Integer> ACCEPTED_COINS = Arrays.asList(
-        1,
-        2,
-        5,
-        10
-    );
+    public static final int INVALID_COINS = -1;
+    public static final int INSUFFICIENT_FUNDS = -2;
+    public static final int NO_EXACT_CHANGE = -3;
 
-    private final Set<Integer> acceptedCoinsSet;
+    private final Denominations denominations;
+    private volatile VendingMetrics metrics;
+    private volatile EventBus eventBus;
 
     public CoinHandler() {
-        this.acceptedCoinsSet = new HashSet<>(ACCEPTED_COINS);
+        this(Denominations.standard());
+    }
+
+    public CoinHandler(Denominations denominations) {
+        this.denominations = denominations;
     }
 
     public PaymentResult processPayment(List<Integer> coins, int price) {
+        long start = startTimer();
+        return record(start, price, checkPayment(coins, price));
+    }
+
+    // Works out the payment without counting or publishing it, for a caller
+    // that records the outcome once it is final.
+    PaymentResult checkPayment(List<Integer> coins, int price) {
         List<Integer> invalidCoins = findInvalidCoins(coins);
         if (!invalidCoins.isEmpty()) {
             return PaymentResult.invalidCoins(invalidCoins);
         }
 
-        int totalPaid = calculateTotal(coins);
+        int[] changeCounts = new int[denominations.size()];
+        int changeAmount = processPayment(toCounts(coins), price, changeCounts);
+        if (changeAmount == INSUFFICIENT_FUNDS) {
+            return PaymentResult.insufficientFunds(calculateTotal(coins), price);
+        }
+        if (changeAmount == NO_EXACT_CHANGE) {
+            int totalPaid = calculateTotal(coins);
+            return PaymentResult.noExactChange(totalPaid, totalPaid - price);
+        }
+
+        return PaymentResult.success(price + changeAmount, toCoins(changeCounts));
+    }
+
+    long startTimer() {
+        VendingMetrics metrics = this.metrics;
+        return metrics != null ? metrics.startTimer() : VendingMetrics.NOT_TIMED;
+    }
 
+    PaymentResult record(long start, int price, PaymentResult result) {
+        VendingMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.recordPayment(result.getOutcome(), start);
+        }
+        EventBus bus = eventBus;
+        if (bus != null) {
+            int totalPaid = result.getTotalPaid();
+            bus.publishPayment(result.getOutcome(), price, totalPaid, Math.max(totalPaid - price, 0));
+        }
+        return result;
+    }
+
+    /**
+     * Primitive payment path. Coin counts are indexed like {@link #getAcceptedCoins()}
+     * and {@code changeCounts} is overwritten with the change to return. Returns the
+     * change amount, or {@link #INVALID_COINS} / {@link #INSUFFICIENT_FUNDS} /
+     * {@link #NO_EXACT_CHANGE}. Allocates nothing.
+     */
+    public int processPayment(int[] coinCounts, int price, int[] changeCounts) {
+        int totalPaid = totalOfCounts(coinCounts);
+        if (totalPaid < 0) {
+            return INVALID_COINS;
+        }
         if (totalPaid < price) {
-            return PaymentResult.insufficientFunds(totalPaid, price);
+            return INSUFFICIENT_FUNDS;
         }
 
         int changeAmount = totalPaid - price;
-        List<Integer> change = calculateChange(changeAmount);
-
-        return PaymentResult.success(totalPaid, change);
+        if (!calculateChange(changeAmount, changeCounts)) {
+            return NO_EXACT_CHANGE;
+        }
+        return changeAmount;
     }
 
     public boolean validateCoins(List<Integer> coins) {
         if (coins == null || coins.isEmpty()) {
             return false;
         }
-        return coins.stream().allMatch(acceptedCoinsSet::contains);
+        for (Integer coin : coins) {
+            if (!isAccepted(coin)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isAccepted(Integer coin) {
+        return coin != null && denominations.accepts(coin);
     }
 
     private List<Integer> findInvalidCoins(List<Integer> coins) {
-        List<Integer> invalid = new ArrayList<>();
         if (coins == null) {
-            return invalid;
+            return Collections.emptyList();
         }
+        List<Integer> invalid = null;
         for (Integer coin : coins) {
-            if (coin == null || !acceptedCoinsSet.contains(coin)) {
+            if (!isAccepted(coin)) {
+                if (invalid == null) {
+                    invalid = new ArrayList<>();
+                }
                 invalid.add(coin);
             }
         }
-        return invalid;
+        return invalid != null ? invalid : Collections.emptyList();
     }
 
     public int calculateTotal(List<Integer> coins) {
         if (coins == null || coins.isEmpty()) {
             return 0;
         }
-        return coins.stream()
-                .filter(Objects::nonNull)
-                .mapToInt(Integer::intValue)
-                .sum();
+        int total = 0;
+        for (Integer coin : coins) {
+            if (coin != null) {
+                total += coin;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns the value of a coin count vector, or {@link #INVALID_COINS} when the
+     * vector does not match the accepted denominations or holds a negative count.
+     */
+    public int totalOfCounts(int[] coinCounts) {
+        if (coinCounts == null || coinCounts.length != denominations.size()) {
+            return INVALID_COINS;
+        }
+        int total = 0;
+        for (int i = 0; i < coinCounts.length; i++) {
+            if (coinCounts[i] < 0) {
+                return INVALID_COINS;
+            }
+            total += coinCounts[i] * denominations.valueAt(i);
+        }
+        return total;
     }
 
     public List<Integer> calculateChange(int amount) {
-        List<Integer> change = new ArrayList<>();
         if (amount <= 0) {
-            return change;
+            return new ArrayList<>();
         }
+        int[] changeCounts = new int[denominations.size()];
+        calculateChange(amount, changeCounts);
+        return toCoins(changeCounts);
+    }
 
-        List<Integer> sortedCoins = new ArrayList<>(ACCEPTED_COINS);
-        Collections.sort(sortedCoins, Collections.reverseOrder());
+    /**
+     * Fills {@code changeCounts} with the fewest-coins change for {@code amount},
+     * looked up from the table precomputed by {@link Denominations}. Returns
+     * {@code false} when the amount cannot be made from the accepted coins.
+     */
+    public boolean calculateChange(int amount, int[] changeCounts) {
+        return denominations.fillChange(amount, changeCounts);
+    }
 
-        int remaining = amount;
-        for (Integer coin : sortedCoins) {
-            while (remaining >= coin) {
-                change.add(coin);
-                remaining -= coin;
+    public int[] toCounts(List<Integer> coins) {
+        int[] counts = new int[denominations.size()];
+        if (coins == null) {
+            return counts;
+        }
+        for (Integer coin : coins) {
+            if (isAccepted(coin)) {
+                counts[denominations.indexOf(coin)]++;
             }
         }
+        return counts;
+    }
+
+    public List<Integer> toCoins(int[] coinCounts) {
+        List<Integer> coins = new ArrayList<>();
+        for (int i = denominations.size() - 1; i >= 0; i--) {
+            for (int n = 0; n < coinCounts[i]; n++) {
+                coins.add(denominations.valueAt(i));
+            }
+        }
+        return coins;
+    }
+
+    public void setMetrics(VendingMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setEventBus(EventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    public Denominations getDenominations() {
+        return denominations;
+    }
 
-        return change;
+    public int getDenominationCount() {
+        return denominations.size();
     }
 
     public List<Integer> getAcceptedCoins() {
-        return new ArrayList<>(ACCEPTED_COINS);
+        return new ArrayList<>(denominations.asList());
     }
 
     public String formatAcceptedCoins() {
         StringBuilder sb = new StringBuilder("Accepted coins: ");
-        for (int i = 0; i < ACCEPTED_COINS.size(); i++) {
+        for (int i = 0; i < denominations.size(); i++) {
             if (i > 0) sb.append(", ");
-            int coin = ACCEPTED_COINS.get(i);
-            sb.append("$").append(coin);
+            sb.append("$").append(denominations.valueAt(i));
         }
         return sb.toString();
     }
@@ -124,4 +246,4 @@ public class CoinHandler {
         }
         return sb.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,159 @@
+package com.vendingmachine.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable set of coin denominations. On construction it precomputes the
+ * fewest-coins change for every amount up to a ceiling, which keeps change
+ * correct for non-canonical sets where greedy selection is not optimal.
+ */
+public final class Denominations {
+    public static final int DEFAULT_CHANGE_CEILING = 1000;
+
+    private static final Denominations STANDARD = of(1, 2, 5, 10);
+    private static final int UNREACHABLE = -1;
+
+    private final int[] values;
+    private final int[] indexByValue;
+    private final int changeCeiling;
+    private final int[] changeTable;
+    private final List<Integer> valueList;
+
+    private Denominations(int[] values, int changeCeiling) {
+        this.values = values;
+        this.changeCeiling = changeCeiling;
+
+        this.indexByValue = new int[values[values.length - 1] + 1];
+        Arrays.fill(indexByValue, -1);
+        List<Integer> list = new ArrayList<>(values.length);
+        for (int i = 0; i < values.length; i++) {
+            indexByValue[values[i]] = i;
+            list.add(values[i]);
+        }
+        this.valueList = Collections.unmodifiableList(list);
+
+        this.changeTable = buildChangeTable(values, changeCeiling);
+    }
+
+    public static Denominations standard() {
+        return STANDARD;
+    }
+
+    public static Denominations of(int... values) {
+        return withChangeCeiling(DEFAULT_CHANGE_CEILING, values);
+    }
+
+    public static Denominations withChangeCeiling(int changeCeiling, int... values) {
+        if (values == null || values.length == 0) {
+            throw new IllegalArgumentException("At least one denomination is required");
+        }
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        if (changeCeiling < sorted[sorted.length - 1]) {
+            throw new IllegalArgumentException(
+                "Change ceiling must be at least the largest denomination: " + changeCeiling);
+        }
+        for (int i = 0; i < sorted.length; i++) {
+            if (sorted[i] <= 0) {
+                throw new IllegalArgumentException("Denominations must be positive: " + sorted[i]);
+            }
+            if (i > 0 && sorted[i] == sorted[i - 1]) {
+                throw new IllegalArgumentException("Duplicate denomination: " + sorted[i]);
+            }
+        }
+        return new Denominations(sorted, changeCeiling);
+    }
+
+    // Row a holds the per-denomination counts of the fewest-coins change for a,
+    // or UNREACHABLE in its first cell when a cannot be made at all.
+    private static int[] buildChangeTable(int[] values, int ceiling) {
+        int k = values.length;
+        int[] minCoins = new int[ceiling + 1];
+        int[] lastCoin = new int[ceiling + 1];
+        Arrays.fill(minCoins, Integer.MAX_VALUE);
+        minCoins[0] = 0;
+        for (int a = 1; a <= ceiling; a++) {
+            for (int i = k - 1; i >= 0; i--) {
+                int rest = a - values[i];
+                if (rest >= 0 && minCoins[rest] != Integer.MAX_VALUE && minCoins[rest] + 1 < minCoins[a]) {
+                    minCoins[a] = minCoins[rest] + 1;
+                    lastCoin[a] = i;
+                }
+            }
+        }
+
+        int[] table = new int[(ceiling + 1) * k];
+        for (int a = 1; a <= ceiling; a++) {
+            int row = a * k;
+            if (minCoins[a] == Integer.MAX_VALUE) {
+                table[row] = UNREACHABLE;
+                continue;
+            }
+            int rest = a - values[lastCoin[a]];
+            System.arraycopy(table, rest * k, table, row, k);
+            table[row + lastCoin[a]]++;
+        }
+        return table;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public int valueAt(int index) {
+        return values[index];
+    }
+
+    public int indexOf(int coin) {
+        return coin >= 0 && coin < indexByValue.length ? indexByValue[coin] : -1;
+    }
+
+    public boolean accepts(int coin) {
+        return indexOf(coin) >= 0;
+    }
+
+    public int getChangeCeiling() {
+        return changeCeiling;
+    }
+
+    public List<Integer> asList() {
+        return valueList;
+    }
+
+    /**
+     * Writes the fewest-coins change for {@code amount} into {@code changeCounts}.
+     * Up to the ceiling this is a table lookup; above it the largest coin is
+     * taken until the remainder fits the table. Returns {@code false} when the
+     * amount cannot be made from these denominations.
+     */
+    public boolean fillChange(int amount, int[] changeCounts) {
+        int k = values.length;
+        Arrays.fill(changeCounts, 0, k, 0);
+        if (amount <= 0) {
+            return amount == 0;
+        }
+
+        int largest = values[k - 1];
+        int extra = 0;
+        if (amount > changeCeiling) {
+            extra = (amount - changeCeiling + largest - 1) / largest;
+            amount -= extra * largest;
+        }
+
+        int row = amount * k;
+        if (changeTable[row] == UNREACHABLE) {
+            return false;
+        }
+        System.arraycopy(changeTable, row, changeCounts, 0, k);
+        changeCounts[k - 1] += extra;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return valueList.toString();
+    }
+}
@@ -0,0 +1,14 @@
+package com.vendingmachine.service;
+
+import com.vendingmachine.model.Item;
+
+/**
+ * The hardware that physically releases a sold item. Called once per sale,
+ * after payment and stock are settled; it may block while the motor runs.
+ */
+@FunctionalInterface
+public interface DispenseMechanism {
+    DispenseMechanism NONE = item -> { };
+
+    void release(Item item);
+}
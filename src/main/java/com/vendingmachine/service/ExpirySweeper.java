@@ -0,0 +1,60 @@
+package com.vendingmachine.service;
+
+import com.vendingmachine.events.EventBus;
+import com.vendingmachine.model.ExpiryClock;
+import com.vendingmachine.model.Item;
+import com.vendingmachine.model.Snack;
+
+import java.io.Closeable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically advances an {@link ExpiryClock} and withdraws every snack that
+ * has expired by the new day, so expired slots drop out of sale in one pass
+ * instead of being discovered one purchase at a time.
+ */
+public final class ExpirySweeper implements Closeable {
+    private final VendingMachine machine;
+    private final ExpiryClock clock;
+    private final ScheduledExecutorService executor;
+
+    public ExpirySweeper(VendingMachine machine, ExpiryClock clock, long intervalMillis) {
+        this.machine = machine;
+        this.clock = clock;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "expiry-sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::sweepNow, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the number of snacks withdrawn by this sweep.
+     */
+    public int sweepNow() {
+        return sweep(machine, clock.tick());
+    }
+
+    public static int sweep(VendingMachine machine, long epochDay) {
+        EventBus bus = machine.getEventBus();
+        int withdrawn = 0;
+        for (Item item : machine.getItems()) {
+            if (item instanceof Snack snack && !snack.isWithdrawn() && snack.isExpiredOn(epochDay)) {
+                snack.withdraw();
+                withdrawn++;
+                if (bus != null) {
+                    bus.publishExpiry(snack.getCode(), snack.getStockState(), epochDay);
+                }
+            }
+        }
+        return withdrawn;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,191 @@
+package com.vendingmachine.service;
+
+import com.vendingmachine.model.Item;
+import com.vendingmachine.model.Snack;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The rows and columns of slots in a machine. A slot code is a row letter
+ * followed by a column number counted from 1, such as {@code A1} or
+ * {@code C12}. It maps straight to a dense index, row by row, so finding a
+ * slot means reading a couple of characters, not hashing the code. A row can
+ * be reserved for snacks or drinks, and each slot has a capacity.
+ *
+ * <p>Instances are immutable; the {@code with...} methods return copies.
+ */
+public final class Planogram {
+    public static final int NO_SLOT = -1;
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private static final int MAX_COLUMNS = 999;
+
+    public enum RowType {
+        ANY, SNACKS, DRINKS;
+
+        public boolean accepts(Item item) {
+            return this == ANY || (this == SNACKS) == (item instanceof Snack);
+        }
+
+        String noun() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    // Snacks in S1-S3 and drinks in D1-D3, as the machine has always been laid out.
+    private static final Planogram STANDARD = of("SD", 3, UNLIMITED)
+            .withRowType('S', RowType.SNACKS)
+            .withRowType('D', RowType.DRINKS);
+
+    private final String labels;
+    private final int[] rowByLabel;
+    private final RowType[] rowTypes;
+    private final int columns;
+    private final int[] capacities;
+    private final String[] codes;
+
+    private Planogram(String labels, RowType[] rowTypes, int columns, int[] capacities) {
+        this.labels = labels;
+        this.rowTypes = rowTypes;
+        this.columns = columns;
+        this.capacities = capacities;
+        this.rowByLabel = new int[128];
+        Arrays.fill(rowByLabel, -1);
+        this.codes = new String[labels.length() * columns];
+        for (int row = 0; row < labels.length(); row++) {
+            rowByLabel[labels.charAt(row)] = row;
+            for (int column = 1; column <= columns; column++) {
+                codes[row * columns + column - 1] = labels.charAt(row) + Integer.toString(column);
+            }
+        }
+    }
+
+    public static Planogram standard() {
+        return STANDARD;
+    }
+
+    /**
+     * {@code rows} rows labelled from A, each with {@code columns} slots that
+     * take any item and hold up to {@code capacity} units.
+     */
+    public static Planogram grid(int rows, int columns, int capacity) {
+        if (rows < 1 || rows > 26) {
+            throw new IllegalArgumentException("Rows must be between 1 and 26: " + rows);
+        }
+        StringBuilder labels = new StringBuilder(rows);
+        for (int row = 0; row < rows; row++) {
+            labels.append((char) ('A' + row));
+        }
+        return of(labels.toString(), columns, capacity);
+    }
+
+    /**
+     * One row per character of {@code rowLabels}, which must be distinct
+     * letters, each with {@code columns} slots of {@code capacity} units.
+     */
+    public static Planogram of(String rowLabels, int columns, int capacity) {
+        if (rowLabels.isEmpty()) {
+            throw new IllegalArgumentException("A planogram needs at least one row");
+        }
+        for (int i = 0; i < rowLabels.length(); i++) {
+            char label = rowLabels.charAt(i);
+            if (label > 127 || !Character.isLetter(label) || rowLabels.indexOf(label) != i) {
+                throw new IllegalArgumentException("Row labels must be distinct letters: " + rowLabels);
+            }
+        }
+        if (columns < 1 || columns > MAX_COLUMNS) {
+            throw new IllegalArgumentException("Columns must be between 1 and " + MAX_COLUMNS + ": " + columns);
+        }
+        requirePositive(capacity);
+        RowType[] rowTypes = new RowType[rowLabels.length()];
+        Arrays.fill(rowTypes, RowType.ANY);
+        int[] capacities = new int[rowLabels.length() * columns];
+        Arrays.fill(capacities, capacity);
+        return new Planogram(rowLabels, rowTypes, columns, capacities);
+    }
+
+    public Planogram withRowType(char label, RowType type) {
+        int row = rowOf(label);
+        if (row < 0) {
+            throw new IllegalArgumentException("No row " + label);
+        }
+        RowType[] types = rowTypes.clone();
+        types[row] = type;
+        return new Planogram(labels, types, columns, capacities);
+    }
+
+    public Planogram withCapacity(String code, int capacity) {
+        int slot = slotOf(code);
+        if (slot == NO_SLOT) {
+            throw new IllegalArgumentException("No slot " + code);
+        }
+        requirePositive(capacity);
+        int[] copy = capacities.clone();
+        copy[slot] = capacity;
+        return new Planogram(labels, rowTypes, columns, copy);
+    }
+
+    private static void requirePositive(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+    }
+
+    /**
+     * Returns the slot index for {@code code}, or {@link #NO_SLOT} if the code
+     * names no slot in this layout.
+     */
+    public int slotOf(String code) {
+        int row = code != null && code.length() >= 2 && code.length() <= 4 ? rowOf(code.charAt(0)) : -1;
+        if (row < 0 || code.charAt(1) == '0') {
+            return NO_SLOT;
+        }
+        int column = 0;
+        for (int i = 1; i < code.length(); i++) {
+            int digit = code.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return NO_SLOT;
+            }
+            column = column * 10 + digit;
+        }
+        return column <= columns ? row * columns + column - 1 : NO_SLOT;
+    }
+
+    private int rowOf(char label) {
+        return label < rowByLabel.length ? rowByLabel[label] : -1;
+    }
+
+    /**
+     * The type of the row {@code code} starts with, or null if there is no
+     * such row; the code itself need not name a slot.
+     */
+    public RowType rowTypeOf(String code) {
+        int row = code != null && !code.isEmpty() ? rowOf(code.charAt(0)) : -1;
+        return row < 0 ? null : rowTypes[row];
+    }
+
+    public RowType rowTypeOf(int slot) {
+        return rowTypes[slot / columns];
+    }
+
+    public String codeOf(int slot) {
+        return codes[slot];
+    }
+
+    public int capacityOf(int slot) {
+        return capacities[slot];
+    }
+
+    public int getRows() {
+        return labels.length();
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int size() {
+        return codes.length;
+    }
+}
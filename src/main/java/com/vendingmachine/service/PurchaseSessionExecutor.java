@@ -0,0 +1,49 @@
+package com.vendingmachine.service;
+
+import com.vendingmachine.model.DispenseResult;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs purchase sessions against one machine. A session covers a customer's
+ * whole interaction, including blocking waits for coin input or a payment
+ * terminal, so with virtual threads every session gets its own cheap thread
+ * and thousands can wait at once without a sized pool.
+ */
+public class PurchaseSessionExecutor implements AutoCloseable {
+
+    @FunctionalInterface
+    public interface Session {
+        DispenseResult run(VendingMachine machine) throws Exception;
+    }
+
+    private final VendingMachine machine;
+    private final ExecutorService executor;
+
+    private PurchaseSessionExecutor(VendingMachine machine, ExecutorService executor) {
+        this.machine = machine;
+        this.executor = executor;
+    }
+
+    public static PurchaseSessionExecutor virtualThreads(VendingMachine machine) {
+        return new PurchaseSessionExecutor(machine, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    public static PurchaseSessionExecutor platformThreads(VendingMachine machine, int threads) {
+        return new PurchaseSessionExecutor(machine, Executors.newFixedThreadPool(threads));
+    }
+
+    public Future<DispenseResult> submit(Session session) {
+        return executor.submit(() -> session.run(machine));
+    }
+
+    /**
+     * Waits for every submitted session to finish.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
@@ -0,0 +1,69 @@
+package com.vendingmachine.service;
+
+import com.vendingmachine.model.Item;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A time-limited hold on one unit of an item, taken from a
+ * {@link ReservationManager}. The unit leaves stock when the hold is taken, so
+ * nobody else can buy it, and goes back if the hold is released or expires.
+ * A hold ends exactly once: consumed by a sale, released, or expired.
+ */
+public final class Reservation {
+    static final int HELD = 0;
+    static final int CONSUMED = 1;
+    static final int RELEASED = 2;
+    static final int EXPIRED = 3;
+
+    private static final AtomicIntegerFieldUpdater<Reservation> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(Reservation.class, "state");
+
+    private final String code;
+    private final Item item;
+    private final long stockState;
+    final long deadlineTick;
+
+    private volatile int state = HELD;
+
+    // Owned by the manager: the hand-off stack, then the wheel bucket list.
+    Reservation next;
+
+    Reservation(String code, Item item, long stockState, long deadlineTick) {
+        this.code = code;
+        this.item = item;
+        this.stockState = stockState;
+        this.deadlineTick = deadlineTick;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public Item getItem() {
+        return item;
+    }
+
+    // The stock word produced by taking this hold, journaled if it is sold.
+    long getStockState() {
+        return stockState;
+    }
+
+    public boolean isHeld() {
+        return state == HELD;
+    }
+
+    public boolean isExpired() {
+        return state == EXPIRED;
+    }
+
+    boolean end(int outcome) {
+        return STATE.compareAndSet(this, HELD, outcome);
+    }
+
+    @Override
+    public String toString() {
+        String[] states = {"held", "consumed", "released", "expired"};
+        return String.format("Reservation[%s, %s]", code, states[state]);
+    }
+}
@@ -0,0 +1,195 @@
+package com.vendingmachine.service;
+
+import com.vendingmachine.model.Item;
+
+import java.io.Closeable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands out {@link Reservation}s and reclaims the ones nobody used.
+ *
+ * <p>Expiry runs on a hashed timer wheel: a ring of buckets advanced one per
+ * tick, where each hold sits in the bucket of the tick it expires on. New holds
+ * are pushed onto a lock-free stack and moved into their bucket by the next
+ * tick, so taking a hold is one CAS and an allocation, and a tick only looks
+ * at the holds that are due. Consuming or releasing a hold just flips its
+ * state; the wheel drops it when its bucket comes round. Holds longer than the
+ * wheel stay in their bucket until the round they are due in.
+ *
+ * <p>Taking a hold and giving it back are journaled like a sale and a
+ * returned unit, so recovery never depends on whether a snapshot ran while
+ * a hold was open. Holds themselves are not durable: a unit held at a crash
+ * is recovered as taken, and counts again once the slot is restocked.
+ */
+public class ReservationManager implements Closeable {
+    static final int WHEEL_SIZE = 512;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private final VendingMachine machine;
+    private final long holdTicks;
+    private final ScheduledExecutorService timer;
+    private final AtomicReference<Reservation> incoming = new AtomicReference<>();
+
+    // Guarded by this
+    private final Reservation[] wheel = new Reservation[WHEEL_SIZE];
+
+    private volatile boolean closed;
+
+    private volatile long currentTick;
+
+    private ReservationManager(VendingMachine machine, long holdTicks, long tickMillis) {
+        if (holdTicks < 1) {
+            throw new IllegalArgumentException("Hold must last at least one tick: " + holdTicks);
+        }
+        this.machine = machine;
+        this.holdTicks = holdTicks;
+        if (tickMillis > 0) {
+            timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "reservation-timer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            timer.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        } else {
+            timer = null;
+        }
+    }
+
+    /**
+     * Holds last {@code holdMillis}, rounded up to whole ticks of
+     * {@code tickMillis}, and a daemon thread advances the wheel.
+     */
+    public static ReservationManager timed(VendingMachine machine, long holdMillis, long tickMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive: " + tickMillis);
+        }
+        return new ReservationManager(machine, (holdMillis + tickMillis - 1) / tickMillis, tickMillis);
+    }
+
+    /**
+     * Holds last {@code holdTicks} calls to {@link #tick()}, which the caller
+     * makes itself.
+     */
+    public static ReservationManager manual(VendingMachine machine, long holdTicks) {
+        return new ReservationManager(machine, holdTicks, 0);
+    }
+
+    /**
+     * Takes one unit of {@code code} out of stock and holds it. Returns null if
+     * the item does not exist, cannot be sold or is out of stock.
+     */
+    public Reservation reserve(String code) {
+        Item item = machine.getItem(code);
+        if (item != null && item.isRetired()) {
+            item = machine.awaitReplacement(code);
+        }
+        if (closed || item == null || !item.canDispense()) {
+            return null;
+        }
+        long stockState = item.decrementAndGetState();
+        if (stockState == Item.NO_STOCK) {
+            return item.isRetired() ? reserve(code) : null;
+        }
+
+        machine.logStock(code, stockState);
+
+        Reservation reservation = new Reservation(code, item, stockState, currentTick + holdTicks);
+        Reservation head;
+        do {
+            head = incoming.get();
+            reservation.next = head;
+        } while (!incoming.compareAndSet(head, reservation));
+        // A close that drained the stack before this push never sees the
+        // hold, so hand the unit back here. If the drain did see it, only
+        // one of the two releases wins.
+        if (closed) {
+            release(reservation);
+            return null;
+        }
+        return reservation;
+    }
+
+    /**
+     * Gives a held unit back to stock. Returns false if the hold had already
+     * ended.
+     */
+    public boolean release(Reservation reservation) {
+        if (!reservation.end(Reservation.RELEASED)) {
+            return false;
+        }
+        machine.returnStock(reservation.getCode(), reservation.getItem());
+        return true;
+    }
+
+    /**
+     * Advances the wheel by one tick and expires every hold due by then.
+     * Returns the number of holds expired.
+     */
+    public synchronized int tick() {
+        if (closed) {
+            return 0;
+        }
+        long now = currentTick + 1;
+        currentTick = now;
+        schedule(incoming.getAndSet(null), now);
+
+        int bucket = (int) (now & WHEEL_MASK);
+        Reservation reservation = wheel[bucket];
+        wheel[bucket] = null;
+        int expired = 0;
+        while (reservation != null) {
+            Reservation next = reservation.next;
+            if (reservation.isHeld()) {
+                if (reservation.deadlineTick > now) {
+                    reservation.next = wheel[bucket];
+                    wheel[bucket] = reservation;
+                } else if (reservation.end(Reservation.EXPIRED)) {
+                    machine.returnStock(reservation.getCode(), reservation.getItem());
+                    expired++;
+                }
+            }
+            reservation = next;
+        }
+        return expired;
+    }
+
+    private void schedule(Reservation reservation, long now) {
+        while (reservation != null) {
+            Reservation next = reservation.next;
+            if (reservation.isHeld()) {
+                int bucket = (int) (Math.max(reservation.deadlineTick, now) & WHEEL_MASK);
+                reservation.next = wheel[bucket];
+                wheel[bucket] = reservation;
+            }
+            reservation = next;
+        }
+    }
+
+    public long getHoldTicks() {
+        return holdTicks;
+    }
+
+    /**
+     * Stops the timer and returns every outstanding hold to stock.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (timer != null) {
+            timer.shutdown();
+        }
+        schedule(incoming.getAndSet(null), currentTick);
+        for (int bucket = 0; bucket < WHEEL_SIZE; bucket++) {
+            for (Reservation reservation = wheel[bucket]; reservation != null; reservation = reservation.next) {
+                release(reservation);
+            }
+            wheel[bucket] = null;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.vendingmachine.service;
+
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.model.Item;
+import com.vendingmachine.model.Product;
+import com.vendingmachine.model.ProductCatalog;
+import com.vendingmachine.model.Snack;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Stock, price and manufacture date changes for any number of slots, applied
+ * together by {@link VendingMachine#restock}. Anything not set for a slot is
+ * left as it is; setting a value twice keeps the last one.
+ */
+public final class RestockBatch {
+    private static final int UNCHANGED = -1;
+
+    private final Map<String, Line> lines = new LinkedHashMap<>();
+
+    public RestockBatch stock(String code, int stock) {
+        if (stock < 0) {
+            throw new IllegalArgumentException("Stock cannot be negative: " + stock);
+        }
+        line(code).stock = stock;
+        return this;
+    }
+
+    public RestockBatch price(String code, int price) {
+        if (price <= 0) {
+            throw new IllegalArgumentException("Price must be positive: " + price);
+        }
+        line(code).price = price;
+        return this;
+    }
+
+    public RestockBatch manufactureDate(String code, LocalDate manufactureDate) {
+        line(code).manufactureDate = manufactureDate;
+        return this;
+    }
+
+    private Line line(String code) {
+        return lines.computeIfAbsent(code, Line::new);
+    }
+
+    public int size() {
+        return lines.size();
+    }
+
+    public boolean isEmpty() {
+        return lines.isEmpty();
+    }
+
+    Collection<Line> lines() {
+        return lines.values();
+    }
+
+    static final class Line {
+        final String code;
+        int stock = UNCHANGED;
+        int price = UNCHANGED;
+        LocalDate manufactureDate;
+
+        private Line(String code) {
+            this.code = code;
+        }
+
+        // Negative when the stock is to stay as it is, as Item.replace expects.
+        int stock() {
+            return stock;
+        }
+
+        Product productFor(Item item) throws VendingMachineException {
+            if (price == UNCHANGED && manufactureDate == null) {
+                return item.getProduct();
+            }
+            int newPrice = price != UNCHANGED ? price : item.getPrice();
+            return switch (item) {
+                case Snack snack -> ProductCatalog.shared().internSnack(snack.getDescription(), newPrice,
+                        manufactureDate != null ? manufactureDate : snack.getManufactureDate(),
+                        snack.getShelfLifeDays());
+                case Drink drink -> {
+                    if (manufactureDate != null) {
+                        throw new VendingMachineException(code + " is a drink and has no manufacture date");
+                    }
+                    yield ProductCatalog.shared().internDrink(drink.getDescription(), newPrice,
+                            drink.getVolumeMl(), drink.getMinVolumeThreshold());
+                }
+            };
+        }
+    }
+}
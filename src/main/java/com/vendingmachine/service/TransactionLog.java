@@ -0,0 +1,18 @@
+package com.vendingmachine.service;
+
+import java.time.LocalDate;
+
+public interface TransactionLog {
+
+    void recordStock(String code, int stock, int version);
+
+    void recordSale(String code, int stock, int version, int price, int totalPaid, int changeAmount);
+
+    /**
+     * A slot replaced by a restock batch that changed its price or
+     * manufacture date; {@code manufactureDate} is null for drinks. Sinks
+     * that only follow stock levels can ignore it.
+     */
+    default void recordProduct(String code, int stock, int version, int price, LocalDate manufactureDate) {
+    }
+}
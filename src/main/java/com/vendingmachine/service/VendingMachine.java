@@ -1,72 +1,263 @@
 package com.vendingmachine.service;
 
+import com.vendingmachine.analytics.SalesAnalytics;
+import com.vendingmachine.events.EventBus;
+import com.vendingmachine.metrics.VendingMetrics;
 import com.vendingmachine.model.Item;
 import com.vendingmachine.model.Snack;
 import com.vendingmachine.model.Drink;
 import com.vendingmachine.model.DispenseResult;
+import com.vendingmachine.model.OrderResult;
 import com.vendingmachine.model.PaymentResult;
+import com.vendingmachine.model.Product;
 import com.vendingmachine.exception.VendingMachineException;
 import com.vendingmachine.exception.ItemNotFoundException;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.Closeable;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
-public class VendingMachine {
-    private Map<String, Item> inventory;
+public class VendingMachine implements Closeable {
+    private final Planogram planogram;
+    // Replaced as a whole on every change; read it once per operation.
+    private volatile Layout layout;
     private CoinHandler coinHandler;
-    private static final int MAX_SNACKS = 3;
-    private static final int MAX_DRINKS = 3;
-    private int snackCount = 0;
-    private int drinkCount = 0;
+    private CoinFloat coinFloat;
+    private volatile TransactionLog transactionLog;
+    private volatile DispenseMechanism dispenseMechanism = DispenseMechanism.NONE;
+    private volatile Executor dispenseExecutor;
+    // The default dispense executor, if this machine started it; guarded by this.
+    private ExecutorService ownedExecutor;
+    private volatile VendingMetrics metrics;
+    private volatile SalesAnalytics salesAnalytics;
+    private volatile EventBus eventBus;
+    private volatile int snackCount = 0;
+    private volatile int drinkCount = 0;
+    private volatile long layoutVersion = 0;
 
     public VendingMachine() {
-        this.inventory = new HashMap<>();
-        this.coinHandler = new CoinHandler();
+        this(Planogram.standard());
     }
 
-    public void addItem(Item item) throws VendingMachineException {
-        validateInventoryLimit(item);
-        inventory.put(item.getCode(), item);
-        System.out.println("Added: " + item.toString());
+    public VendingMachine(Planogram planogram) {
+        this(planogram, new CoinHandler(), null);
     }
 
-    private void validateInventoryLimit(Item item) throws VendingMachineException {
-        if (item instanceof Snack) {
-            if (snackCount >= MAX_SNACKS) {
-                throw new VendingMachineException(
-                    "Cannot add more than " + MAX_SNACKS + " different snacks");
+    public VendingMachine(CoinHandler coinHandler, CoinFloat coinFloat) {
+        this(Planogram.standard(), coinHandler, coinFloat);
+    }
+
+    public VendingMachine(Planogram planogram, CoinHandler coinHandler, CoinFloat coinFloat) {
+        this.planogram = planogram;
+        this.layout = Layout.of(new Item[planogram.size()]);
+        this.coinHandler = coinHandler;
+        this.coinFloat = coinFloat;
+    }
+
+    public synchronized void addItem(Item item) throws VendingMachineException {
+        int slot = slotFor(item);
+        Item[] slots = layout.slots().clone();
+        Item replaced = slots[slot];
+        countItem(item, replaced);
+        slots[slot] = item;
+        layout = Layout.of(slots);
+        layoutChanged(replaced);
+        restocked(item.getCode(), item.getStockState());
+    }
+
+    public synchronized void restockItem(String code, int stock) throws VendingMachineException {
+        Item item = findItem(code);
+        if (stock < 0) {
+            throw new VendingMachineException("Stock cannot be negative: " + stock);
+        }
+        int capacity = planogram.capacityOf(planogram.slotOf(code));
+        if (stock > capacity) {
+            throw new VendingMachineException(String.format("Slot %s holds at most %d", code, capacity));
+        }
+        restocked(code, item.setStockAndGetState(stock));
+    }
+
+    /**
+     * Applies every change in {@code batch} at once. Each changed slot is
+     * replaced by a new one and the new layout is published in a single
+     * write, so a concurrent sale or inventory read sees either none of the
+     * batch or all of it. A sale that reaches a replaced slot waits for the
+     * batch to finish and runs again against the new one. A unit that was
+     * held or mid-sale when its slot was replaced, and is then handed back,
+     * goes to the new slot unless the batch set that slot's stock.
+     *
+     * <p>Nothing is changed if any code is unknown or any change does not
+     * apply to its slot.
+     */
+    public synchronized void restock(RestockBatch batch) throws VendingMachineException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Item[] slots = layout.slots().clone();
+        int size = batch.size();
+        RestockBatch.Line[] lines = batch.lines().toArray(new RestockBatch.Line[size]);
+        int[] slotIndexes = new int[size];
+        Product[] products = new Product[size];
+        for (int i = 0; i < size; i++) {
+            String code = lines[i].code;
+            int slot = planogram.slotOf(code);
+            if (slot == Planogram.NO_SLOT || slots[slot] == null) {
+                throw new ItemNotFoundException(code);
             }
-            snackCount++;
-        } else if (item instanceof Drink) {
-            if (drinkCount >= MAX_DRINKS) {
+            if (lines[i].stock() > planogram.capacityOf(slot)) {
                 throw new VendingMachineException(
-                    "Cannot add more than " + MAX_DRINKS + " different drinks");
+                    String.format("Slot %s holds at most %d", code, planogram.capacityOf(slot)));
+            }
+            slotIndexes[i] = slot;
+            products[i] = lines[i].productFor(slots[slot]);
+        }
+
+        Item[] replaced = new Item[size];
+        for (int i = 0; i < size; i++) {
+            int slot = slotIndexes[i];
+            replaced[i] = slots[slot];
+            slots[slot] = slots[slot].replace(products[i], lines[i].stock());
+        }
+        // Journaled before the new layout is visible, so no sale from a
+        // replacement can reach the journal ahead of its product.
+        TransactionLog log = transactionLog;
+        if (log != null) {
+            for (int i = 0; i < size; i++) {
+                if (products[i] != replaced[i].getProduct()) {
+                    logProduct(log, lines[i].code, slots[slotIndexes[i]]);
+                }
+            }
+        }
+        layout = Layout.of(slots);
+        for (Item item : replaced) {
+            layoutChanged(item);
+        }
+
+        for (int i = 0; i < size; i++) {
+            long stockState = slots[slotIndexes[i]].getStockState();
+            if (products[i] != replaced[i].getProduct()) {
+                publishRestock(lines[i].code, stockState);
+            } else {
+                restocked(lines[i].code, stockState);
             }
-            drinkCount++;
         }
     }
 
-    public void displayInventory() {
-        System.out.println("\n=== VENDING MACHINE INVENTORY ===");
-        System.out.println("Code | Item | Price | Stock | Details");
-        System.out.println("-".repeat(50));
+    // Takes over the last revision of a slot leaving the layout, so dropping
+    // it from the sum cannot bring the inventory version back to a value it
+    // has already had. Called with the lock held.
+    private void layoutChanged(Item replaced) {
+        layoutVersion += 1 + (replaced != null ? replaced.getRevision() : 0);
+    }
+
+    // restock(RestockBatch) retires slots and publishes their replacements
+    // while holding the lock, so once it is free the replacement is in place.
+    synchronized Item awaitReplacement(String code) {
+        return getItem(code);
+    }
 
-        for (Item item : inventory.values()) {
-            String status = item.canDispense() ? "✓" : "✗";
-            System.out.printf("%s %s | %s | $%d | %d | %s\n",
-                status,
-                item.getCode(),
-                item.getDescription(),
-                item.getPrice(),
-                item.getStock(),
-                item.getItemDetails()
-            );
+    private void restocked(String code, long stockState) {
+        logStock(code, stockState);
+        publishRestock(code, stockState);
+    }
+
+    private void publishRestock(String code, long stockState) {
+        EventBus bus = eventBus;
+        if (bus != null) {
+            bus.publishRestock(code, stockState);
+        }
+    }
+
+    void logStock(String code, long stockState) {
+        TransactionLog log = transactionLog;
+        if (log != null && stockState != Item.NO_STOCK) {
+            log.recordStock(code, Item.stockOf(stockState), Item.versionOf(stockState));
+        }
+    }
+
+    private static void logProduct(TransactionLog log, String code, Item item) {
+        long stockState = item.getStockState();
+        LocalDate manufactureDate = item instanceof Snack snack ? snack.getManufactureDate() : null;
+        log.recordProduct(code, Item.stockOf(stockState), Item.versionOf(stockState), item.getPrice(),
+            manufactureDate);
+    }
+
+    private int slotFor(Item item) throws VendingMachineException {
+        String code = item.getCode();
+        int slot = planogram.slotOf(code);
+        Planogram.RowType rowType = planogram.rowTypeOf(code);
+        if (slot == Planogram.NO_SLOT) {
+            // A code past the end of a snack or drink row asks for more of that
+            // kind than the machine has room for.
+            if (rowType != null && rowType != Planogram.RowType.ANY && rowType.accepts(item)) {
+                throw new VendingMachineException(String.format(
+                    "Cannot add more than %d different %s", planogram.getColumns(), rowType.noun()));
+            }
+            throw new VendingMachineException("No slot " + code + " in this machine");
+        }
+        if (!rowType.accepts(item)) {
+            throw new VendingMachineException(String.format("Slot %s holds only %s", code, rowType.noun()));
+        }
+        if (item.getStock() > planogram.capacityOf(slot)) {
+            throw new VendingMachineException(
+                String.format("Slot %s holds at most %d", code, planogram.capacityOf(slot)));
+        }
+        return slot;
+    }
+
+    private void countItem(Item item, Item replaced) {
+        switch (item) {
+            case Snack snack -> snackCount++;
+            case Drink drink -> drinkCount++;
+        }
+        switch (replaced) {
+            case null -> { }
+            case Snack snack -> snackCount--;
+            case Drink drink -> drinkCount--;
         }
-        System.out.println("-".repeat(50));
     }
 
     public Item getItem(String code) {
-        return inventory.get(code);
+        int slot = planogram.slotOf(code);
+        return slot != Planogram.NO_SLOT ? layout.slots()[slot] : null;
+    }
+
+    /**
+     * Every stocked slot, in planogram order.
+     */
+    public Collection<Item> getItems() {
+        return layout.items();
+    }
+
+    public Planogram getPlanogram() {
+        return planogram;
+    }
+
+    /**
+     * Sum of every slot's revision plus a layout count that grows by one, and
+     * by the last revision of any slot taken out, on each slot change. The
+     * total only moves forward, so any change to what the inventory shows
+     * produces a different value. Reads one word per slot and adds no writes
+     * to a sale.
+     */
+    public long getInventoryVersion() {
+        long version = layoutVersion;
+        for (Item item : layout.items()) {
+            version += item.getRevision();
+        }
+        return version;
+    }
+
+    public boolean hasChangedSince(long inventoryVersion) {
+        return getInventoryVersion() != inventoryVersion;
     }
 
     public int getSnackCount() {
@@ -78,40 +269,494 @@ public class VendingMachine {
     }
 
     public DispenseResult dispenseItem(String code, List<Integer> coins) {
-        try {
-            Item item = findItem(code);
+        VendingMetrics metrics = this.metrics;
+        long start = metrics != null ? metrics.startTimer() : VendingMetrics.NOT_TIMED;
+        Sale sale = sell(code, coins);
+        return record(metrics, start, sale.failure() != null ? failed(code, sale.failure()) : complete(sale));
+    }
 
-            if (!item.isInStock()) {
-                return DispenseResult.outOfStock(item);
-            }
+    private static DispenseResult record(VendingMetrics metrics, long start, DispenseResult result) {
+        if (metrics != null) {
+            metrics.recordDispense(result.getOutcome(), start);
+        }
+        return result;
+    }
+
+    /**
+     * Validates the purchase, takes payment and claims stock on the calling
+     * thread, then releases the item and journals the sale on the dispense
+     * executor. The caller can start on the next customer as soon as this
+     * returns; the future completes once the item is out. Rejected purchases
+     * come back as already-completed futures. A sale is counted in the
+     * metrics when its future completes.
+     */
+    public CompletableFuture<DispenseResult> dispenseItemAsync(String code, List<Integer> coins) {
+        VendingMetrics metrics = this.metrics;
+        long start = metrics != null ? metrics.startTimer() : VendingMetrics.NOT_TIMED;
+        Sale sale = sell(code, coins);
+        if (sale.failure() != null) {
+            return CompletableFuture.completedFuture(record(metrics, start, failed(code, sale.failure())));
+        }
+        return CompletableFuture.supplyAsync(() -> record(metrics, start, complete(sale)), dispenseExecutor());
+    }
 
+    /**
+     * Sells several items for one payment. Every line is checked and priced
+     * first, then stock for all lines is claimed. If any claim fails, or the coin
+     * float cannot pay the change, every claim is handed back and nothing is
+     * sold. Change is computed once for the whole order, and the order counts
+     * as one dispense in the metrics however many items it holds.
+     */
+    public OrderResult dispenseOrder(Map<String, Integer> quantities, List<Integer> coins) {
+        VendingMetrics metrics = this.metrics;
+        long start = metrics != null ? metrics.startTimer() : VendingMetrics.NOT_TIMED;
+        OrderResult result = sellOrder(quantities, coins);
+        if (metrics != null) {
+            metrics.recordDispense(dispenseOutcome(result.getOutcome()), start);
+        }
+        return result;
+    }
+
+    private static DispenseResult.Outcome dispenseOutcome(OrderResult.Outcome outcome) {
+        return switch (outcome) {
+            case SUCCESS -> DispenseResult.Outcome.SUCCESS;
+            case ITEM_NOT_FOUND -> DispenseResult.Outcome.ITEM_NOT_FOUND;
+            case OUT_OF_STOCK, INSUFFICIENT_STOCK -> DispenseResult.Outcome.OUT_OF_STOCK;
+            case PAYMENT_FAILED -> DispenseResult.Outcome.PAYMENT_FAILED;
+            case EMPTY_ORDER, INVALID_QUANTITY, TOTAL_TOO_LARGE, NOT_AVAILABLE ->
+                DispenseResult.Outcome.NOT_AVAILABLE;
+        };
+    }
+
+    private OrderResult sellOrder(Map<String, Integer> quantities, List<Integer> coins) {
+        if (quantities == null || quantities.isEmpty()) {
+            return OrderResult.emptyOrder();
+        }
+
+        int lines = quantities.size();
+        String[] codes = new String[lines];
+        Item[] items = new Item[lines];
+        int[] counts = new int[lines];
+        long total = 0;
+        int line = 0;
+        for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+            String code = entry.getKey();
+            int quantity = entry.getValue() != null ? entry.getValue() : 0;
+            if (quantity <= 0) {
+                return OrderResult.invalidQuantity(code, quantity);
+            }
+            Item item = getItem(code);
+            if (item == null) {
+                return OrderResult.itemNotFound(code);
+            }
+            if ((!item.canDispense() || item.getStock() < quantity) && item.isRetired()) {
+                awaitReplacement(code);
+                return sellOrder(quantities, coins);
+            }
             if (!item.canDispense()) {
-                return DispenseResult.cannotDispense(item);
+                return item.isInStock() ? OrderResult.cannotDispense(item) : OrderResult.outOfStock(item);
+            }
+            if (item.getStock() < quantity) {
+                return OrderResult.insufficientStock(item, quantity);
+            }
+            total += (long) item.getPrice() * quantity;
+            if (total > Integer.MAX_VALUE) {
+                return OrderResult.totalTooLarge();
+            }
+            codes[line] = code;
+            items[line] = item;
+            counts[line] = quantity;
+            line++;
+        }
+
+        int totalPrice = (int) total;
+        long paymentStart = coinHandler.startTimer();
+        PaymentResult paymentResult = coinHandler.checkPayment(coins, totalPrice);
+        if (!paymentResult.isSuccess()) {
+            return OrderResult.paymentFailed(coinHandler.record(paymentStart, totalPrice, paymentResult));
+        }
+
+        long[] stockStates = new long[lines];
+        for (line = 0; line < lines; line++) {
+            stockStates[line] = items[line].decrementAndGetState(counts[line]);
+            if (stockStates[line] == Item.NO_STOCK) {
+                releaseClaims(codes, items, counts, line);
+                if (items[line].isRetired()) {
+                    awaitReplacement(codes[line]);
+                    return sellOrder(quantities, coins);
+                }
+                return OrderResult.insufficientStock(items[line], counts[line]);
+            }
+        }
+
+        int changeAmount = paymentResult.getTotalPaid() - totalPrice;
+        List<Integer> change = paymentResult.getChange();
+        if (coinFloat != null) {
+            int[] changeCounts = new int[coinHandler.getDenominationCount()];
+            if (!coinFloat.settle(coinHandler.toCounts(coins), changeAmount, changeCounts)) {
+                releaseClaims(codes, items, counts, lines);
+                return OrderResult.paymentFailed(coinHandler.record(paymentStart, totalPrice,
+                    PaymentResult.noExactChange(paymentResult.getTotalPaid(), changeAmount)));
+            }
+            change = coinHandler.toCoins(changeCounts);
+        }
+        coinHandler.record(paymentStart, totalPrice, paymentResult);
+
+        DispenseMechanism mechanism = dispenseMechanism;
+        TransactionLog log = transactionLog;
+        SalesAnalytics analytics = salesAnalytics;
+        EventBus bus = eventBus;
+        for (line = 0; line < lines; line++) {
+            for (int unit = 0; unit < counts[line]; unit++) {
+                mechanism.release(items[line]);
+            }
+            if (log != null) {
+                // Payment and change are split across the lines so they sum to the order's.
+                int lineTotal = items[line].getPrice() * counts[line];
+                int lineChange = line == lines - 1 ? changeAmount : 0;
+                log.recordSale(codes[line], Item.stockOf(stockStates[line]), Item.versionOf(stockStates[line]),
+                    lineTotal, lineTotal + lineChange, lineChange);
+            }
+            if (analytics != null) {
+                boolean last = line == lines - 1;
+                analytics.recordSale(codes[line], counts[line], items[line].getPrice() * counts[line],
+                    last ? coins : List.of(), last ? change : List.of());
+            }
+            if (bus != null) {
+                int lineTotal = items[line].getPrice() * counts[line];
+                int lineChange = line == lines - 1 ? changeAmount : 0;
+                bus.publishDispense(codes[line], DispenseResult.Outcome.SUCCESS, counts[line],
+                    items[line].getPrice(), lineTotal + lineChange, lineChange, stockStates[line]);
+            }
+        }
+
+        return OrderResult.success(quantities, totalPrice, change);
+    }
+
+    /**
+     * Sells the unit held by {@code reservation}. The unit left stock when the
+     * hold was taken, so this only takes payment and consumes the hold. If the
+     * payment is refused, including when the float cannot make the change, the
+     * hold stays in place for another attempt; a hold that has already expired
+     * or been released is refused.
+     */
+    public DispenseResult dispenseReserved(Reservation reservation, List<Integer> coins) {
+        VendingMetrics metrics = this.metrics;
+        long start = metrics != null ? metrics.startTimer() : VendingMetrics.NOT_TIMED;
+        String code = reservation.getCode();
+        Item item = reservation.getItem();
+        long paymentStart = coinHandler.startTimer();
+        PaymentResult paymentResult = coinHandler.checkPayment(coins, item.getPrice());
+        if (!paymentResult.isSuccess()) {
+            coinHandler.record(paymentStart, item.getPrice(), paymentResult);
+            return record(metrics, start, failed(code, DispenseResult.paymentFailed(paymentResult)));
+        }
+        int changeAmount = paymentResult.getTotalPaid() - item.getPrice();
+        List<Integer> change = paymentResult.getChange();
+        CoinFloat coinFloat = this.coinFloat;
+        if (coinFloat != null) {
+            int[] insertedCounts = coinHandler.toCounts(coins);
+            int[] changeCounts = new int[coinHandler.getDenominationCount()];
+            // The float's lock is held until the hold is consumed, so change paid
+            // for a hold that turns out to have ended goes back before any other
+            // sale can count on those coins.
+            synchronized (coinFloat) {
+                if (!coinFloat.settle(insertedCounts, changeAmount, changeCounts)) {
+                    PaymentResult refused = PaymentResult.noExactChange(paymentResult.getTotalPaid(), changeAmount);
+                    coinHandler.record(paymentStart, item.getPrice(), refused);
+                    return record(metrics, start, failed(code, DispenseResult.paymentFailed(refused)));
+                }
+                if (!reservation.end(Reservation.CONSUMED)) {
+                    coinFloat.unsettle(insertedCounts, changeCounts);
+                    return record(metrics, start, failed(code, DispenseResult.reservationEnded(item)));
+                }
+            }
+            change = coinHandler.toCoins(changeCounts);
+        } else if (!reservation.end(Reservation.CONSUMED)) {
+            return record(metrics, start, failed(code, DispenseResult.reservationEnded(item)));
+        }
+        coinHandler.record(paymentStart, item.getPrice(), paymentResult);
+        return record(metrics, start, complete(new Sale(null, code, item, reservation.getStockState(),
+            paymentResult.getTotalPaid(), changeAmount, coins, change)));
+    }
+
+    void returnStock(String code, Item item) {
+        returnStock(code, item, 1);
+    }
+
+    // Units claimed from a slot that a restock batch has since replaced go to
+    // the replacement if the batch carried the slot's stock over, since its
+    // count left them out. If the batch set the stock, that count stands.
+    private void returnStock(String code, Item item, int quantity) {
+        long stockState = item.incrementAndGetState(quantity);
+        while (stockState == Item.NO_STOCK && item.isStockCarriedOver()) {
+            item = awaitReplacement(code);
+            stockState = item.incrementAndGetState(quantity);
+        }
+        logStock(code, stockState);
+    }
+
+    private void releaseClaims(String[] codes, Item[] items, int[] counts, int claimed) {
+        for (int line = 0; line < claimed; line++) {
+            returnStock(codes[line], items[line], counts[line]);
+        }
+    }
+
+    // Every rejection is returned, never thrown, so a flood of bad requests
+    // costs no more than the sales they displace.
+    private Sale sell(String code, List<Integer> coins) {
+        Item item = getItem(code);
+        if (item == null) {
+            return Sale.failed(DispenseResult.itemNotFound(code));
+        }
+
+        if (!item.isInStock()) {
+            if (item.isRetired()) {
+                return sellReplacement(code, coins);
             }
+            return Sale.failed(DispenseResult.outOfStock(item));
+        }
+
+        if (!item.canDispense()) {
+            if (item.isRetired()) {
+                return sellReplacement(code, coins);
+            }
+            return Sale.failed(item.isInStock()
+                ? DispenseResult.cannotDispense(item)
+                : DispenseResult.outOfStock(item));
+        }
+
+        // The payment is counted once the sale is settled or refused, so a
+        // retry on the replacement slot does not count it twice.
+        long paymentStart = coinHandler.startTimer();
+        PaymentResult paymentResult = coinHandler.checkPayment(coins, item.getPrice());
+        if (!paymentResult.isSuccess()) {
+            coinHandler.record(paymentStart, item.getPrice(), paymentResult);
+            return Sale.failed(DispenseResult.paymentFailed(paymentResult));
+        }
+
+        long stockState = item.decrementAndGetState();
+        if (stockState == Item.NO_STOCK) {
+            if (item.isRetired()) {
+                return sellReplacement(code, coins);
+            }
+            return Sale.failed(DispenseResult.outOfStock(item));
+        }
+
+        return settle(code, item, stockState, paymentResult, coins, paymentStart);
+    }
+
+    // The slot was replaced by a restock batch after it was looked up.
+    private Sale sellReplacement(String code, List<Integer> coins) {
+        awaitReplacement(code);
+        return sell(code, coins);
+    }
+
+    // Pays change for a unit already claimed, handing the unit back if the
+    // float cannot make the change, and records how the payment ended.
+    private Sale settle(String code, Item item, long stockState, PaymentResult paymentResult,
+                        List<Integer> coins, long paymentStart) {
+        int changeAmount = paymentResult.getTotalPaid() - item.getPrice();
+        List<Integer> change = paymentResult.getChange();
+        if (coinFloat != null) {
+            int[] changeCounts = new int[coinHandler.getDenominationCount()];
+            if (!coinFloat.settle(coinHandler.toCounts(coins), changeAmount, changeCounts)) {
+                returnStock(code, item);
+                PaymentResult refused = PaymentResult.noExactChange(paymentResult.getTotalPaid(), changeAmount);
+                coinHandler.record(paymentStart, item.getPrice(), refused);
+                return Sale.failed(DispenseResult.paymentFailed(refused));
+            }
+            change = coinHandler.toCoins(changeCounts);
+        }
+        coinHandler.record(paymentStart, item.getPrice(), paymentResult);
+        return new Sale(null, code, item, stockState, paymentResult.getTotalPaid(), changeAmount, coins, change);
+    }
+
+    // Journal records carry the stock version they produced, so writing them
+    // after the fact, off the caller's thread, does not affect recovery.
+    private DispenseResult complete(Sale sale) {
+        Item item = sale.item();
+        dispenseMechanism.release(item);
+
+        TransactionLog log = transactionLog;
+        if (log != null) {
+            log.recordSale(sale.code(), Item.stockOf(sale.stockState()), Item.versionOf(sale.stockState()),
+                item.getPrice(), sale.totalPaid(), sale.changeAmount());
+        }
+
+        SalesAnalytics analytics = salesAnalytics;
+        if (analytics != null) {
+            analytics.recordSale(sale.code(), item.getPrice(), sale.coins(), sale.change());
+        }
+
+        EventBus bus = eventBus;
+        if (bus != null) {
+            bus.publishDispense(sale.code(), DispenseResult.Outcome.SUCCESS, 1, item.getPrice(),
+                sale.totalPaid(), sale.changeAmount(), sale.stockState());
+        }
+
+        return DispenseResult.success(item, sale.change());
+    }
 
+    private DispenseResult failed(String code, DispenseResult failure) {
+        EventBus bus = eventBus;
+        if (bus != null) {
+            Item item = failure.getItem();
+            bus.publishDispense(code, failure.getOutcome(), 1, item != null ? item.getPrice() : 0,
+                0, 0, Item.NO_STOCK);
+        }
+        return failure;
+    }
 
-            PaymentResult paymentResult = coinHandler.processPayment(coins, item.getPrice());
-            if (!paymentResult.isSuccess()) {
-                return DispenseResult.paymentFailed(paymentResult.getMessage());
+    private Executor dispenseExecutor() {
+        Executor executor = dispenseExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = dispenseExecutor;
+                if (executor == null) {
+                    ownedExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "dispense-worker");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    executor = ownedExecutor;
+                    dispenseExecutor = executor;
+                }
             }
+        }
+        return executor;
+    }
+
+    // Slots indexed as in the planogram, null where empty, and the stocked
+    // ones in the same order for iteration.
+    private record Layout(Item[] slots, List<Item> items) {
 
-            item.decrementStock();
+        static Layout of(Item[] slots) {
+            List<Item> items = new ArrayList<>(slots.length);
+            for (Item item : slots) {
+                if (item != null) {
+                    items.add(item);
+                }
+            }
+            return new Layout(slots, Collections.unmodifiableList(items));
+        }
+    }
 
-            return DispenseResult.success(item, paymentResult.getChange());
+    private record Sale(DispenseResult failure, String code, Item item, long stockState,
+                        int totalPaid, int changeAmount, List<Integer> coins, List<Integer> change) {
 
-        } catch (ItemNotFoundException e) {
-            return DispenseResult.itemNotFound(code);
+        static Sale failed(DispenseResult failure) {
+            return new Sale(failure, null, null, 0L, 0, 0, null, null);
         }
     }
 
     private Item findItem(String code) throws ItemNotFoundException {
-        Item item = inventory.get(code);
+        Item item = getItem(code);
         if (item == null) {
             throw new ItemNotFoundException(code);
         }
         return item;
     }
 
+    public void setTransactionLog(TransactionLog transactionLog) {
+        this.transactionLog = transactionLog;
+    }
+
+    public void setDispenseMechanism(DispenseMechanism dispenseMechanism) {
+        this.dispenseMechanism = dispenseMechanism;
+    }
+
+    /**
+     * Sets where {@link #dispenseItemAsync} releases items and journals sales.
+     * Defaults to a single daemon thread, which keeps releases in sale order.
+     * The machine never shuts down an executor set here.
+     */
+    public synchronized void setDispenseExecutor(Executor dispenseExecutor) {
+        shutDownOwnedExecutor();
+        this.dispenseExecutor = dispenseExecutor;
+    }
+
+    /**
+     * Stops the default dispense thread, if {@link #dispenseItemAsync} started
+     * one, once the items already sold are out. Call it after the last async
+     * sale; a later one starts a new thread. Executors set through
+     * {@link #setDispenseExecutor} are left running.
+     */
+    @Override
+    public synchronized void close() {
+        if (dispenseExecutor == ownedExecutor) {
+            dispenseExecutor = null;
+        }
+        shutDownOwnedExecutor();
+    }
+
+    // Guarded by this
+    private void shutDownOwnedExecutor() {
+        ExecutorService executor = ownedExecutor;
+        if (executor == null) {
+            return;
+        }
+        ownedExecutor = null;
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Counts outcomes and samples latency of {@link #dispenseItem},
+     * {@link #dispenseItemAsync}, {@link #dispenseOrder},
+     * {@link #dispenseReserved} and their payments. Null turns metrics off.
+     */
+    public void setMetrics(VendingMetrics metrics) {
+        this.metrics = metrics;
+        coinHandler.setMetrics(metrics);
+    }
+
+    public VendingMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Feeds every completed sale, including each line of an order, to
+     * {@code salesAnalytics}. Null turns analytics off.
+     */
+    public void setSalesAnalytics(SalesAnalytics salesAnalytics) {
+        this.salesAnalytics = salesAnalytics;
+    }
+
+    public SalesAnalytics getSalesAnalytics() {
+        return salesAnalytics;
+    }
+
+    /**
+     * Publishes every dispense outcome, each line of a completed order, each
+     * payment attempt, each restock and each expiry withdrawal to
+     * {@code eventBus}. Null stops publishing.
+     */
+    public void setEventBus(EventBus eventBus) {
+        this.eventBus = eventBus;
+        coinHandler.setEventBus(eventBus);
+    }
+
+    public EventBus getEventBus() {
+        return eventBus;
+    }
+
+    public CoinFloat getCoinFloat() {
+        return coinFloat;
+    }
+
+    public Denominations getDenominations() {
+        return coinHandler.getDenominations();
+    }
+
+    public boolean isAcceptedCoin(int coin) {
+        return coinHandler.isAccepted(coin);
+    }
+
     public String getAcceptedCoinsInfo() {
         return coinHandler.formatAcceptedCoins();
     }
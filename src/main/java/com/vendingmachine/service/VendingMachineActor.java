@@ -0,0 +1,272 @@
+package com.vendingmachine.service;
+
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.model.DispenseResult;
+import com.vendingmachine.model.Item;
+
+import java.io.Closeable;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs every command for one machine on a single thread. Callers on any
+ * thread put commands on a bounded queue and get a future back; the owning
+ * thread takes them off in order and runs them one after another, so the
+ * machine never sees two callers at once.
+ *
+ * <p>When the queue is deep the owner takes up to {@link #MAX_BATCH} commands
+ * per pass and frees their queue slots with one write, instead of one per
+ * command. A caller that finds the queue full waits for room.
+ *
+ * <p>While an actor owns a machine, every change to it should go through the
+ * actor; direct calls still work but give up the ordering.
+ */
+public final class VendingMachineActor implements Closeable {
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final int MAX_BATCH = 64;
+
+    @FunctionalInterface
+    public interface Command<T> {
+        T run(VendingMachine machine) throws VendingMachineException;
+    }
+
+    // Set in the tail once the actor is closed, so a claim after close fails
+    // in the same compare-and-set that would otherwise take a slot.
+    private static final long CLOSED = Long.MIN_VALUE;
+    private static final VarHandle TAIL;
+    private static final VarHandle PUBLISHED = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 200;
+    private static final long PARK_NANOS = 50_000;
+
+    static {
+        try {
+            TAIL = MethodHandles.lookup().findVarHandle(VendingMachineActor.class, "tail", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final VendingMachine machine;
+    private final Task<?>[] tasks;
+    // The position last published into each slot; the owner may take
+    // position p once its slot holds p.
+    private final long[] published;
+    private final int mask;
+    private final Thread owner;
+    private volatile long tail;
+    private volatile long head;
+    private volatile boolean parked;
+    private long batches;
+    private long commands;
+    private int largestBatch;
+
+    private VendingMachineActor(VendingMachine machine, int capacity) {
+        this.machine = machine;
+        this.tasks = new Task<?>[capacity];
+        this.published = new long[capacity];
+        for (int i = 0; i < capacity; i++) {
+            published[i] = i - capacity;
+        }
+        this.mask = capacity - 1;
+        this.owner = new Thread(this::run, "machine-actor");
+        owner.setDaemon(true);
+    }
+
+    public static VendingMachineActor start(VendingMachine machine) {
+        return start(machine, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Starts an actor owning {@code machine}. {@code capacity} must be a
+     * power of two.
+     */
+    public static VendingMachineActor start(VendingMachine machine, int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        VendingMachineActor actor = new VendingMachineActor(machine, capacity);
+        actor.owner.start();
+        return actor;
+    }
+
+    public CompletableFuture<DispenseResult> dispenseItem(String code, List<Integer> coins) {
+        return submit(machine -> machine.dispenseItem(code, coins));
+    }
+
+    public CompletableFuture<Void> addItem(Item item) {
+        return submit(machine -> {
+            machine.addItem(item);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Item> getItem(String code) {
+        return submit(machine -> machine.getItem(code));
+    }
+
+    public CompletableFuture<Void> restockItem(String code, int stock) {
+        return submit(machine -> {
+            machine.restockItem(code, stock);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> restock(RestockBatch batch) {
+        return submit(machine -> {
+            machine.restock(batch);
+            return null;
+        });
+    }
+
+    /**
+     * Queues {@code command} to run on the owning thread. The future fails
+     * with whatever the command throws, or with an
+     * {@link IllegalStateException} if the actor is closed.
+     */
+    public <T> CompletableFuture<T> submit(Command<T> command) {
+        Task<T> task = new Task<>(command);
+        long position = claim();
+        if (position == CLOSED) {
+            task.future.completeExceptionally(new IllegalStateException("Machine actor is closed"));
+            return task.future;
+        }
+        int slot = (int) position & mask;
+        tasks[slot] = task;
+        // A volatile write, so it is ordered before the read of parked below
+        // and the owner cannot miss both the task and the wake-up.
+        PUBLISHED.setVolatile(published, slot, position);
+        if (parked) {
+            LockSupport.unpark(owner);
+        }
+        return task.future;
+    }
+
+    // Takes the next queue position, waiting while the queue is full.
+    private long claim() {
+        int tries = 0;
+        while (true) {
+            long position = tail;
+            if (position < 0) {
+                return CLOSED;
+            }
+            if (position - head >= tasks.length) {
+                backOff(tries++);
+            } else if (TAIL.compareAndSet(this, position, position + 1)) {
+                return position;
+            }
+        }
+    }
+
+    private void run() {
+        long next = 0;
+        int idle = 0;
+        while (true) {
+            int batch = 0;
+            while (batch < MAX_BATCH && (long) PUBLISHED.getAcquire(published, (int) next & mask) == next) {
+                int slot = (int) next & mask;
+                Task<?> task = tasks[slot];
+                tasks[slot] = null;
+                next++;
+                batch++;
+                task.run(machine);
+            }
+            if (batch > 0) {
+                head = next;
+                batches++;
+                commands += batch;
+                largestBatch = Math.max(largestBatch, batch);
+                idle = 0;
+                continue;
+            }
+            long claimed = tail;
+            if (claimed < 0 && next == (claimed & ~CLOSED)) {
+                return;
+            }
+            if (claimed == next && idle >= YIELD_TRIES) {
+                parked = true;
+                // Check again after announcing the park, in case a caller
+                // published just before it could see the flag.
+                if ((long) PUBLISHED.getVolatile(published, (int) next & mask) != next && tail == next) {
+                    LockSupport.parkNanos(this, PARK_NANOS * 20);
+                }
+                parked = false;
+            } else {
+                backOff(idle++);
+            }
+        }
+    }
+
+    private static void backOff(int tries) {
+        if (tries < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (tries < YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    public VendingMachine getMachine() {
+        return machine;
+    }
+
+    /**
+     * Commands queued but not yet taken by the owning thread.
+     */
+    public int getQueueDepth() {
+        return (int) ((tail & ~CLOSED) - head);
+    }
+
+    /**
+     * The average number of commands the owner took per pass. Read on the
+     * owning thread, or after {@link #close()}.
+     */
+    public double getAverageBatch() {
+        return batches == 0 ? 0 : (double) commands / batches;
+    }
+
+    public int getLargestBatch() {
+        return largestBatch;
+    }
+
+    /**
+     * Refuses new commands, runs the ones already queued and stops the
+     * owning thread.
+     */
+    @Override
+    public void close() {
+        long position;
+        do {
+            position = tail;
+        } while (position >= 0 && !TAIL.compareAndSet(this, position, position | CLOSED));
+        LockSupport.unpark(owner);
+        try {
+            owner.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Task<T> {
+        final Command<T> command;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+
+        Task(Command<T> command) {
+            this.command = command;
+        }
+
+        // Catches errors too: letting one escape would stop the owning
+        // thread and leave every queued future waiting forever.
+        void run(VendingMachine machine) {
+            try {
+                future.complete(command.run(machine));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+}
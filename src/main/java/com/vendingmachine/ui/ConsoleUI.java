@@ -1,6 +1,9 @@
 package com.vendingmachine.ui;
 
 import com.vendingmachine.model.DispenseResult;
+import com.vendingmachine.service.Denominations;
+import com.vendingmachine.service.Reservation;
+import com.vendingmachine.service.ReservationManager;
 import com.vendingmachine.service.VendingMachine;
 
 import java.util.ArrayList;
@@ -9,11 +12,27 @@ import java.util.Scanner;
 
 public class ConsoleUI {
     private final VendingMachine vendingMachine;
+    private final InventorySink inventorySink;
+    private final ReservationManager reservations;
+    private final InventoryRenderer inventoryRenderer = new InventoryRenderer();
     private final Scanner scanner;
     private boolean running;
 
     public ConsoleUI(VendingMachine vendingMachine) {
+        this(vendingMachine, InventorySink.console());
+    }
+
+    public ConsoleUI(VendingMachine vendingMachine, InventorySink inventorySink) {
+        this(vendingMachine, inventorySink, null);
+    }
+
+    // With a reservation manager, selecting an item holds a unit while the
+    // customer inserts coins, so it cannot sell out in the meantime.
+    public ConsoleUI(VendingMachine vendingMachine, InventorySink inventorySink,
+                     ReservationManager reservations) {
         this.vendingMachine = vendingMachine;
+        this.inventorySink = inventorySink;
+        this.reservations = reservations;
         this.scanner = new Scanner(System.in);
         this.running = false;
     }
@@ -36,7 +55,7 @@ public class ConsoleUI {
         System.out.println("VENDING MACHINE MENU");
         System.out.println("=".repeat(60));
 
-        vendingMachine.displayInventory();
+        inventoryRenderer.renderTo(vendingMachine, inventorySink);
 
         System.out.println("\n" + vendingMachine.getAcceptedCoinsInfo());
         System.out.println("\nOptions:");
@@ -88,6 +107,18 @@ public class ConsoleUI {
         }
 
         var item = vendingMachine.getItem(itemCode);
+        Reservation reservation = null;
+        if (reservations != null) {
+            reservation = reservations.reserve(itemCode);
+            if (reservation == null) {
+                DispenseResult unavailable = item.isInStock()
+                    ? DispenseResult.cannotDispense(item)
+                    : DispenseResult.outOfStock(item);
+                System.out.println(unavailable.getMessage());
+                pauseForUser();
+                return;
+            }
+        }
         System.out.printf("\nSelected: %s - $%d\n",
                 item.getDescription(),
                 item.getPrice());
@@ -98,6 +129,7 @@ public class ConsoleUI {
         while (!paymentComplete) {
             List<Integer> coins = getCoinsFromUser(item.getPrice(), calculateTotal(totalCoins));
             if (coins == null) {
+                releaseHold(reservation);
                 System.out.println("Transaction cancelled.");
                 if (!totalCoins.isEmpty()) {
                     System.out.println("Returning coins: " + formatCoinList(totalCoins));
@@ -112,7 +144,10 @@ public class ConsoleUI {
             if (totalPaid >= item.getPrice()) {
                 paymentComplete = true;
                 System.out.println("\n Processing transaction...");
-                DispenseResult result = vendingMachine.dispenseItem(itemCode, totalCoins);
+                DispenseResult result = reservation != null
+                    ? vendingMachine.dispenseReserved(reservation, totalCoins)
+                    : vendingMachine.dispenseItem(itemCode, totalCoins);
+                releaseHold(reservation);
                 displayResult(result);
                 pauseForUser();
             } else {
@@ -123,6 +158,7 @@ public class ConsoleUI {
                 String response = scanner.nextLine().trim().toLowerCase();
 
                 if (!response.equals("yes") && !response.equals("y")) {
+                    releaseHold(reservation);
                     System.out.println("Transaction cancelled.");
                     System.out.println("Returning coins: " + formatCoinList(totalCoins));
                     pauseForUser();
@@ -132,12 +168,19 @@ public class ConsoleUI {
         }
     }
 
+    // A no-op once the hold has been sold or has expired.
+    private void releaseHold(Reservation reservation) {
+        if (reservation != null) {
+            reservations.release(reservation);
+        }
+    }
+
     private List<Integer> getCoinsFromUser() {
         return getCoinsFromUser(0, 0);
     }
 
     private List<Integer> getCoinsFromUser(int targetPrice, int alreadyPaid) {
-        System.out.println("\nEnter coins one by one (valid: 1, 2, 5, 10)");
+        System.out.println("\nEnter coins one by one (valid: " + formatValidCoins() + ")");
         System.out.println("Type 'done' when finished, or 'cancel' to abort:");
         if (targetPrice > 0 && alreadyPaid > 0) {
             System.out.printf("Amount paid so far: $%d, Amount needed: $%d\n", alreadyPaid, targetPrice - alreadyPaid);
@@ -178,7 +221,7 @@ public class ConsoleUI {
                         }
                     }
                 } else {
-                    System.out.println("Invalid coin. Valid coins: 1, 2, 5, 10");
+                    System.out.println("Invalid coin. Valid coins: " + formatValidCoins());
                 }
             } catch (NumberFormatException e) {
                 System.out.println("Please enter a number, 'done', or 'cancel'.");
@@ -189,7 +232,17 @@ public class ConsoleUI {
     }
 
     private boolean isValidCoin(int coin) {
-        return coin == 1 || coin == 2 || coin == 5 || coin == 10;
+        return vendingMachine.isAcceptedCoin(coin);
+    }
+
+    private String formatValidCoins() {
+        Denominations denominations = vendingMachine.getDenominations();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < denominations.size(); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(denominations.valueAt(i));
+        }
+        return sb.toString();
     }
 
     private String formatCoin(int coin) {
@@ -237,7 +290,7 @@ public class ConsoleUI {
 
     private void viewInventory() {
         System.out.println("\nCurrent Inventory:");
-        vendingMachine.displayInventory();
+        inventoryRenderer.renderTo(vendingMachine, inventorySink);
         pauseForUser();
     }
 
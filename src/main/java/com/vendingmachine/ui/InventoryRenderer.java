@@ -0,0 +1,84 @@
+package com.vendingmachine.ui;
+
+import com.vendingmachine.model.Item;
+import com.vendingmachine.service.VendingMachine;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds the inventory table into a buffer that is reused between renders, so
+ * formatting takes no locks and the table reaches its sink in one write.
+ * Formatted rows are cached by slot and rebuilt only when the item's
+ * {@link Item#getRevision() revision} moves, and a machine whose
+ * {@link VendingMachine#getInventoryVersion() version} is unchanged is not
+ * re-rendered at all. Not thread-safe; give each thread its own renderer.
+ */
+public class InventoryRenderer {
+    private static final String RULE = "-".repeat(50);
+
+    private final StringBuilder buffer = new StringBuilder(1024);
+    private final Map<String, Row> rows = new HashMap<>();
+    private VendingMachine renderedMachine;
+    private long renderedVersion;
+
+    public CharSequence render(VendingMachine machine) {
+        long version = machine.getInventoryVersion();
+        if (machine != renderedMachine || version != renderedVersion) {
+            render(machine.getItems());
+            renderedMachine = machine;
+            renderedVersion = version;
+        }
+        return buffer;
+    }
+
+    public CharSequence render(Iterable<? extends Item> items) {
+        renderedMachine = null;
+        buffer.setLength(0);
+        buffer.append("\n=== VENDING MACHINE INVENTORY ===\n");
+        buffer.append("Code | Item | Price | Stock | Details\n");
+        buffer.append(RULE).append('\n');
+
+        for (Item item : items) {
+            buffer.append(row(item));
+        }
+        buffer.append(RULE).append('\n');
+        return buffer;
+    }
+
+    public void renderTo(VendingMachine machine, InventorySink sink) {
+        sink.write(render(machine));
+    }
+
+    public void renderTo(Iterable<? extends Item> items, InventorySink sink) {
+        sink.write(render(items));
+    }
+
+    private String row(Item item) {
+        long revision = item.getRevision();
+        Row cached = rows.get(item.getCode());
+        if (cached != null && cached.item == item && cached.revision == revision) {
+            return cached.text;
+        }
+        String text = (item.canDispense() ? "✓" : "✗") + ' '
+                + item.getCode() + " | "
+                + item.getDescription() + " | $"
+                + item.getPrice() + " | "
+                + item.getStock() + " | "
+                + item.getItemDetails() + '\n';
+        rows.put(item.getCode(), new Row(item, revision, text));
+        return text;
+    }
+
+    private static final class Row {
+        final Item item;
+        final long revision;
+        final String text;
+
+        Row(Item item, long revision, String text) {
+            this.item = item;
+            this.revision = revision;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.vendingmachine.ui;
+
+import java.io.PrintStream;
+
+/**
+ * Destination for a fully rendered inventory table. Receives the whole table
+ * at once so it can be written with a single call.
+ */
+@FunctionalInterface
+public interface InventorySink {
+
+    void write(CharSequence text);
+
+    static InventorySink console() {
+        return text -> {
+            PrintStream out = System.out;
+            out.print(text);
+            out.flush();
+        };
+    }
+}
@@ -0,0 +1,166 @@
+package com.vendingmachine.analytics;
+
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.service.Denominations;
+import com.vendingmachine.service.VendingMachine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SalesAnalyticsTest {
+
+    private static final long HOUR = 3_600_000L;
+    private static final long NOW = 1_000 * HOUR + 1_234;
+
+    private final Clock clock = Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC);
+
+    @Test
+    @DisplayName("Should total units and revenue per item and overall")
+    void testTotals() {
+        SalesAnalytics analytics = new SalesAnalytics(Denominations.standard(), 8, 24, 3, clock);
+
+        analytics.recordSale("S1", 2, List.of(2), List.of());
+        analytics.recordSale("S1", 2, List.of(5), List.of(2, 1));
+        analytics.recordSale("D1", 1, 3, List.of(), List.of(), NOW);
+
+        assertThat(analytics.getUnits("S1")).isEqualTo(2);
+        assertThat(analytics.getRevenue("S1")).isEqualTo(4);
+        assertThat(analytics.getUnits("D1")).isEqualTo(1);
+        assertThat(analytics.getUnits("X9")).isZero();
+        assertThat(analytics.getTotalUnits()).isEqualTo(3);
+        assertThat(analytics.getTotalRevenue()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("Should keep the best sellers in order as counts change")
+    void testTopSellers() {
+        SalesAnalytics analytics = new SalesAnalytics(Denominations.standard(), 8, 24, 2, clock);
+
+        analytics.recordSale("A", 1, 1, null, null, NOW);
+        analytics.recordSale("B", 2, 2, null, null, NOW);
+        analytics.recordSale("C", 3, 3, null, null, NOW);
+        assertThat(analytics.getTopSellers(5)).containsExactly(
+                new SalesAnalytics.ItemSales("C", 3, 3),
+                new SalesAnalytics.ItemSales("B", 2, 2));
+
+        analytics.recordSale("A", 3, 3, null, null, NOW);
+        assertThat(analytics.getTopSellers(5)).extracting(SalesAnalytics.ItemSales::code)
+                .containsExactly("A", "C");
+        assertThat(analytics.getTopSellers(1)).extracting(SalesAnalytics.ItemSales::code)
+                .containsExactly("A");
+    }
+
+    @Test
+    @DisplayName("Should bucket sales by hour and forget hours older than the ring")
+    void testHourlyBuckets() {
+        SalesAnalytics analytics = new SalesAnalytics(Denominations.standard(), 8, 4, 3, clock);
+
+        analytics.recordSale("S1", 1, 2, null, null, NOW);
+        analytics.recordSale("S1", 2, 4, null, null, NOW - HOUR);
+        analytics.recordSale("S1", 5, 10, null, null, NOW - 3 * HOUR);
+        analytics.recordSale("S1", 7, 14, null, null, NOW - 4 * HOUR);
+
+        assertThat(analytics.getHourlyUnits(4)).containsExactly(5, 0, 2, 1);
+        assertThat(analytics.getHourlyRevenue(2)).containsExactly(4, 2);
+        assertThatThrownBy(() -> analytics.getHourlyUnits(5)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should count coins received and paid out by denomination")
+    void testCoinMix() {
+        SalesAnalytics analytics = new SalesAnalytics(Denominations.standard(), 8, 24, 3, clock);
+
+        analytics.recordSale("S1", 2, List.of(5, 5), List.of(5, 2, 1));
+        analytics.recordSale("S1", 2, List.of(1, 1), List.of());
+
+        assertThat(analytics.getCoinsReceived()).containsExactly(
+                Map.entry(1, 2L), Map.entry(2, 0L), Map.entry(5, 2L), Map.entry(10, 0L));
+        assertThat(analytics.getCoinsPaidOut()).containsExactly(
+                Map.entry(1, 1L), Map.entry(2, 1L), Map.entry(5, 1L), Map.entry(10, 0L));
+    }
+
+    @Test
+    @DisplayName("Should count items past the tracked limit only in the totals")
+    void testUntrackedItems() {
+        SalesAnalytics analytics = new SalesAnalytics(Denominations.standard(), 1, 24, 3, clock);
+
+        analytics.recordSale("S1", 2, List.of(), List.of());
+        analytics.recordSale("S2", 2, List.of(), List.of());
+
+        assertThat(analytics.getUnits("S2")).isZero();
+        assertThat(analytics.getUntrackedUnits()).isEqualTo(1);
+        assertThat(analytics.getTotalUnits()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should record sales and order lines made through the machine")
+    void testMachineSales() throws VendingMachineException {
+        VendingMachine machine = new VendingMachine();
+        Drink cola = new Drink("D1", "Cola", 3, 330);
+        cola.setStock(5);
+        machine.addItem(cola);
+        Drink water = new Drink("D2", "Water", 1, 500);
+        water.setStock(5);
+        machine.addItem(water);
+        SalesAnalytics analytics = new SalesAnalytics(machine.getDenominations(), 8, 24, 3, clock);
+        machine.setSalesAnalytics(analytics);
+
+        machine.dispenseItem("D1", Arrays.asList(5));
+        machine.dispenseItem("D1", Arrays.asList(1));
+        machine.dispenseOrder(Map.of("D1", 1, "D2", 3), Arrays.asList(10));
+
+        assertThat(analytics.getUnits("D1")).isEqualTo(2);
+        assertThat(analytics.getUnits("D2")).isEqualTo(3);
+        assertThat(analytics.getTotalRevenue()).isEqualTo(9);
+        assertThat(analytics.getCoinsReceived()).containsEntry(5, 1L).containsEntry(10, 1L).containsEntry(1, 0L);
+        assertThat(analytics.getCoinsPaidOut().values().stream().mapToLong(Long::longValue).sum()).isEqualTo(3);
+        assertThat(analytics.getHourlyUnits(1)).containsExactly(5);
+    }
+
+    @Test
+    @DisplayName("Should lose no sales recorded from many threads at once")
+    void testConcurrentSales() throws InterruptedException {
+        SalesAnalytics analytics = new SalesAnalytics(Denominations.standard(), 4, 24, 3, clock);
+        String[] codes = {"S1", "S2", "S3", "S4", "S5", "S6"};
+        List<Thread> threads = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 6_000; i++) {
+                    analytics.recordSale(codes[i % codes.length], 2, List.of(2), List.of());
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(analytics.getTotalUnits()).isEqualTo(48_000);
+        assertThat(analytics.getTotalRevenue()).isEqualTo(96_000);
+        assertThat(analytics.getUntrackedUnits()).isEqualTo(16_000);
+        assertThat(analytics.getTopSellers(5)).hasSize(3)
+                .allSatisfy(seller -> assertThat(seller.units()).isEqualTo(8_000));
+        assertThat(analytics.getHourlyUnits(1)).containsExactly(48_000);
+        assertThat(analytics.getCoinsReceived()).containsEntry(2, 48_000L);
+    }
+}
@@ -0,0 +1,211 @@
+package com.vendingmachine.api;
+
+import com.vendingmachine.analytics.SalesAnalytics;
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.metrics.VendingMetrics;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.service.VendingMachine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VendingMachineServerTest {
+
+    private VendingMachine machine;
+    private VendingMachineServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException, VendingMachineException {
+        machine = new VendingMachine();
+        Drink cola = new Drink("D1", "Cola", 3, 330);
+        cola.setStock(1);
+        machine.addItem(cola);
+        server = new VendingMachineServer(machine, 0);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Should list the inventory as JSON")
+    void testInventory() throws Exception {
+        HttpResponse<String> response = get("/inventory");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(
+                type -> assertThat(type).startsWith("application/json"));
+        assertThat(response.body()).isEqualTo("[{\"code\":\"D1\",\"description\":\"Cola\",\"price\":3,"
+                + "\"stock\":1,\"available\":true,\"details\":\"Cola - 330ml\"}]");
+    }
+
+    @Test
+    @DisplayName("Should sell an item and return change")
+    void testPurchase() throws Exception {
+        HttpResponse<String> sold = post("/purchase", "{\"code\":\"D1\",\"coins\":[5]}");
+        HttpResponse<String> soldOut = post("/purchase", "{\"code\":\"D1\",\"coins\":[5]}");
+        HttpResponse<String> unknown = post("/purchase", "{\"code\":\"X9\",\"coins\":[5]}");
+
+        assertThat(sold.statusCode()).isEqualTo(200);
+        Map<String, Object> body = Json.parseObject(sold.body());
+        assertThat(body.get("success")).isEqualTo(true);
+        assertThat(body.get("change")).isEqualTo(Arrays.asList(2));
+        assertThat(soldOut.statusCode()).isEqualTo(409);
+        assertThat(soldOut.body()).contains("out of stock");
+        assertThat(unknown.statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    @DisplayName("Should sell a multi-item order")
+    void testOrder() throws Exception {
+        machine.restockItem("D1", 3);
+
+        HttpResponse<String> sold = post("/order", "{\"items\":{\"D1\":2},\"coins\":[10]}");
+        HttpResponse<String> tooMany = post("/order", "{\"items\":{\"D1\":2},\"coins\":[10]}");
+
+        assertThat(sold.statusCode()).isEqualTo(200);
+        assertThat(Json.parseObject(sold.body()).get("change")).isEqualTo(Arrays.asList(2, 2));
+        assertThat(tooMany.statusCode()).isEqualTo(409);
+        assertThat(machine.getItem("D1").getStock()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should restock and add items")
+    void testRestockAndAdd() throws Exception {
+        HttpResponse<String> restocked = post("/restock", "{\"code\":\"D1\",\"stock\":7}");
+        HttpResponse<String> added = post("/items", "{\"type\":\"snack\",\"code\":\"S1\","
+                + "\"description\":\"Chips\",\"price\":2,\"manufactureDate\":\"2099-01-01\","
+                + "\"shelfLifeDays\":30,\"stock\":4}");
+
+        assertThat(restocked.statusCode()).isEqualTo(200);
+        assertThat(machine.getItem("D1").getStock()).isEqualTo(7);
+        assertThat(added.statusCode()).isEqualTo(201);
+        assertThat(machine.getItem("S1").getStock()).isEqualTo(4);
+        assertThat(post("/restock", "{\"code\":\"X9\",\"stock\":1}").statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    @DisplayName("Should apply a restock batch all or nothing")
+    void testRestockBatch() throws Exception {
+        HttpResponse<String> restocked = post("/restock", "{\"items\":[{\"code\":\"D1\",\"stock\":9,\"price\":4}]}");
+        HttpResponse<String> unknown = post("/restock",
+                "{\"items\":[{\"code\":\"D1\",\"stock\":2},{\"code\":\"X9\",\"stock\":1}]}");
+        HttpResponse<String> dated = post("/restock",
+                "{\"items\":[{\"code\":\"D1\",\"manufactureDate\":\"2099-01-01\"}]}");
+
+        assertThat(restocked.statusCode()).isEqualTo(200);
+        assertThat(restocked.body()).contains("\"price\":4,\"stock\":9");
+        assertThat(unknown.statusCode()).isEqualTo(404);
+        assertThat(dated.statusCode()).isEqualTo(409);
+        assertThat(machine.getItem("D1").getStock()).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("Should reject malformed requests")
+    void testBadRequests() throws Exception {
+        assertThat(post("/purchase", "{\"code\":\"D1\"").statusCode()).isEqualTo(400);
+        assertThat(post("/purchase", "{\"code\":\"D1\",\"coins\":[\"a\"]}").statusCode()).isEqualTo(400);
+        assertThat(post("/items", "{\"type\":\"toy\",\"code\":\"T1\",\"description\":\"Yo-yo\",\"price\":1}")
+                .statusCode()).isEqualTo(400);
+        assertThat(post("/inventory", "{}").statusCode()).isEqualTo(405);
+    }
+
+    @Test
+    @DisplayName("Should refuse an item with a negative stock or a price that is not positive")
+    void testBadItems() throws Exception {
+        HttpResponse<String> negativeStock = post("/items",
+                "{\"type\":\"drink\",\"code\":\"D2\",\"description\":\"Water\",\"price\":2,"
+                        + "\"volumeMl\":500,\"stock\":-4}");
+        HttpResponse<String> freeItem = post("/items",
+                "{\"type\":\"drink\",\"code\":\"D2\",\"description\":\"Water\",\"price\":0,"
+                        + "\"volumeMl\":500}");
+
+        assertThat(negativeStock.statusCode()).isEqualTo(400);
+        assertThat(negativeStock.body()).contains("Stock cannot be negative");
+        assertThat(freeItem.statusCode()).isEqualTo(400);
+        assertThat(freeItem.body()).contains("Price must be positive");
+        assertThat(machine.getItem("D2")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should refuse oversized and deeply nested bodies")
+    void testBodyLimits() throws Exception {
+        String padding = " ".repeat(VendingMachineServer.MAX_BODY_BYTES);
+        // Deep enough to overflow a recursive parser, small enough to pass the size limit.
+        String nested = "[".repeat(30_000) + "]".repeat(30_000);
+
+        assertThat(post("/purchase", "{\"code\":\"D1\",\"coins\":[5]}" + padding).statusCode()).isEqualTo(413);
+        HttpResponse<String> deep = post("/purchase", "{\"code\":\"D1\",\"coins\":" + nested + "}");
+        assertThat(deep.statusCode()).isEqualTo(400);
+        assertThat(deep.body()).contains("Nesting deeper than " + Json.MAX_DEPTH);
+        assertThat(machine.getItem("D1").getStock()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should expose metrics as Prometheus text once enabled")
+    void testMetrics() throws Exception {
+        assertThat(get("/metrics").statusCode()).isEqualTo(404);
+
+        machine.setMetrics(new VendingMetrics(1));
+        post("/purchase", "{\"code\":\"D1\",\"coins\":[5]}");
+        post("/purchase", "{\"code\":\"D1\",\"coins\":[5]}");
+        HttpResponse<String> response = get("/metrics");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(
+                type -> assertThat(type).startsWith("text/plain"));
+        assertThat(response.body())
+                .contains("vending_dispense_total{outcome=\"success\"} 1\n")
+                .contains("vending_dispense_total{outcome=\"out_of_stock\"} 1\n")
+                .contains("vending_dispense_latency_nanos_count 2\n")
+                .contains("vending_dispense_latency_nanos_sum ")
+                .contains("vending_payment_latency_nanos_count 1\n")
+                .contains("vending_payment_total{outcome=\"success\"} 1\n");
+    }
+
+    @Test
+    @DisplayName("Should report sales totals and coin mix as JSON")
+    void testSales() throws Exception {
+        assertThat(get("/sales").statusCode()).isEqualTo(404);
+
+        machine.setSalesAnalytics(new SalesAnalytics(machine.getDenominations()));
+        post("/purchase", "{\"code\":\"D1\",\"coins\":[5]}");
+        HttpResponse<String> response = get("/sales");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body())
+                .startsWith("{\"units\":1,\"revenue\":3,\"topSellers\":[{\"code\":\"D1\",\"units\":1,\"revenue\":3}]")
+                .contains("\"coinsReceived\":{\"1\":0,\"2\":0,\"5\":1,\"10\":0}")
+                .contains("\"coinsPaidOut\":{\"1\":0,\"2\":1,\"5\":0,\"10\":0}");
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri(path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri(path))
+                        .POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getPort() + path);
+    }
+}
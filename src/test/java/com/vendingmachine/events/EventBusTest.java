@@ -0,0 +1,207 @@
+package com.vendingmachine.events;
+
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.model.DispenseResult;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.model.PaymentResult;
+import com.vendingmachine.model.Snack;
+import com.vendingmachine.service.ExpirySweeper;
+import com.vendingmachine.service.VendingMachine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventBusTest {
+
+    // Copies each event, as the slot is reused once the handler returns.
+    private static final class Recorder implements EventHandler {
+        final List<String> events = new ArrayList<>();
+        final List<Long> sequences = new ArrayList<>();
+
+        @Override
+        public void onEvent(VendingEvent event, long sequence, boolean endOfBatch) {
+            events.add(event.toString());
+            sequences.add(sequence);
+        }
+    }
+
+    private static long stockState(int stock) {
+        return new Drink("D1", "Water", 2, 500).setStockAndGetState(stock);
+    }
+
+    @Test
+    @DisplayName("Should deliver every event in order to every handler as the ring wraps")
+    void testDeliversInOrder() {
+        Recorder first = new Recorder();
+        Recorder second = new Recorder();
+        EventBus bus = new EventBus(4);
+        bus.addHandler("first", first);
+        bus.addHandler("second", second);
+        bus.start();
+
+        for (int i = 0; i < 1_000; i++) {
+            bus.publishRestock("S1", stockState(i));
+        }
+        bus.close();
+
+        assertThat(first.events).hasSize(1_000);
+        assertThat(first.events.get(999)).isEqualTo("RESTOCK S1 stock 999");
+        assertThat(second.events).isEqualTo(first.events);
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(first.sequences.get(i)).isEqualTo(i);
+        }
+        assertThat(bus.getCursor()).isEqualTo(999);
+        assertThat(bus.getLag()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should hold a dependent handler behind the handlers it follows")
+    void testDependencies() {
+        AtomicLong journaled = new AtomicLong(-1);
+        List<Long> overtaken = new ArrayList<>();
+        EventBus bus = new EventBus(8);
+        EventProcessor journal = bus.addHandler("journal", (event, sequence, endOfBatch) -> {
+            Thread.onSpinWait();
+            journaled.set(sequence);
+        });
+        bus.addHandler("replicate", (event, sequence, endOfBatch) -> {
+            if (journaled.get() < sequence) {
+                overtaken.add(sequence);
+            }
+        }, journal);
+        bus.start();
+
+        for (int i = 0; i < 10_000; i++) {
+            bus.publishPayment(PaymentResult.Outcome.SUCCESS, 2, 5, 3);
+        }
+        bus.close();
+
+        assertThat(journaled.get()).isEqualTo(9_999);
+        assertThat(overtaken).isEmpty();
+        assertThatThrownBy(() -> new EventBus(8).addHandler("other", new Recorder(), journal))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should lose no events from concurrent publishers on a small ring")
+    void testConcurrentPublishers() throws InterruptedException {
+        int threads = 4;
+        int perThread = 20_000;
+        long[] stockTotal = new long[1];
+        long[] expectedSequence = new long[1];
+        List<Long> outOfOrder = new ArrayList<>();
+        EventBus bus = new EventBus(64);
+        bus.addHandler("sum", (event, sequence, endOfBatch) -> {
+            if (sequence != expectedSequence[0]++) {
+                outOfOrder.add(sequence);
+            }
+            stockTotal[0] += event.getStock();
+        });
+        bus.start();
+        long oneUnit = stockState(1);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> publishers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread publisher = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    bus.publishRestock("D1", oneUnit);
+                }
+            });
+            publisher.start();
+            publishers.add(publisher);
+        }
+        start.countDown();
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+        bus.close();
+
+        assertThat(outOfOrder).isEmpty();
+        assertThat(expectedSequence[0]).isEqualTo((long) threads * perThread);
+        assertThat(stockTotal[0]).isEqualTo((long) threads * perThread);
+    }
+
+    @Test
+    @DisplayName("Should skip an event whose handler throws and keep going")
+    void testHandlerFailure() {
+        Recorder after = new Recorder();
+        EventBus bus = new EventBus(4);
+        EventProcessor failing = bus.addHandler("failing", (event, sequence, endOfBatch) -> {
+            if (sequence == 1) {
+                throw new IllegalStateException("disk full");
+            }
+        });
+        bus.addHandler("after", after, failing);
+        bus.start();
+
+        for (int i = 0; i < 10; i++) {
+            bus.publishExpiry("S1", stockState(i), 20_000);
+        }
+        bus.close();
+
+        assertThat(failing.getLastFailure()).hasMessage("disk full");
+        assertThat(failing.getSequence()).isEqualTo(9);
+        assertThat(after.events).hasSize(10);
+    }
+
+    @Test
+    @DisplayName("Should publish the machine's dispenses, payments, restocks and expiries")
+    void testMachineEvents() throws VendingMachineException {
+        Recorder recorder = new Recorder();
+        EventBus bus = new EventBus(16);
+        bus.addHandler("recorder", recorder);
+        bus.start();
+
+        VendingMachine machine = new VendingMachine();
+        machine.setEventBus(bus);
+        Drink drink = new Drink("D1", "Water", 2, 500);
+        drink.setStock(3);
+        machine.addItem(drink);
+        Snack snack = new Snack("S1", "Crisps", 1, LocalDate.now().minusDays(10), 1);
+        snack.setStock(4);
+        machine.addItem(snack);
+
+        assertThat(machine.dispenseItem("D1", List.of(5)).isSuccess()).isTrue();
+        assertThat(machine.dispenseItem("X9", List.of(5)).getOutcome())
+                .isEqualTo(DispenseResult.Outcome.ITEM_NOT_FOUND);
+        machine.restockItem("D1", 8);
+        assertThat(ExpirySweeper.sweep(machine, LocalDate.now().toEpochDay())).isEqualTo(1);
+        bus.close();
+
+        assertThat(recorder.events).containsExactly(
+                "RESTOCK D1 stock 3",
+                "RESTOCK S1 stock 4",
+                "PAYMENT SUCCESS due $2 paid $5 change $3",
+                "DISPENSE D1 SUCCESS x1 $2 paid $5 change $3 stock 2",
+                "DISPENSE X9 ITEM_NOT_FOUND x1 $0 paid $0 change $0 stock 0",
+                "RESTOCK D1 stock 8",
+                "EXPIRY S1 stock 4 day " + LocalDate.now().toEpochDay());
+    }
+
+    @Test
+    @DisplayName("Should reject a ring that is not a power of two and late handlers")
+    void testConfiguration() {
+        assertThatThrownBy(() -> new EventBus(12)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new EventBus(0)).isInstanceOf(IllegalArgumentException.class);
+
+        EventBus bus = new EventBus(2);
+        bus.start();
+        assertThatThrownBy(() -> bus.addHandler("late", new Recorder()))
+                .isInstanceOf(IllegalStateException.class);
+        bus.close();
+    }
+}
@@ -0,0 +1,181 @@
+package com.vendingmachine.fleet;
+
+import com.vendingmachine.model.ExpiryClock;
+import com.vendingmachine.model.Product;
+import com.vendingmachine.model.ProductCatalog;
+import com.vendingmachine.service.CoinHandler;
+import com.vendingmachine.service.Planogram;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FleetTest {
+
+    private ProductCatalog catalog;
+    private Fleet fleet;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new ProductCatalog();
+        fleet = new Fleet(catalog, new CoinHandler(),
+                Arrays.asList("S1", "S2", "S3", "D1", "D2", "D3"), 1000);
+    }
+
+    @Test
+    @DisplayName("Should resolve machines and slots by id")
+    void testLookup() {
+        for (int i = 0; i < 1000; i++) {
+            assertThat(fleet.addMachine("machine-" + i)).isEqualTo(i);
+        }
+
+        assertThat(fleet.machineIndex("machine-517")).isEqualTo(517);
+        assertThat(fleet.getMachineId(517)).isEqualTo("machine-517");
+        assertThat(fleet.machineIndex("machine-1000")).isEqualTo(Fleet.UNKNOWN);
+        assertThat(fleet.slotIndex("D2")).isEqualTo(4);
+        assertThat(fleet.slotIndex("X9")).isEqualTo(Fleet.UNKNOWN);
+        assertThat(fleet.getMachineCount()).isEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("Should keep stock separate per machine while sharing products")
+    void testSharedProducts() {
+        int first = fleet.addMachine("first");
+        int second = fleet.addMachine("second");
+        Product chips = catalog.intern("Chips", 2);
+
+        fleet.stockSlot(first, 0, chips, 5);
+        fleet.stockSlot(second, 0, chips, 3, 1);
+
+        assertThat(fleet.getProduct(first, 0)).isSameAs(fleet.getProduct(second, 0));
+        assertThat(fleet.getPrice(first, 0)).isEqualTo(2);
+        assertThat(fleet.getPrice(second, 0)).isEqualTo(3);
+        assertThat(fleet.getStock(first, 0)).isEqualTo(5);
+        assertThat(fleet.getStock(second, 0)).isEqualTo(1);
+        assertThat(fleet.getProduct(first, 1)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should sell, return change and report failures")
+    void testDispense() {
+        int machine = fleet.addMachine("m");
+        fleet.stockSlot(machine, 0, catalog.intern("Chips", 3), 1);
+        int[] change = new int[4];
+
+        assertThat(fleet.dispense(machine, 1, new int[]{0, 0, 1, 0}, change))
+                .isEqualTo(Fleet.NOT_STOCKED);
+        assertThat(fleet.dispense(machine, 0, new int[]{0, 1, 0, 0}, change))
+                .isEqualTo(CoinHandler.INSUFFICIENT_FUNDS);
+        assertThat(fleet.getStock(machine, 0)).isEqualTo(1);
+
+        assertThat(fleet.dispense(machine, 0, new int[]{0, 0, 1, 0}, change)).isEqualTo(2);
+        assertThat(change).containsExactly(0, 1, 0, 0);
+        assertThat(fleet.dispense(machine, 0, new int[]{0, 0, 1, 0}, change))
+                .isEqualTo(Fleet.OUT_OF_STOCK);
+
+        fleet.restock(machine, 0, 4);
+        assertThat(fleet.getStock(machine, 0)).isEqualTo(4);
+        assertThatThrownBy(() -> fleet.restock(machine, 1, 4))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("Should refuse expired snacks and drinks below their minimum volume")
+    void testDispenseRules() {
+        ExpiryClock clock = new ExpiryClock(Clock.fixed(Instant.parse("2024-03-01T12:00:00Z"), ZoneOffset.UTC));
+        Fleet dated = new Fleet(catalog, new CoinHandler(), Planogram.of("SD", 2, 10), 1, clock);
+        int machine = dated.addMachine("m");
+        dated.stockSlot(machine, 0, catalog.internSnack("Fresh", 2, LocalDate.of(2024, 2, 20), 10), 1);
+        dated.stockSlot(machine, 1, catalog.internSnack("Stale", 2, LocalDate.of(2024, 2, 1), 10), 1);
+        dated.stockSlot(machine, 2, catalog.internDrink("Dregs", 2, 30, 50), 1);
+        int[] coins = {0, 1, 0, 0};
+        int[] change = new int[4];
+
+        assertThat(dated.dispense(machine, 0, coins, change)).isZero();
+        assertThat(dated.dispense(machine, 1, coins, change)).isEqualTo(Fleet.CANNOT_DISPENSE);
+        assertThat(dated.dispense(machine, 2, coins, change)).isEqualTo(Fleet.CANNOT_DISPENSE);
+        assertThat(dated.getStock(machine, 1)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should enforce slot capacity and sell a restocked product at its new price")
+    void testRestockSlot() {
+        Fleet small = new Fleet(catalog, new CoinHandler(), Planogram.grid(1, 2, 5), 1, ExpiryClock.system());
+        int machine = small.addMachine("m");
+        small.stockSlot(machine, 0, catalog.intern("Chips", 2), 5);
+
+        assertThatThrownBy(() -> small.restock(machine, 0, 6))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Slot A1 holds at most 5");
+        assertThatThrownBy(() -> small.stockSlot(machine, 1, catalog.intern("Chips", 2), 6))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> small.stockSlot(machine, 1, ProductCatalog.shared().intern("Chips", 2), 1))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        small.stockSlot(machine, 0, catalog.intern("Cola", 5), 3);
+        int[] change = new int[4];
+        assertThat(small.dispense(machine, 0, new int[]{0, 1, 0, 0}, change))
+                .isEqualTo(CoinHandler.INSUFFICIENT_FUNDS);
+        assertThat(small.dispense(machine, 0, new int[]{0, 0, 1, 0}, change)).isZero();
+        assertThat(small.getProduct(machine, 0).getDescription()).isEqualTo("Cola");
+        assertThat(small.getStock(machine, 0)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should never oversell a slot under concurrent purchases")
+    void testConcurrentDispense() throws InterruptedException {
+        int machine = fleet.addMachine("m");
+        fleet.stockSlot(machine, 0, catalog.intern("Chips", 2), 100);
+        AtomicInteger sold = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                int[] coins = {0, 1, 0, 0};
+                int[] change = new int[4];
+                start.await();
+                for (int i = 0; i < 50; i++) {
+                    if (fleet.dispense(machine, 0, coins, change) >= 0) {
+                        sold.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(sold.get()).isEqualTo(100);
+        assertThat(fleet.getStock(machine, 0)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reject duplicate machines and enforce capacity")
+    void testRegistration() {
+        Fleet small = new Fleet(catalog, new CoinHandler(), Arrays.asList("S1"), 2);
+        small.addMachine("a");
+
+        assertThatThrownBy(() -> small.addMachine("a"))
+                .isInstanceOf(IllegalArgumentException.class);
+        small.addMachine("b");
+        assertThatThrownBy(() -> small.addMachine("c"))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new Fleet(catalog, new CoinHandler(), Arrays.asList("S1", "S1"), 2))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,114 @@
+package com.vendingmachine.load;
+
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.model.DispenseResult;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.model.Item;
+import com.vendingmachine.model.Snack;
+import com.vendingmachine.service.VendingMachine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoadDriverTest {
+
+    private static final int STOCK = 1_000_000;
+
+    private static VendingMachine stockedMachine() throws VendingMachineException {
+        VendingMachine machine = new VendingMachine();
+        for (int i = 1; i <= 3; i++) {
+            Snack snack = new Snack("S" + i, "Snack " + i, 2, LocalDate.now(), 30);
+            snack.setStock(STOCK);
+            machine.addItem(snack);
+            Drink drink = new Drink("D" + i, "Drink " + i, 3, 330);
+            drink.setStock(i == 3 ? 0 : STOCK);
+            machine.addItem(drink);
+        }
+        return machine;
+    }
+
+    @Test
+    @DisplayName("Should get the outcome each generated purchase was built to get")
+    void testOutcomesMatchWorkload() throws VendingMachineException {
+        VendingMachine machine = stockedMachine();
+        Workload workload = Workload.of(machine)
+                .withInvalidCoinRate(0.05)
+                .withUnknownCodeRate(0.03)
+                .withOutOfStockRate(0.02);
+
+        LoadReport report = new LoadDriver(List.of(machine), workload, 1, 99).closedLoop(20_000);
+
+        Map<Workload.Kind, Long> kinds = new EnumMap<>(Workload.Kind.class);
+        Workload.Generator generator = workload.generator(new SplittableRandom(99).nextLong());
+        for (int i = 0; i < 20_000; i++) {
+            kinds.merge(generator.next().kind(), 1L, Long::sum);
+        }
+        assertThat(report.purchases()).isEqualTo(20_000);
+        assertThat(report.getCount(DispenseResult.Outcome.SUCCESS)).isEqualTo(kinds.get(Workload.Kind.VALID));
+        assertThat(report.getCount(DispenseResult.Outcome.PAYMENT_FAILED))
+                .isEqualTo(kinds.get(Workload.Kind.INVALID_COIN));
+        assertThat(report.getCount(DispenseResult.Outcome.ITEM_NOT_FOUND))
+                .isEqualTo(kinds.get(Workload.Kind.UNKNOWN_CODE));
+        assertThat(report.getCount(DispenseResult.Outcome.OUT_OF_STOCK))
+                .isEqualTo(kinds.get(Workload.Kind.OUT_OF_STOCK));
+        assertThat(report.latency().getCount()).isEqualTo(20_000);
+        assertThat(report.getThroughput()).isPositive();
+        assertThat(report.toString()).contains("purchases=20000", "p99=");
+    }
+
+    @Test
+    @DisplayName("Should spread purchases from many threads over many machines")
+    void testManyMachines() throws VendingMachineException {
+        List<VendingMachine> machines = List.of(stockedMachine(), stockedMachine(), stockedMachine());
+        LoadReport report = new LoadDriver(machines, Workload.of(machines.get(0)), 4, 5).closedLoop(5_000);
+
+        long sold = 0;
+        for (VendingMachine machine : machines) {
+            long soldHere = 0;
+            for (Item item : machine.getItems()) {
+                soldHere += item.getStock() == 0 ? 0 : STOCK - item.getStock();
+            }
+            assertThat(soldHere).isPositive();
+            sold += soldHere;
+        }
+        assertThat(report.getCount(DispenseResult.Outcome.SUCCESS)).isEqualTo(20_000).isEqualTo(sold);
+    }
+
+    @Test
+    @DisplayName("Should finish the run and keep the interrupt when the caller is interrupted")
+    void testInterrupted() throws VendingMachineException {
+        VendingMachine machine = stockedMachine();
+        Thread.currentThread().interrupt();
+
+        LoadReport report = new LoadDriver(List.of(machine), Workload.of(machine), 4, 3).closedLoop(5_000);
+
+        assertThat(Thread.interrupted()).isTrue();
+        assertThat(report.getCount(DispenseResult.Outcome.SUCCESS)).isEqualTo(20_000);
+        assertThat(report.latency().getCount()).isEqualTo(20_000);
+    }
+
+    @Test
+    @DisplayName("Should hold an open loop to its schedule")
+    void testOpenLoop() throws VendingMachineException {
+        VendingMachine machine = stockedMachine();
+        LoadReport report = new LoadDriver(List.of(machine), Workload.of(machine), 2, 1)
+                .openLoop(20_000, 1_000);
+
+        // 2,000 purchases at 20,000 a second cannot finish in under 0.1 s.
+        assertThat(report.elapsedNanos()).isGreaterThanOrEqualTo(95_000_000L);
+        assertThat(report.getThroughput()).isLessThan(21_000);
+        assertThat(report.getCount(DispenseResult.Outcome.SUCCESS)).isEqualTo(2_000);
+        assertThatThrownBy(() -> new LoadDriver(List.of(machine), Workload.of(machine), 1, 1).openLoop(0, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new LoadDriver(List.of(), Workload.of(machine), 1, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
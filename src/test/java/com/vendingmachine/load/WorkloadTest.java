@@ -0,0 +1,150 @@
+package com.vendingmachine.load;
+
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.model.Snack;
+import com.vendingmachine.service.VendingMachine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class WorkloadTest {
+
+    private static final int DRAWS = 100_000;
+
+    private VendingMachine machine;
+
+    @BeforeEach
+    void setUp() throws VendingMachineException {
+        machine = new VendingMachine();
+        for (int i = 1; i <= 3; i++) {
+            Snack snack = new Snack("S" + i, "Snack " + i, i + 1, LocalDate.now(), 30);
+            snack.setStock(10);
+            machine.addItem(snack);
+            Drink drink = new Drink("D" + i, "Drink " + i, i + 6, 330);
+            drink.setStock(i == 3 ? 0 : 10);
+            machine.addItem(drink);
+        }
+    }
+
+    @Test
+    @DisplayName("Should draw the same purchases for the same seed")
+    void testRepeatable() {
+        Workload workload = Workload.of(machine).withInvalidCoinRate(0.1).withUnknownCodeRate(0.1);
+        Workload.Generator first = workload.generator(42);
+        Workload.Generator second = workload.generator(42);
+        Workload.Generator other = workload.generator(43);
+
+        boolean differs = false;
+        for (int i = 0; i < 1_000; i++) {
+            Workload.Purchase purchase = first.next();
+            assertThat(second.next()).isEqualTo(purchase);
+            differs |= !other.next().equals(purchase);
+        }
+        assertThat(differs).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should favour the first slots by the Zipf exponent")
+    void testPopularity() {
+        Map<String, Integer> skewed = counts(Workload.of(machine));
+        Map<String, Integer> flat = counts(Workload.of(machine).withZipfExponent(0));
+
+        // Five stocked slots: S1 gets 1 / (1 + 1/2 + 1/3 + 1/4 + 1/5) of the sales.
+        assertThat(Workload.of(machine).getCodes()).containsExactly("S1", "S2", "S3", "D1", "D2");
+        assertThat(skewed.get("S1") / (double) DRAWS).isCloseTo(1 / 2.2833, within(0.01));
+        assertThat(skewed.get("S2")).isGreaterThan(skewed.get("S3"));
+        assertThat(skewed.get("D1")).isGreaterThan(skewed.get("D2"));
+        assertThat(flat.get("D2") / (double) DRAWS).isCloseTo(0.2, within(0.01));
+        assertThat(skewed).doesNotContainKey("D3");
+    }
+
+    private static Map<String, Integer> counts(Workload workload) {
+        Workload.Generator generator = workload.generator(7);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < DRAWS; i++) {
+            counts.merge(generator.next().code(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    @Test
+    @DisplayName("Should mix in invalid coins, unknown codes and sold-out slots at their rates")
+    void testErrorRates() {
+        Workload.Generator generator = Workload.of(machine)
+                .withInvalidCoinRate(0.1)
+                .withUnknownCodeRate(0.05)
+                .withOutOfStockRate(0.02)
+                .generator(1);
+        Map<Workload.Kind, Integer> kinds = new EnumMap<>(Workload.Kind.class);
+        for (int i = 0; i < DRAWS; i++) {
+            Workload.Purchase purchase = generator.next();
+            kinds.merge(purchase.kind(), 1, Integer::sum);
+            switch (purchase.kind()) {
+                case INVALID_COIN -> assertThat(purchase.coins()).anyMatch(coin -> !machine.isAcceptedCoin(coin));
+                case UNKNOWN_CODE -> assertThat(machine.getItem(purchase.code())).isNull();
+                case OUT_OF_STOCK -> assertThat(purchase.code()).isEqualTo("D3");
+                case VALID -> assertThat(purchase.coins()).allMatch(machine::isAcceptedCoin);
+            }
+        }
+
+        assertThat(kinds.get(Workload.Kind.UNKNOWN_CODE) / (double) DRAWS).isCloseTo(0.05, within(0.005));
+        assertThat(kinds.get(Workload.Kind.OUT_OF_STOCK) / (double) DRAWS).isCloseTo(0.02, within(0.005));
+        // Invalid coins apply to the 93% of purchases that target a stocked slot.
+        assertThat(kinds.get(Workload.Kind.INVALID_COIN) / (double) DRAWS).isCloseTo(0.093, within(0.005));
+    }
+
+    @Test
+    @DisplayName("Should pay exact, overpay or count out small coins in the configured mix")
+    void testPayments() {
+        Workload.Generator generator = Workload.of(machine).withPaymentMix(0.5, 0.3).generator(3);
+        int exact = 0;
+        int overpaid = 0;
+        int small = 0;
+        for (int i = 0; i < DRAWS; i++) {
+            Workload.Purchase purchase = generator.next();
+            int price = machine.getItem(purchase.code()).getPrice();
+            int paid = purchase.coins().stream().mapToInt(Integer::intValue).sum();
+            assertThat(paid).isGreaterThanOrEqualTo(price);
+            if (purchase.coins().stream().allMatch(coin -> coin == 1) && purchase.coins().size() > 1) {
+                small++;
+            } else if (paid == price) {
+                exact++;
+            } else {
+                overpaid++;
+            }
+        }
+
+        // S1 costs 2 and is paid the same way exactly or by overpaying, so
+        // those two shares only add up.
+        assertThat((exact + overpaid) / (double) DRAWS).isCloseTo(0.8, within(0.01));
+        assertThat(small / (double) DRAWS).isCloseTo(0.2, within(0.01));
+        assertThat(overpaid).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should reject rates outside 0 to 1 and sold-out purchases with no empty slot")
+    void testValidation() throws VendingMachineException {
+        Workload workload = Workload.of(machine);
+        assertThatThrownBy(() -> workload.withInvalidCoinRate(1.5)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> workload.withZipfExponent(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> workload.withPaymentMix(0.7, 0.4)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> workload.withUnknownCodeRate(0.6).withOutOfStockRate(0.6))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        machine.restockItem("D3", 5);
+        assertThatThrownBy(() -> Workload.of(machine).withOutOfStockRate(0.1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Workload.of(new VendingMachine()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,51 @@
+package com.vendingmachine.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Should map every value to a bucket whose top is within 3% above it")
+    void testBucketPrecision() {
+        for (long value = 0; value < 1_000_000; value += 7) {
+            assertBucketHolds(value);
+        }
+        for (long value = 1; value > 0 && value < (1L << 40); value = value * 3 + 1) {
+            assertBucketHolds(value);
+        }
+        assertThat(LatencyHistogram.bucketOf(Long.MAX_VALUE)).isEqualTo(LatencyHistogram.BUCKETS - 1);
+        assertThat(LatencyHistogram.bucketOf(-5)).isZero();
+    }
+
+    private static void assertBucketHolds(long value) {
+        int bucket = LatencyHistogram.bucketOf(value);
+        long top = LatencyHistogram.valueOf(bucket);
+        assertThat(bucket).isBetween(0, LatencyHistogram.BUCKETS - 1);
+        assertThat(top).isGreaterThanOrEqualTo(value);
+        assertThat(top - value).isLessThanOrEqualTo(value / 32);
+        if (bucket > 0) {
+            assertThat(LatencyHistogram.valueOf(bucket - 1)).isLessThan(value);
+        }
+    }
+
+    @Test
+    @DisplayName("Should report percentiles and max of recorded values")
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertThat(snapshot.getCount()).isEqualTo(1000);
+        assertThat((double) snapshot.getValueAtPercentile(50)).isCloseTo(500_000, within(16_000.0));
+        assertThat((double) snapshot.getValueAtPercentile(99)).isCloseTo(990_000, within(32_000.0));
+        assertThat((double) snapshot.getMax()).isCloseTo(1_000_000, within(32_000.0));
+        assertThat(new LatencyHistogram().snapshot().getValueAtPercentile(99)).isZero();
+    }
+}
@@ -0,0 +1,123 @@
+package com.vendingmachine.metrics;
+
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.model.DispenseResult.Outcome;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.model.PaymentResult;
+import com.vendingmachine.service.CoinFloat;
+import com.vendingmachine.service.CoinHandler;
+import com.vendingmachine.service.VendingMachine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VendingMetricsTest {
+
+    private VendingMachine machine;
+    private VendingMetrics metrics;
+
+    @BeforeEach
+    void setUp() throws VendingMachineException {
+        machine = new VendingMachine();
+        Drink cola = new Drink("D1", "Cola", 3, 330);
+        cola.setStock(1);
+        machine.addItem(cola);
+        Drink flat = new Drink("D2", "Flat Cola", 3, 10);
+        flat.setStock(1);
+        machine.addItem(flat);
+        metrics = new VendingMetrics(1);
+        machine.setMetrics(metrics);
+    }
+
+    @Test
+    @DisplayName("Should count each dispense and payment outcome")
+    void testOutcomes() {
+        machine.dispenseItem("D1", Arrays.asList(1));
+        machine.dispenseItem("D1", Arrays.asList(3, 7));
+        machine.dispenseItem("D1", Arrays.asList(5));
+        machine.dispenseItem("D1", Arrays.asList(5));
+        machine.dispenseItem("D2", Arrays.asList(5));
+        machine.dispenseItem("X9", Arrays.asList(5));
+
+        assertThat(metrics.getDispenseCount()).isEqualTo(6);
+        assertThat(metrics.getDispenseCount(Outcome.SUCCESS)).isEqualTo(1);
+        assertThat(metrics.getDispenseCount(Outcome.PAYMENT_FAILED)).isEqualTo(2);
+        assertThat(metrics.getDispenseCount(Outcome.OUT_OF_STOCK)).isEqualTo(1);
+        assertThat(metrics.getDispenseCount(Outcome.NOT_AVAILABLE)).isEqualTo(1);
+        assertThat(metrics.getDispenseCount(Outcome.ITEM_NOT_FOUND)).isEqualTo(1);
+
+        assertThat(metrics.getPaymentCount(PaymentResult.Outcome.SUCCESS)).isEqualTo(1);
+        assertThat(metrics.getPaymentCount(PaymentResult.Outcome.INSUFFICIENT_FUNDS)).isEqualTo(1);
+        assertThat(metrics.getPaymentCount(PaymentResult.Outcome.INVALID_COINS)).isEqualTo(1);
+
+        assertThat(metrics.getDispenseLatency().snapshot().getCount()).isEqualTo(6);
+        assertThat(metrics.getPaymentLatency().snapshot().getCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should count async and order purchases once, with payments as the float settles them")
+    void testPurchasePaths() throws Exception {
+        CoinHandler coinHandler = new CoinHandler();
+        machine = new VendingMachine(coinHandler, new CoinFloat(coinHandler, new int[]{0, 0, 0, 0}));
+        Drink cola = new Drink("D1", "Cola", 3, 330);
+        cola.setStock(5);
+        machine.addItem(cola);
+        machine.setMetrics(metrics);
+
+        assertThat(machine.dispenseItemAsync("D1", Arrays.asList(5)).get().isSuccess()).isFalse();
+        assertThat(machine.dispenseItemAsync("D1", Arrays.asList(2, 1)).get().isSuccess()).isTrue();
+        assertThat(machine.dispenseOrder(Map.of("D1", 2), Arrays.asList(5, 1)).isSuccess()).isTrue();
+        assertThat(machine.dispenseOrder(Map.of("D1", 9), Arrays.asList(10)).isSuccess()).isFalse();
+
+        assertThat(metrics.getDispenseCount()).isEqualTo(4);
+        assertThat(metrics.getDispenseSuccesses()).isEqualTo(2);
+        assertThat(metrics.getDispensePaymentFailures()).isEqualTo(1);
+        assertThat(metrics.getOutOfStock()).isEqualTo(1);
+        assertThat(metrics.getPaymentSuccesses()).isEqualTo(2);
+        assertThat(metrics.getNoExactChange()).isEqualTo(1);
+        assertThat(metrics.getPaymentCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should time only a sample of calls but count all of them")
+    void testSampling() {
+        VendingMetrics sampled = new VendingMetrics(64);
+        machine.setMetrics(sampled);
+
+        for (int i = 0; i < 6400; i++) {
+            machine.dispenseItem("X9", Arrays.asList(5));
+        }
+
+        assertThat(sampled.getItemNotFound()).isEqualTo(6400);
+        assertThat(sampled.getDispenseLatency().snapshot().getCount()).isBetween(40L, 200L);
+        assertThat(sampled.writeText(new StringBuilder()).toString())
+                .contains("vending_dispense_latency_nanos_count 6400\n")
+                .containsPattern("vending_dispense_latency_nanos_sum [1-9]\\d*\n");
+        assertThatThrownBy(() -> new VendingMetrics(3)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should publish the counters over JMX")
+    void testJmx() throws Exception {
+        machine.dispenseItem("D1", Arrays.asList(5));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        ObjectName name = metrics.register("test-" + System.nanoTime());
+        try {
+            assertThat(server.getAttribute(name, "DispenseSuccesses")).isEqualTo(1L);
+            assertThat(server.getAttribute(name, "PaymentCount")).isEqualTo(1L);
+            assertThat((Long) server.getAttribute(name, "DispenseLatencyMaxNanos")).isPositive();
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
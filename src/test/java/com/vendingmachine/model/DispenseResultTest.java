@@ -0,0 +1,72 @@
+package com.vendingmachine.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DispenseResultTest {
+
+    @Test
+    @DisplayName("Should carry an outcome code and format the message only when asked")
+    void testOutcomesAndMessages() {
+        Drink cola = new Drink("D1", "Cola", 2, 330);
+        Drink flat = new Drink("D2", "Flat Cola", 2, 20);
+        Snack chips = new Snack("S1", "Chips", 2, LocalDate.now().minusDays(10), 5);
+
+        assertResult(DispenseResult.success(cola, Arrays.asList(1)),
+            DispenseResult.Outcome.SUCCESS, "Successfully dispensed: Cola");
+        assertResult(DispenseResult.itemNotFound("X9"),
+            DispenseResult.Outcome.ITEM_NOT_FOUND, "Item not found: X9");
+        assertResult(DispenseResult.outOfStock(cola),
+            DispenseResult.Outcome.OUT_OF_STOCK, "Cola is out of stock");
+        assertResult(DispenseResult.cannotDispense(flat),
+            DispenseResult.Outcome.NOT_AVAILABLE, "Flat Cola is not available: Volume too low (20ml)");
+        assertResult(DispenseResult.cannotDispense(chips),
+            DispenseResult.Outcome.NOT_AVAILABLE, "Chips is not available: Product has expired");
+        assertResult(DispenseResult.paymentFailed(PaymentResult.insufficientFunds(1, 2)),
+            DispenseResult.Outcome.PAYMENT_FAILED, "Insufficient funds. Paid: $1, Required: $2");
+        assertResult(DispenseResult.reservationEnded(cola),
+            DispenseResult.Outcome.HOLD_EXPIRED, "Your hold on Cola has expired");
+    }
+
+    private static void assertResult(DispenseResult result, DispenseResult.Outcome outcome, String message) {
+        assertThat(result.getOutcome()).isEqualTo(outcome);
+        assertThat(result.isSuccess()).isEqualTo(outcome == DispenseResult.Outcome.SUCCESS);
+        assertThat(result.getMessage()).isEqualTo(message).isSameAs(result.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should format payment failures from their recorded amounts")
+    void testPaymentMessages() {
+        assertThat(PaymentResult.noExactChange(10, 3).getMessage()).isEqualTo("Unable to return exact change of $3");
+        assertThat(PaymentResult.invalidCoins(Arrays.asList(3, 7)).getOutcome())
+            .isEqualTo(PaymentResult.Outcome.INVALID_COINS);
+        assertThat(PaymentResult.invalidCoins(Arrays.asList(3, 7)).getMessage())
+            .isEqualTo("Invalid coins detected: [3, 7]");
+        assertThat(PaymentResult.success(5, Arrays.asList(2, 1)).getMessage()).isEqualTo("Payment successful");
+        assertThat(OrderResult.emptyOrder()).isSameAs(OrderResult.emptyOrder());
+    }
+
+    @Test
+    @DisplayName("Should format order messages on request from the stock seen at refusal")
+    void testOrderMessages() {
+        Drink cola = new Drink("D1", "Cola", 3, 330);
+        cola.setStock(1);
+        OrderResult shortOrder = OrderResult.insufficientStock(cola, 2);
+        cola.setStock(0);
+
+        assertThat(shortOrder.getOutcome()).isEqualTo(OrderResult.Outcome.INSUFFICIENT_STOCK);
+        assertThat(shortOrder.getMessage()).isEqualTo("Only 1 of Cola left, 2 requested");
+        assertThat(OrderResult.itemNotFound("X9").getMessage()).isEqualTo("Item not found: X9");
+        assertThat(OrderResult.paymentFailed(PaymentResult.noExactChange(10, 5)).getMessage())
+            .isEqualTo("Unable to return exact change of $5");
+        assertThat(OrderResult.success(Map.of("D1", 2), 6, List.of()).getMessage())
+            .isEqualTo("Successfully dispensed 2 items for $6");
+    }
+}
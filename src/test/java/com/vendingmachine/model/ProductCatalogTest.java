@@ -0,0 +1,84 @@
+package com.vendingmachine.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCatalogTest {
+
+    @Test
+    @DisplayName("Should return the same instance for equal products")
+    void testInterning() {
+        ProductCatalog catalog = new ProductCatalog();
+
+        Product chips = catalog.intern("Chips", 2);
+        Product again = catalog.intern(new String("Chips"), 2);
+        Product pricier = catalog.intern("Chips", 3);
+
+        assertThat(again).isSameAs(chips);
+        assertThat(pricier).isNotSameAs(chips);
+        assertThat(catalog.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should number products densely and look them up by id")
+    void testLookupById() {
+        ProductCatalog catalog = new ProductCatalog();
+        for (int i = 0; i < 100; i++) {
+            assertThat(catalog.intern("Product " + i, i).getId()).isEqualTo(i);
+        }
+
+        assertThat(catalog.get(42).getDescription()).isEqualTo("Product 42");
+        assertThat(catalog.get(100)).isNull();
+        assertThat(catalog.get(-1)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should keep snack and drink attributes part of product identity")
+    void testTypedProducts() {
+        ProductCatalog catalog = new ProductCatalog();
+        LocalDate made = LocalDate.of(2024, 1, 1);
+
+        SnackProduct chips = catalog.internSnack("Chips", 2, made, 30);
+        assertThat(catalog.internSnack("Chips", 2, made, 30)).isSameAs(chips);
+        assertThat(catalog.internSnack("Chips", 2, made, 60)).isNotSameAs(chips);
+        assertThat(catalog.intern("Chips", 2)).isNotSameAs(chips);
+
+        DrinkProduct cola = catalog.internDrink("Cola", 3, 330, 50);
+        assertThat(catalog.internDrink("Cola", 3, 330, 50)).isSameAs(cola);
+        assertThat(catalog.get(cola.getId())).isSameAs(cola);
+    }
+
+    @Test
+    @DisplayName("Should drop a product from a weak catalog once nothing uses it")
+    void testWeakCatalog() throws InterruptedException {
+        ProductCatalog catalog = ProductCatalog.weak();
+        Product kept = catalog.intern("Chips", 2);
+        catalog.intern("Cola", 3);
+
+        assertThat(catalog.intern(new String("Chips"), 2)).isSameAs(kept);
+        assertThat(kept.getId()).isEqualTo(-1);
+        for (int i = 0; i < 50 && catalog.size() > 1; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertThat(catalog.size()).isEqualTo(1);
+        assertThat(catalog.intern("Chips", 2)).isSameAs(kept);
+    }
+
+    @Test
+    @DisplayName("Should share one product between slots stocking it")
+    void testItemsShareProduct() {
+        Snack first = new Snack("S1", "Shared Chips", 2, LocalDate.of(2024, 1, 1), 30);
+        Snack second = new Snack("S2", "Shared Chips", 2, LocalDate.of(2024, 1, 1), 30);
+        first.setStock(4);
+
+        assertThat(second.getProduct()).isSameAs(first.getProduct());
+        assertThat(second.getDescription()).isSameAs(first.getDescription());
+        assertThat(second.getStock()).isZero();
+    }
+}
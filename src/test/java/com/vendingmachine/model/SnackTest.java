@@ -3,7 +3,9 @@ package com.vendingmachine.model;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 
+import java.time.Clock;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -200,4 +202,66 @@ class SnackTest {
         assertThat(expiredSnack.canDispense()).isFalse();
         assertThat(expiredSnack.getItemDetails()).contains("EXPIRED");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should evaluate expiry against the injected clock")
+    void testInjectedClock() {
+        SnackProduct product = ProductCatalog.shared()
+                .internSnack("Clocked Chips", 2, LocalDate.of(2024, 1, 1), 30);
+        ExpiryClock lastDay = new ExpiryClock(fixedAt(LocalDate.of(2024, 1, 31)));
+        ExpiryClock dayAfter = new ExpiryClock(fixedAt(LocalDate.of(2024, 2, 1)));
+
+        Snack onLastDay = new Snack("S1", product, lastDay);
+        Snack onDayAfter = new Snack("S2", product, dayAfter);
+        onLastDay.setStock(1);
+        onDayAfter.setStock(1);
+
+        assertThat(onLastDay.isExpired()).isFalse();
+        assertThat(onLastDay.getDaysUntilExpiry()).isZero();
+        assertThat(onLastDay.canDispense()).isTrue();
+        assertThat(onDayAfter.isExpired()).isTrue();
+        assertThat(onDayAfter.canDispense()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should stop dispensing a withdrawn snack")
+    void testWithdrawn() {
+        Snack snack = new Snack("S1", "Chips", 2, LocalDate.now(), 30);
+        snack.setStock(5);
+
+        snack.withdraw();
+
+        assertThat(snack.isWithdrawn()).isTrue();
+        assertThat(snack.canDispense()).isFalse();
+        assertThat(snack.getItemDetails()).contains("EXPIRED");
+    }
+
+    private static Clock fixedAt(LocalDate date) {
+        return Clock.fixed(date.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+    }
+
+    @Test
+    @DisplayName("Should retire a replaced snack and continue its stock version")
+    void testReplace() {
+        Snack snack = new Snack("S1", "Chips", 2, LocalDate.now().minusDays(40), 30);
+        snack.setStock(3);
+        snack.withdraw();
+
+        Item sameBatch = snack.replace(snack.getProduct(), -1);
+        assertThat(sameBatch).isInstanceOf(Snack.class);
+        assertThat(sameBatch.getStock()).isEqualTo(3);
+        assertThat(((Snack) sameBatch).isWithdrawn()).isTrue();
+        assertThat(sameBatch.getStockVersion()).isEqualTo(snack.getStockVersion() + 1);
+        assertThat(snack.isRetired()).isTrue();
+        assertThat(snack.getStock()).isZero();
+        assertThat(snack.incrementAndGetState()).isEqualTo(Item.NO_STOCK);
+        assertThat(snack.decrementAndGetState()).isEqualTo(Item.NO_STOCK);
+        assertThatThrownBy(() -> snack.replace(snack.getProduct(), 1)).isInstanceOf(IllegalStateException.class);
+
+        SnackProduct fresh = ProductCatalog.shared().internSnack("Chips", 2, LocalDate.now(), 30);
+        Snack newBatch = (Snack) sameBatch.replace(fresh, 5);
+        assertThat(newBatch.isWithdrawn()).isFalse();
+        assertThat(newBatch.canDispense()).isTrue();
+        assertThat(newBatch.getStock()).isEqualTo(5);
+    }
+}
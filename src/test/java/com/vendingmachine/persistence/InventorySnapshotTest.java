@@ -0,0 +1,133 @@
+package com.vendingmachine.persistence;
+
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.model.Item;
+import com.vendingmachine.model.Snack;
+import com.vendingmachine.service.VendingMachine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InventorySnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should round-trip snacks and drinks with all their fields")
+    void testRoundTrip() throws IOException, VendingMachineException {
+        VendingMachine machine = new VendingMachine();
+        Snack snack = new Snack("S1", "Crème Brûlée Bar", 3, LocalDate.of(2026, 3, 14), 45);
+        snack.setStock(7);
+        machine.addItem(snack);
+        Drink drink = new Drink("D1", "Cola", 2, 330, 80);
+        drink.setStock(4);
+        machine.addItem(drink);
+
+        Path path = tempDir.resolve("inventory.snapshot");
+        InventorySnapshot.write(machine, 42, path);
+        InventorySnapshot snapshot = InventorySnapshot.read(path);
+
+        assertThat(snapshot.getJournalSequence()).isEqualTo(42);
+        VendingMachine restored = snapshot.restore(new VendingMachine());
+
+        Snack restoredSnack = (Snack) restored.getItem("S1");
+        assertThat(restoredSnack.getDescription()).isEqualTo("Crème Brûlée Bar");
+        assertThat(restoredSnack.getPrice()).isEqualTo(3);
+        assertThat(restoredSnack.getStock()).isEqualTo(7);
+        assertThat(restoredSnack.getStockVersion()).isEqualTo(snack.getStockVersion());
+        assertThat(restoredSnack.getManufactureDate()).isEqualTo(LocalDate.of(2026, 3, 14));
+        assertThat(restoredSnack.getShelfLifeDays()).isEqualTo(45);
+
+        Drink restoredDrink = (Drink) restored.getItem("D1");
+        assertThat(restoredDrink.getVolumeMl()).isEqualTo(330);
+        assertThat(restoredDrink.getMinVolumeThreshold()).isEqualTo(80);
+        assertThat(restoredDrink.getStock()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should recover from the snapshot plus the journal tail")
+    void testRecoverWithJournalTail() throws IOException, VendingMachineException {
+        Path snapshotPath = tempDir.resolve("inventory.snapshot");
+        Path journalPath = tempDir.resolve("transactions.journal");
+
+        try (TransactionJournal journal = new TransactionJournal(journalPath, FsyncPolicy.NEVER)) {
+            VendingMachine machine = new VendingMachine();
+            machine.setTransactionLog(journal);
+            Snack snack = new Snack("S1", "Chips", 2, LocalDate.now(), 30);
+            snack.setStock(10);
+            machine.addItem(snack);
+            machine.dispenseItem("S1", Arrays.asList(2));
+
+            try (SnapshotScheduler scheduler = new SnapshotScheduler(machine, journal, snapshotPath, 60_000)) {
+                scheduler.snapshotNow();
+            }
+
+            machine.dispenseItem("S1", Arrays.asList(2));
+            machine.dispenseItem("S1", Arrays.asList(2));
+        }
+
+        try (TransactionJournal journal = new TransactionJournal(journalPath, FsyncPolicy.NEVER)) {
+            VendingMachine recovered = InventorySnapshot.recover(snapshotPath, journal);
+
+            assertThat(recovered.getItem("S1").getStock()).isEqualTo(7);
+        }
+    }
+
+    @Test
+    @DisplayName("Should not double-apply journal records already in a fuzzy snapshot")
+    void testFuzzySnapshotIsIdempotent() throws IOException, VendingMachineException {
+        Path snapshotPath = tempDir.resolve("inventory.snapshot");
+        Path journalPath = tempDir.resolve("transactions.journal");
+
+        try (TransactionJournal journal = new TransactionJournal(journalPath, FsyncPolicy.NEVER)) {
+            VendingMachine machine = new VendingMachine();
+            machine.setTransactionLog(journal);
+            Snack snack = new Snack("S1", "Chips", 2, LocalDate.now(), 30);
+            snack.setStock(10);
+            machine.addItem(snack);
+
+            // Sequence read before the sales, state read after: the tail overlaps the snapshot
+            long sequence = journal.getNextSequence();
+            machine.dispenseItem("S1", Arrays.asList(2));
+            machine.dispenseItem("S1", Arrays.asList(2));
+            InventorySnapshot.write(machine, sequence, snapshotPath);
+        }
+
+        try (TransactionJournal journal = new TransactionJournal(journalPath, FsyncPolicy.NEVER)) {
+            VendingMachine recovered = InventorySnapshot.recover(snapshotPath, journal);
+
+            assertThat(recovered.getItem("S1").getStock()).isEqualTo(8);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a corrupted snapshot")
+    void testCorruptedSnapshot() throws IOException, VendingMachineException {
+        VendingMachine machine = new VendingMachine();
+        Item drink = new Drink("D1", "Water", 1, 500);
+        machine.addItem(drink);
+        Path path = tempDir.resolve("inventory.snapshot");
+        InventorySnapshot.write(machine, 0, path);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x55}), 20);
+        }
+
+        assertThatThrownBy(() -> InventorySnapshot.read(path))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("checksum");
+    }
+}
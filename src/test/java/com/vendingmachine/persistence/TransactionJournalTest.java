@@ -0,0 +1,249 @@
+package com.vendingmachine.persistence;
+
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.model.Snack;
+import com.vendingmachine.service.RestockBatch;
+import com.vendingmachine.service.TransactionLog;
+import com.vendingmachine.service.VendingMachine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionJournalTest {
+
+    private static final int SMALL_REGION = 64 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should replay appended records in order after reopening")
+    void testReplayAfterReopen() throws IOException {
+        Path file = tempDir.resolve("journal.log");
+        try (TransactionJournal journal = new TransactionJournal(file, FsyncPolicy.ALWAYS)) {
+            journal.recordStock("S1", 5, 1);
+            journal.recordSale("S1", 4, 2, 2, 5, 3);
+            journal.recordStock("D1", 8, 1);
+        }
+
+        try (TransactionJournal journal = new TransactionJournal(file, FsyncPolicy.NEVER)) {
+            List<String> records = new ArrayList<>();
+            long delivered = journal.replay(0, recorder(records));
+
+            assertThat(delivered).isEqualTo(3);
+            assertThat(records).containsExactly("stock S1 5@1", "sale S1 4@2 2 5 3", "stock D1 8@1");
+            assertThat(journal.getNextSequence()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    @DisplayName("Should continue the sequence and skip records before the requested one")
+    void testAppendAfterReopenAndReplayFrom() throws IOException {
+        Path file = tempDir.resolve("journal.log");
+        try (TransactionJournal journal = new TransactionJournal(file, FsyncPolicy.NEVER)) {
+            journal.recordStock("S1", 1, 1);
+            journal.recordStock("S1", 2, 2);
+        }
+        try (TransactionJournal journal = new TransactionJournal(file, FsyncPolicy.NEVER)) {
+            journal.recordStock("S1", 3, 3);
+
+            List<String> records = new ArrayList<>();
+            journal.replay(1, recorder(records));
+
+            assertThat(records).containsExactly("stock S1 2@2", "stock S1 3@3");
+        }
+    }
+
+    @Test
+    @DisplayName("Should roll records over into new mapped regions")
+    void testRegionRollover() throws IOException {
+        Path file = tempDir.resolve("journal.log");
+        int count = 20_000;
+        try (TransactionJournal journal = new TransactionJournal(file, FsyncPolicy.PERIODIC, 1, SMALL_REGION)) {
+            for (int i = 0; i < count; i++) {
+                journal.recordSale("S" + (i % 7), 0, i, 2, i, i - 2);
+            }
+        }
+        assertThat(Files.size(file)).isGreaterThan(SMALL_REGION);
+
+        try (TransactionJournal journal = new TransactionJournal(file, FsyncPolicy.NEVER, 1, SMALL_REGION)) {
+            int[] expected = {0};
+            long delivered = journal.replay(0, new TransactionLog() {
+                @Override
+                public void recordStock(String code, int stock, int version) {
+                    throw new AssertionError("unexpected stock record");
+                }
+
+                @Override
+                public void recordSale(String code, int stock, int version,
+                                       int price, int totalPaid, int changeAmount) {
+                    assertThat(code).isEqualTo("S" + (expected[0] % 7));
+                    assertThat(totalPaid).isEqualTo(expected[0]);
+                    expected[0]++;
+                }
+            });
+            assertThat(delivered).isEqualTo(count);
+        }
+    }
+
+    @Test
+    @DisplayName("Should stop replay at a torn record and overwrite it on the next append")
+    void testTornTail() throws IOException {
+        Path file = tempDir.resolve("journal.log");
+        try (TransactionJournal journal = new TransactionJournal(file, FsyncPolicy.ALWAYS)) {
+            journal.recordStock("S1", 5, 1);
+            journal.recordStock("S2", 6, 1);
+        }
+        // Corrupt one payload byte of the second record so its checksum no longer matches
+        long secondRecordStock = 16 + 29 + 29 - 8;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7F}), secondRecordStock);
+        }
+
+        try (TransactionJournal journal = new TransactionJournal(file, FsyncPolicy.NEVER)) {
+            List<String> records = new ArrayList<>();
+            journal.replay(0, recorder(records));
+            assertThat(records).containsExactly("stock S1 5@1");
+
+            journal.recordStock("S3", 7, 1);
+            records.clear();
+            journal.replay(0, recorder(records));
+            assertThat(records).containsExactly("stock S1 5@1", "stock S3 7@1");
+        }
+    }
+
+    @Test
+    @DisplayName("Should clear records behind a torn one so they cannot follow a later append")
+    void testStaleRecordsAfterTornTail() throws IOException {
+        Path file = tempDir.resolve("journal.log");
+        try (TransactionJournal journal = new TransactionJournal(file, FsyncPolicy.ALWAYS)) {
+            journal.recordStock("S1", 5, 1);
+            journal.recordStock("S2", 6, 1);
+            journal.recordStock("S3", 7, 1);
+        }
+        long secondRecordStock = 16 + 29 + 29 - 8;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7F}), secondRecordStock);
+        }
+
+        // The new record is exactly as long as the torn one, so the intact
+        // third record, sequence 2, would follow it on the next open.
+        try (TransactionJournal journal = new TransactionJournal(file, FsyncPolicy.ALWAYS)) {
+            journal.recordStock("S4", 8, 1);
+        }
+
+        try (TransactionJournal journal = new TransactionJournal(file, FsyncPolicy.NEVER)) {
+            List<String> records = new ArrayList<>();
+            journal.replay(0, recorder(records));
+            assertThat(records).containsExactly("stock S1 5@1", "stock S4 8@1");
+            assertThat(journal.getNextSequence()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    @DisplayName("Should rebuild machine stock from the journal")
+    void testRecoverVendingMachine() throws IOException, VendingMachineException {
+        Path file = tempDir.resolve("journal.log");
+        try (TransactionJournal journal = new TransactionJournal(file, FsyncPolicy.ALWAYS)) {
+            VendingMachine machine = newMachine();
+            machine.setTransactionLog(journal);
+            machine.getItem("S1").setStock(0);
+            machine.restockItem("S1", 4);
+            machine.restockItem("D1", 3);
+            machine.dispenseItem("S1", Arrays.asList(2));
+            machine.dispenseItem("S1", Arrays.asList(5));
+            machine.dispenseItem("D1", Arrays.asList(1));
+            machine.dispenseItem("D1", Arrays.asList(7)); // invalid coin, not journaled
+        }
+
+        try (TransactionJournal journal = new TransactionJournal(file, FsyncPolicy.NEVER)) {
+            VendingMachine recovered = newMachine();
+            journal.recover(recovered, 0);
+
+            assertThat(recovered.getItem("S1").getStock()).isEqualTo(2);
+            assertThat(recovered.getItem("D1").getStock()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    @DisplayName("Should rebuild price and date changes from a restock batch")
+    void testRecoverRestockBatch() throws IOException, VendingMachineException {
+        Path file = tempDir.resolve("journal.log");
+        LocalDate fresh = LocalDate.now().plusDays(1);
+        try (TransactionJournal journal = new TransactionJournal(file, FsyncPolicy.ALWAYS)) {
+            VendingMachine machine = newMachine();
+            machine.setTransactionLog(journal);
+            machine.restockItem("S1", 4);
+            machine.restockItem("D1", 3);
+            machine.restock(new RestockBatch()
+                    .manufactureDate("S1", fresh)
+                    .price("D1", 2));
+            machine.dispenseItem("D1", Arrays.asList(2));
+        }
+
+        try (TransactionJournal journal = new TransactionJournal(file, FsyncPolicy.NEVER)) {
+            VendingMachine recovered = newMachine();
+            journal.recover(recovered, 0);
+
+            Snack chips = (Snack) recovered.getItem("S1");
+            assertThat(chips.getManufactureDate()).isEqualTo(fresh);
+            assertThat(chips.getPrice()).isEqualTo(2);
+            assertThat(chips.getStock()).isEqualTo(4);
+            assertThat(recovered.getItem("D1").getPrice()).isEqualTo(2);
+            assertThat(recovered.getItem("D1").getStock()).isEqualTo(2);
+
+            // Replaying again over the recovered machine changes nothing.
+            journal.recover(recovered, 0);
+            assertThat(recovered.getItem("S1")).isSameAs(chips);
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse to open a file that is not a journal")
+    void testRejectsForeignFile() throws IOException {
+        Path file = tempDir.resolve("other.bin");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+        assertThatThrownBy(() -> new TransactionJournal(file, FsyncPolicy.NEVER))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Not a transaction journal");
+    }
+
+    private VendingMachine newMachine() throws VendingMachineException {
+        VendingMachine machine = new VendingMachine();
+        machine.addItem(new Snack("S1", "Chips", 2, LocalDate.now(), 30));
+        machine.addItem(new Drink("D1", "Water", 1, 500));
+        return machine;
+    }
+
+    private TransactionLog recorder(List<String> records) {
+        return new TransactionLog() {
+            @Override
+            public void recordStock(String code, int stock, int version) {
+                records.add("stock " + code + " " + stock + "@" + version);
+            }
+
+            @Override
+            public void recordSale(String code, int stock, int version,
+                                   int price, int totalPaid, int changeAmount) {
+                records.add("sale " + code + " " + stock + "@" + version
+                        + " " + price + " " + totalPaid + " " + changeAmount);
+            }
+        };
+    }
+}
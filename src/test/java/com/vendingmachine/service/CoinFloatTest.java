@@ -0,0 +1,134 @@
+package com.vendingmachine.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CoinFloatTest {
+
+    private CoinHandler coinHandler;
+    private int[] changeCounts;
+
+    @BeforeEach
+    void setUp() {
+        coinHandler = new CoinHandler();
+        changeCounts = new int[4];
+    }
+
+    @Test
+    @DisplayName("Should use greedy change when the float covers it")
+    void testGreedyChangeWhenAvailable() {
+        CoinFloat coinFloat = new CoinFloat(coinHandler, new int[]{10, 10, 10, 10});
+
+        assertThat(coinFloat.findChange(18, changeCounts)).isTrue();
+
+        assertThat(changeCounts).containsExactly(1, 1, 1, 1);
+    }
+
+    @Test
+    @DisplayName("Should find exact change that greedy selection would miss")
+    void testExactChangeWhereGreedyFails() {
+        // $6 from {3 x $2, 1 x $5}: greedy takes the $5 and is left needing $1
+        CoinFloat coinFloat = new CoinFloat(coinHandler, new int[]{0, 3, 1, 0});
+
+        assertThat(coinFloat.findChange(6, changeCounts)).isTrue();
+
+        assertThat(changeCounts).containsExactly(0, 3, 0, 0);
+    }
+
+    @Test
+    @DisplayName("Should pick the fewest coins available")
+    void testFewestCoinsUnderSupply() {
+        CoinFloat coinFloat = new CoinFloat(coinHandler, new int[]{20, 1, 3, 0});
+
+        assertThat(coinFloat.findChange(17, changeCounts)).isTrue();
+
+        assertThat(changeCounts).containsExactly(0, 1, 3, 0);
+    }
+
+    @Test
+    @DisplayName("Should refuse change that the float cannot make")
+    void testImpossibleChange() {
+        CoinFloat coinFloat = new CoinFloat(coinHandler, new int[]{0, 4, 0, 1});
+
+        assertThat(coinFloat.canMakeChange(3)).isFalse();
+        assertThat(coinFloat.canMakeChange(19)).isFalse();
+        assertThat(coinFloat.canMakeChange(18)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should credit inserted coins and debit change on settle")
+    void testSettle() {
+        CoinFloat coinFloat = new CoinFloat(coinHandler, new int[]{0, 0, 0, 0});
+
+        // Pays $10 for a $5 item; the float is empty, so the change has to come from... nowhere
+        assertThat(coinFloat.settle(new int[]{0, 0, 0, 1}, 5, changeCounts)).isFalse();
+        assertThat(coinFloat.getCounts()).containsExactly(0, 0, 0, 0);
+
+        // Pays $5 + $2 + $1 for a $6 item; the inserted $2 goes straight back as change
+        assertThat(coinFloat.settle(new int[]{1, 1, 1, 0}, 2, changeCounts)).isTrue();
+        assertThat(changeCounts).containsExactly(0, 1, 0, 0);
+        assertThat(coinFloat.getCounts()).containsExactly(1, 0, 1, 0);
+        assertThat(coinFloat.getTotal()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Should agree with brute force on random floats")
+    void testMatchesBruteForce() {
+        Random random = new Random(7);
+        for (int round = 0; round < 300; round++) {
+            int[] counts = new int[4];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = random.nextInt(6);
+            }
+            CoinFloat coinFloat = new CoinFloat(coinHandler, counts);
+            int amount = random.nextInt(60);
+
+            boolean found = coinFloat.findChange(amount, changeCounts);
+            int expected = bruteForceMinCoins(counts, amount);
+
+            if (expected < 0) {
+                assertThat(found).isFalse();
+            } else {
+                assertThat(found).isTrue();
+                assertThat(coinHandler.totalOfCounts(changeCounts)).isEqualTo(amount);
+                assertThat(changeCounts[0] + changeCounts[1] + changeCounts[2] + changeCounts[3])
+                        .isEqualTo(expected);
+                for (int i = 0; i < counts.length; i++) {
+                    assertThat(changeCounts[i]).isLessThanOrEqualTo(counts[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a count vector of the wrong size")
+    void testWrongCountVector() {
+        assertThatThrownBy(() -> new CoinFloat(coinHandler, new int[]{1, 2}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private int bruteForceMinCoins(int[] counts, int amount) {
+        int best = -1;
+        for (int a = 0; a <= counts[0]; a++) {
+            for (int b = 0; b <= counts[1]; b++) {
+                for (int c = 0; c <= counts[2]; c++) {
+                    for (int d = 0; d <= counts[3]; d++) {
+                        if (a + 2 * b + 5 * c + 10 * d == amount) {
+                            int coins = a + b + c + d;
+                            if (best < 0 || coins < best) {
+                                best = coins;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+}
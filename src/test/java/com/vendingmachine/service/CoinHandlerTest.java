@@ -294,4 +294,76 @@ class CoinHandlerTest {
         assertThat(coinHandler.validateCoins(emptyCoins)).isFalse();
         assertThat(coinHandler.calculateChange(0)).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should process payment from coin counts and fill change counts")
+    void testProcessPaymentWithCounts() {
+        int[] coinCounts = {0, 1, 0, 1}; // $2 + $10
+        int[] changeCounts = new int[4];
+
+        int changeAmount = coinHandler.processPayment(coinCounts, 3, changeCounts);
+
+        assertThat(changeAmount).isEqualTo(9);
+        assertThat(changeCounts).containsExactly(0, 2, 1, 0);
+        assertThat(coinHandler.toCoins(changeCounts)).containsExactly(5, 2, 2);
+    }
+
+    @Test
+    @DisplayName("Should report insufficient funds and invalid counts as status codes")
+    void testProcessPaymentWithCountsFailures() {
+        int[] changeCounts = new int[4];
+
+        assertThat(coinHandler.processPayment(new int[]{1, 0, 0, 0}, 5, changeCounts))
+                .isEqualTo(CoinHandler.INSUFFICIENT_FUNDS);
+        assertThat(coinHandler.processPayment(new int[]{-1, 0, 0, 1}, 5, changeCounts))
+                .isEqualTo(CoinHandler.INVALID_COINS);
+        assertThat(coinHandler.processPayment(new int[]{1, 0}, 1, changeCounts))
+                .isEqualTo(CoinHandler.INVALID_COINS);
+    }
+
+    @Test
+    @DisplayName("Should convert between coin lists and coin counts")
+    void testCountConversions() {
+        int[] counts = coinHandler.toCounts(Arrays.asList(10, 1, 5, 1, 2));
+
+        assertThat(counts).containsExactly(2, 1, 1, 1);
+        assertThat(coinHandler.totalOfCounts(counts)).isEqualTo(19);
+        assertThat(coinHandler.toCoins(counts)).containsExactly(10, 5, 2, 1, 1);
+    }
+
+    @Test
+    @DisplayName("Should give fewest-coins change for a non-canonical denomination set")
+    void testNonCanonicalDenominations() {
+        CoinHandler handler = new CoinHandler(Denominations.of(1, 3, 4));
+
+        // Greedy would return 4 + 1 + 1
+        assertThat(handler.calculateChange(6)).containsExactly(3, 3);
+        assertThat(handler.validateCoins(Arrays.asList(1, 3, 4))).isTrue();
+        assertThat(handler.validateCoins(Arrays.asList(2))).isFalse();
+        assertThat(handler.formatAcceptedCoins()).isEqualTo("Accepted coins: $1, $3, $4");
+    }
+
+    @Test
+    @DisplayName("Should fail payment when change cannot be made from the denominations")
+    void testNoExactChange() {
+        CoinHandler handler = new CoinHandler(Denominations.of(2, 5));
+        int[] changeCounts = new int[2];
+
+        assertThat(handler.processPayment(new int[]{0, 1}, 1, changeCounts)).isEqualTo(4);
+        assertThat(changeCounts).containsExactly(2, 0);
+        assertThat(handler.processPayment(new int[]{0, 1}, 2, changeCounts))
+                .isEqualTo(CoinHandler.NO_EXACT_CHANGE);
+
+        PaymentResult result = handler.processPayment(Arrays.asList(5), 4);
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getMessage()).contains("exact change");
+    }
+
+    @Test
+    @DisplayName("Should fall back past the change ceiling using the largest coin")
+    void testChangeAboveCeiling() {
+        CoinHandler handler = new CoinHandler(Denominations.withChangeCeiling(20, 1, 2, 5, 10));
+
+        assertThat(handler.calculateChange(48)).containsExactly(10, 10, 10, 10, 5, 2, 1);
+    }
+}
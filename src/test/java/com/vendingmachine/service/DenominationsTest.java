@@ -0,0 +1,76 @@
+package com.vendingmachine.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DenominationsTest {
+
+    @Test
+    @DisplayName("Should sort denominations and index them by value")
+    void testIndexing() {
+        Denominations denominations = Denominations.of(25, 5, 10, 1);
+
+        assertThat(denominations.asList()).containsExactly(1, 5, 10, 25);
+        assertThat(denominations.indexOf(10)).isEqualTo(2);
+        assertThat(denominations.accepts(25)).isTrue();
+        assertThat(denominations.accepts(2)).isFalse();
+        assertThat(denominations.accepts(-1)).isFalse();
+        assertThat(denominations.accepts(1000)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should precompute fewest-coins change for every amount")
+    void testChangeTableIsOptimal() {
+        Denominations denominations = Denominations.withChangeCeiling(200, 1, 7, 10, 25);
+        int[] counts = new int[4];
+
+        for (int amount = 0; amount <= 200; amount++) {
+            assertThat(denominations.fillChange(amount, counts)).isTrue();
+            int value = counts[0] + 7 * counts[1] + 10 * counts[2] + 25 * counts[3];
+            int coins = counts[0] + counts[1] + counts[2] + counts[3];
+            assertThat(value).isEqualTo(amount);
+            assertThat(coins).isEqualTo(minCoins(amount, 1, 7, 10, 25));
+        }
+    }
+
+    @Test
+    @DisplayName("Should report amounts that cannot be made")
+    void testUnreachableAmounts() {
+        Denominations denominations = Denominations.of(2, 5);
+        int[] counts = new int[2];
+
+        assertThat(denominations.fillChange(1, counts)).isFalse();
+        assertThat(denominations.fillChange(3, counts)).isFalse();
+        assertThat(denominations.fillChange(7, counts)).isTrue();
+        assertThat(counts).containsExactly(1, 1);
+    }
+
+    @Test
+    @DisplayName("Should reject invalid denomination sets")
+    void testInvalidSets() {
+        assertThatThrownBy(() -> Denominations.of())
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Denominations.of(1, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Denominations.of(1, 2, 2))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Denominations.withChangeCeiling(5, 1, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private int minCoins(int amount, int... coins) {
+        int[] best = new int[amount + 1];
+        for (int a = 1; a <= amount; a++) {
+            best[a] = Integer.MAX_VALUE;
+            for (int coin : coins) {
+                if (coin <= a && best[a - coin] != Integer.MAX_VALUE) {
+                    best[a] = Math.min(best[a], best[a - coin] + 1);
+                }
+            }
+        }
+        return best[amount];
+    }
+}
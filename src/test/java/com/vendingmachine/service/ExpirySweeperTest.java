@@ -0,0 +1,76 @@
+package com.vendingmachine.service;
+
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.model.DispenseResult;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.model.ExpiryClock;
+import com.vendingmachine.model.ProductCatalog;
+import com.vendingmachine.model.Snack;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpirySweeperTest {
+
+    private static final LocalDate MADE = LocalDate.of(2024, 3, 1);
+
+    private VendingMachine machine;
+    private Snack shortLife;
+    private Snack longLife;
+
+    @BeforeEach
+    void setUp() throws VendingMachineException {
+        machine = new VendingMachine();
+        ExpiryClock clock = new ExpiryClock(fixedAt(MADE));
+        shortLife = new Snack("S1", ProductCatalog.shared().internSnack("Sandwich", 4, MADE, 2), clock);
+        longLife = new Snack("S2", ProductCatalog.shared().internSnack("Crackers", 2, MADE, 90), clock);
+        shortLife.setStock(3);
+        longLife.setStock(3);
+        machine.addItem(shortLife);
+        machine.addItem(longLife);
+        Drink water = new Drink("D1", "Water", 1, 500);
+        water.setStock(3);
+        machine.addItem(water);
+    }
+
+    @Test
+    @DisplayName("Should withdraw only snacks expired by the swept day")
+    void testSweep() {
+        assertThat(ExpirySweeper.sweep(machine, MADE.plusDays(2).toEpochDay())).isZero();
+        assertThat(ExpirySweeper.sweep(machine, MADE.plusDays(3).toEpochDay())).isEqualTo(1);
+
+        assertThat(shortLife.isWithdrawn()).isTrue();
+        assertThat(longLife.isWithdrawn()).isFalse();
+        assertThat(ExpirySweeper.sweep(machine, MADE.plusDays(3).toEpochDay())).isZero();
+
+        DispenseResult result = machine.dispenseItem("S1", Arrays.asList(5));
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getMessage()).contains("Product has expired");
+        assertThat(shortLife.getStock()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should advance its clock before sweeping")
+    void testSweepNowTicksClock() {
+        ExpiryClock later = new ExpiryClock(fixedAt(MADE.plusDays(100)));
+
+        try (ExpirySweeper sweeper = new ExpirySweeper(machine, later, 60_000)) {
+            sweeper.sweepNow();
+        }
+
+        assertThat(later.getDate()).isEqualTo(MADE.plusDays(100));
+        assertThat(shortLife.isWithdrawn()).isTrue();
+        assertThat(longLife.isWithdrawn()).isTrue();
+    }
+
+    private static Clock fixedAt(LocalDate date) {
+        return Clock.fixed(date.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,61 @@
+package com.vendingmachine.service;
+
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.model.Snack;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PlanogramTest {
+
+    @Test
+    @DisplayName("Should map slot codes to dense indexes row by row")
+    void testSlotIndexes() {
+        Planogram planogram = Planogram.grid(8, 15, 10);
+
+        assertThat(planogram.size()).isEqualTo(120);
+        assertThat(planogram.slotOf("A1")).isZero();
+        assertThat(planogram.slotOf("A15")).isEqualTo(14);
+        assertThat(planogram.slotOf("B1")).isEqualTo(15);
+        assertThat(planogram.slotOf("H15")).isEqualTo(119);
+        assertThat(planogram.codeOf(37)).isEqualTo("C8");
+        for (int slot = 0; slot < planogram.size(); slot++) {
+            assertThat(planogram.slotOf(planogram.codeOf(slot))).isEqualTo(slot);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject codes that name no slot")
+    void testUnknownCodes() {
+        Planogram planogram = Planogram.grid(2, 12, 10);
+
+        for (String code : new String[]{null, "", "A", "A0", "A01", "A13", "C1", "a1", "A1x", "A-1", "A1234", "É1"}) {
+            assertThat(planogram.slotOf(code)).as(String.valueOf(code)).isEqualTo(Planogram.NO_SLOT);
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep row types and capacities per slot")
+    void testRowTypesAndCapacities() {
+        Planogram standard = Planogram.standard();
+        assertThat(standard.size()).isEqualTo(6);
+        assertThat(standard.rowTypeOf("S4")).isEqualTo(Planogram.RowType.SNACKS);
+        assertThat(standard.rowTypeOf(standard.slotOf("D2"))).isEqualTo(Planogram.RowType.DRINKS);
+        assertThat(standard.rowTypeOf("X1")).isNull();
+        assertThat(Planogram.RowType.SNACKS.accepts(new Snack("S1", "Chips", 2, LocalDate.now(), 30))).isTrue();
+        assertThat(Planogram.RowType.SNACKS.accepts(new Drink("S1", "Cola", 3, 330))).isFalse();
+
+        Planogram sized = Planogram.of("XY", 4, 6).withCapacity("Y3", 12);
+        assertThat(sized.capacityOf(sized.slotOf("Y3"))).isEqualTo(12);
+        assertThat(sized.capacityOf(sized.slotOf("Y2"))).isEqualTo(6);
+        assertThat(sized.rowTypeOf("X1")).isEqualTo(Planogram.RowType.ANY);
+
+        assertThatThrownBy(() -> Planogram.of("AA", 3, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Planogram.grid(2, 0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> sized.withCapacity("Z1", 3)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
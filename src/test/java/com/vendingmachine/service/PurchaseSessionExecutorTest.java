@@ -0,0 +1,70 @@
+package com.vendingmachine.service;
+
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.model.DispenseResult;
+import com.vendingmachine.model.Drink;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PurchaseSessionExecutorTest {
+
+    private VendingMachine machine;
+    private Drink water;
+
+    @BeforeEach
+    void setUp() throws VendingMachineException {
+        machine = new VendingMachine();
+        water = new Drink("D1", "Water", 1, 500);
+        water.setStock(5_000);
+        machine.addItem(water);
+    }
+
+    @Test
+    @DisplayName("Should run thousands of blocking sessions at once on virtual threads")
+    void testVirtualSessions() throws Exception {
+        AtomicBoolean allVirtual = new AtomicBoolean(true);
+        List<Future<DispenseResult>> results = new ArrayList<>();
+
+        long start = System.nanoTime();
+        try (PurchaseSessionExecutor sessions = PurchaseSessionExecutor.virtualThreads(machine)) {
+            for (int i = 0; i < 5_000; i++) {
+                results.add(sessions.submit(vm -> {
+                    if (!Thread.currentThread().isVirtual()) {
+                        allVirtual.set(false);
+                    }
+                    Thread.sleep(100);
+                    return vm.dispenseItem("D1", List.of(1));
+                }));
+            }
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        for (Future<DispenseResult> result : results) {
+            assertThat(result.get().isSuccess()).isTrue();
+        }
+        assertThat(allVirtual).isTrue();
+        assertThat(water.getStock()).isZero();
+        // Run back to back, 5,000 sleeps of 100ms would take over eight minutes.
+        assertThat(elapsedMillis).isLessThan(30_000);
+    }
+
+    @Test
+    @DisplayName("Should run sessions on a fixed platform pool")
+    void testPlatformSessions() throws Exception {
+        Future<DispenseResult> result;
+        try (PurchaseSessionExecutor sessions = PurchaseSessionExecutor.platformThreads(machine, 2)) {
+            result = sessions.submit(vm -> vm.dispenseItem("D1", List.of(1)));
+        }
+
+        assertThat(result.get().isSuccess()).isTrue();
+        assertThat(water.getStock()).isEqualTo(4_999);
+    }
+}
@@ -0,0 +1,281 @@
+package com.vendingmachine.service;
+
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.model.DispenseResult;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.model.Snack;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReservationManagerTest {
+
+    private VendingMachine machine;
+    private Snack chips;
+    private Drink water;
+
+    @BeforeEach
+    void setUp() throws VendingMachineException {
+        machine = new VendingMachine();
+        chips = new Snack("S1", "Chips", 2, LocalDate.now(), 30);
+        chips.setStock(2);
+        machine.addItem(chips);
+        water = new Drink("D1", "Water", 1, 500);
+        water.setStock(1);
+        machine.addItem(water);
+    }
+
+    @Test
+    @DisplayName("Should take a unit out of stock while it is held")
+    void testReserve() {
+        ReservationManager reservations = ReservationManager.manual(machine, 3);
+
+        Reservation first = reservations.reserve("S1");
+        Reservation second = reservations.reserve("S1");
+
+        assertThat(first.isHeld()).isTrue();
+        assertThat(second.isHeld()).isTrue();
+        assertThat(chips.getStock()).isZero();
+        assertThat(reservations.reserve("S1")).isNull();
+        assertThat(reservations.reserve("X9")).isNull();
+
+        DispenseResult result = machine.dispenseItem("S1", Arrays.asList(2));
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getMessage()).contains("out of stock");
+    }
+
+    @Test
+    @DisplayName("Should return an unused hold to stock once it expires")
+    void testExpiry() {
+        ReservationManager reservations = ReservationManager.manual(machine, 3);
+        Reservation reservation = reservations.reserve("D1");
+        assertThat(water.getStock()).isZero();
+
+        assertThat(reservations.tick()).isZero();
+        assertThat(reservations.tick()).isZero();
+        assertThat(reservation.isHeld()).isTrue();
+        assertThat(reservations.tick()).isEqualTo(1);
+
+        assertThat(reservation.isExpired()).isTrue();
+        assertThat(water.getStock()).isEqualTo(1);
+
+        DispenseResult result = machine.dispenseReserved(reservation, Arrays.asList(1));
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getMessage()).contains("hold on Water has expired");
+        assertThat(water.getStock()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should sell a held unit without touching stock again")
+    void testDispenseReserved() {
+        ReservationManager reservations = ReservationManager.manual(machine, 2);
+        Reservation reservation = reservations.reserve("S1");
+
+        DispenseResult result = machine.dispenseReserved(reservation, Arrays.asList(5));
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getChange()).containsExactly(2, 1);
+        assertThat(chips.getStock()).isEqualTo(1);
+        assertThat(reservation.isHeld()).isFalse();
+
+        reservations.tick();
+        assertThat(reservations.tick()).isZero();
+        assertThat(chips.getStock()).isEqualTo(1);
+        assertThat(machine.dispenseReserved(reservation, Arrays.asList(2)).isSuccess()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should keep the hold when payment is refused")
+    void testPaymentRefused() {
+        ReservationManager reservations = ReservationManager.manual(machine, 2);
+        Reservation reservation = reservations.reserve("S1");
+
+        DispenseResult refused = machine.dispenseReserved(reservation, Arrays.asList(1));
+
+        assertThat(refused.isSuccess()).isFalse();
+        assertThat(reservation.isHeld()).isTrue();
+        assertThat(machine.dispenseReserved(reservation, Arrays.asList(1, 1)).isSuccess()).isTrue();
+        assertThat(chips.getStock()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep the hold and the float when the float cannot pay the change")
+    void testFloatRefusesChange() throws VendingMachineException {
+        CoinHandler coinHandler = new CoinHandler();
+        CoinFloat coinFloat = new CoinFloat(coinHandler, new int[]{0, 0, 0, 0});
+        machine = new VendingMachine(coinHandler, coinFloat);
+        machine.addItem(chips);
+        ReservationManager reservations = ReservationManager.manual(machine, 2);
+        Reservation reservation = reservations.reserve("S1");
+
+        DispenseResult refused = machine.dispenseReserved(reservation, Arrays.asList(5));
+
+        assertThat(refused.getMessage()).contains("exact change of $3");
+        assertThat(reservation.isHeld()).isTrue();
+        assertThat(chips.getStock()).isEqualTo(1);
+        assertThat(coinFloat.getTotal()).isZero();
+
+        assertThat(machine.dispenseReserved(reservation, Arrays.asList(2)).isSuccess()).isTrue();
+        assertThat(reservation.isHeld()).isFalse();
+        assertThat(chips.getStock()).isEqualTo(1);
+        assertThat(coinFloat.getCounts()).containsExactly(0, 1, 0, 0);
+    }
+
+    @Test
+    @DisplayName("Should journal a hold and its return like a sale and a returned unit")
+    void testJournalsHolds() {
+        List<String> records = new ArrayList<>();
+        machine.setTransactionLog(new TransactionLog() {
+            @Override
+            public void recordStock(String code, int stock, int version) {
+                records.add(code + " " + stock);
+            }
+
+            @Override
+            public void recordSale(String code, int stock, int version, int price, int totalPaid, int changeAmount) {
+                records.add("sale " + code + " " + stock);
+            }
+        });
+        ReservationManager reservations = ReservationManager.manual(machine, 2);
+
+        Reservation sold = reservations.reserve("S1");
+        Reservation released = reservations.reserve("S1");
+        machine.dispenseReserved(sold, Arrays.asList(2));
+        reservations.release(released);
+
+        assertThat(records).containsExactly("S1 1", "S1 0", "sale S1 1", "S1 1");
+    }
+
+    @Test
+    @DisplayName("Should return a released hold to stock exactly once")
+    void testRelease() {
+        ReservationManager reservations = ReservationManager.manual(machine, 2);
+        Reservation reservation = reservations.reserve("D1");
+
+        assertThat(reservations.release(reservation)).isTrue();
+        assertThat(reservations.release(reservation)).isFalse();
+        assertThat(water.getStock()).isEqualTo(1);
+
+        reservations.tick();
+        assertThat(reservations.tick()).isZero();
+        assertThat(water.getStock()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should return a hold to the replacement slot after a price-only restock")
+    void testReleaseAfterPriceRestock() throws VendingMachineException {
+        chips.setStock(5);
+        ReservationManager reservations = ReservationManager.manual(machine, 2);
+        Reservation reservation = reservations.reserve("S1");
+        machine.restock(new RestockBatch().price("S1", 3));
+        assertThat(machine.getItem("S1").getStock()).isEqualTo(4);
+
+        assertThat(reservations.release(reservation)).isTrue();
+
+        assertThat(machine.getItem("S1").getStock()).isEqualTo(5);
+        assertThat(machine.getItem("S1").getPrice()).isEqualTo(3);
+        assertThat(chips.getStock()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep a restocked count when a hold on the old slot is released")
+    void testReleaseAfterStockRestock() throws VendingMachineException {
+        chips.setStock(5);
+        ReservationManager reservations = ReservationManager.manual(machine, 2);
+        Reservation reservation = reservations.reserve("S1");
+        machine.restock(new RestockBatch().stock("S1", 5).price("S1", 3));
+
+        assertThat(reservations.release(reservation)).isTrue();
+
+        assertThat(machine.getItem("S1").getStock()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should expire holds longer than the wheel on their own tick")
+    void testHoldLongerThanWheel() {
+        int holdTicks = ReservationManager.WHEEL_SIZE * 2 + 5;
+        ReservationManager reservations = ReservationManager.manual(machine, holdTicks);
+        reservations.reserve("D1");
+
+        int expired = 0;
+        for (int tick = 1; tick < holdTicks; tick++) {
+            expired += reservations.tick();
+        }
+        assertThat(expired).isZero();
+        assertThat(reservations.tick()).isEqualTo(1);
+        assertThat(water.getStock()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should track many outstanding holds and expire them together")
+    void testManyHolds() {
+        int holds = 200_000;
+        chips.setStock(holds);
+        ReservationManager reservations = ReservationManager.manual(machine, 10);
+
+        List<Reservation> taken = new ArrayList<>();
+        for (int i = 0; i < holds; i++) {
+            taken.add(reservations.reserve("S1"));
+        }
+        for (int i = 0; i < holds; i += 2) {
+            assertThat(machine.dispenseReserved(taken.get(i), Arrays.asList(2)).isSuccess()).isTrue();
+        }
+        assertThat(chips.getStock()).isZero();
+
+        int expired = 0;
+        for (int tick = 0; tick < 10; tick++) {
+            expired += reservations.tick();
+        }
+
+        assertThat(expired).isEqualTo(holds / 2);
+        assertThat(chips.getStock()).isEqualTo(holds / 2);
+    }
+
+    @Test
+    @DisplayName("Should hand every outstanding hold back on close")
+    void testClose() {
+        ReservationManager reservations = ReservationManager.manual(machine, 5);
+        reservations.reserve("S1");
+        reservations.tick();
+        reservations.reserve("S1");
+
+        reservations.close();
+
+        assertThat(chips.getStock()).isEqualTo(2);
+        assertThat(reservations.reserve("S1")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should lose no unit to holds taken while the manager closes")
+    void testReserveDuringClose() throws InterruptedException {
+        chips.setStock(1_000_000);
+        ReservationManager reservations = ReservationManager.manual(machine, 5);
+        CountDownLatch started = new CountDownLatch(4);
+        List<Thread> holders = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread holder = new Thread(() -> {
+                started.countDown();
+                while (reservations.reserve("S1") != null) {
+                    Thread.onSpinWait();
+                }
+            });
+            holder.start();
+            holders.add(holder);
+        }
+        started.await();
+        reservations.close();
+        for (Thread holder : holders) {
+            holder.join();
+        }
+
+        assertThat(chips.getStock()).isEqualTo(1_000_000);
+    }
+}
@@ -0,0 +1,162 @@
+package com.vendingmachine.service;
+
+import com.vendingmachine.exception.ItemNotFoundException;
+import com.vendingmachine.model.DispenseResult;
+import com.vendingmachine.model.Drink;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VendingMachineActorTest {
+
+    private VendingMachine machine;
+
+    @BeforeEach
+    void setUp() {
+        machine = new VendingMachine();
+    }
+
+    @Test
+    @DisplayName("Should run commands in order and answer through futures")
+    void testCommands() throws Exception {
+        try (VendingMachineActor actor = VendingMachineActor.start(machine)) {
+            Drink water = new Drink("D1", "Water", 2, 500);
+            water.setStock(1);
+            actor.addItem(water);
+            CompletableFuture<DispenseResult> first = actor.dispenseItem("D1", List.of(5));
+            CompletableFuture<DispenseResult> second = actor.dispenseItem("D1", List.of(5));
+            actor.restockItem("D1", 4);
+            CompletableFuture<DispenseResult> third = actor.dispenseItem("D1", List.of(2));
+
+            assertThat(first.get().getChange()).containsExactly(2, 1);
+            assertThat(second.get().getOutcome()).isEqualTo(DispenseResult.Outcome.OUT_OF_STOCK);
+            assertThat(third.get().isSuccess()).isTrue();
+            assertThat(actor.getItem("D1").get().getStock()).isEqualTo(3);
+            assertThat(actor.restock(new RestockBatch().price("D1", 3)).thenCompose(done -> actor.getItem("D1"))
+                    .get().getPrice()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    @DisplayName("Should fail the future with whatever the command throws and keep running")
+    void testFailures() throws Exception {
+        try (VendingMachineActor actor = VendingMachineActor.start(machine)) {
+            assertThatThrownBy(() -> actor.restockItem("X9", 1).get())
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(ItemNotFoundException.class);
+            assertThatThrownBy(() -> actor.submit(vm -> {
+                throw new IllegalArgumentException("bad");
+            }).get()).hasCauseInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> actor.submit(vm -> {
+                throw new OutOfMemoryError("heap");
+            }).get()).hasCauseInstanceOf(OutOfMemoryError.class);
+            assertThat(actor.submit(vm -> "still running").get()).isEqualTo("still running");
+        }
+    }
+
+    @Test
+    @DisplayName("Should run every caller's commands on the owning thread without overselling")
+    void testConcurrentCallers() throws Exception {
+        Drink water = new Drink("D1", "Water", 1, 500);
+        water.setStock(1_000);
+        machine.addItem(water);
+        Set<Thread> runners = ConcurrentHashMap.newKeySet();
+        AtomicInteger sold = new AtomicInteger();
+
+        try (VendingMachineActor actor = VendingMachineActor.start(machine, 16)) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> callers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                Thread caller = new Thread(() -> {
+                    try {
+                        start.await();
+                        List<CompletableFuture<DispenseResult>> results = new ArrayList<>();
+                        for (int i = 0; i < 250; i++) {
+                            results.add(actor.submit(vm -> {
+                                runners.add(Thread.currentThread());
+                                return vm.dispenseItem("D1", List.of(1));
+                            }));
+                        }
+                        for (CompletableFuture<DispenseResult> result : results) {
+                            if (result.get().isSuccess()) {
+                                sold.incrementAndGet();
+                            }
+                        }
+                    } catch (InterruptedException | ExecutionException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                caller.start();
+                callers.add(caller);
+            }
+            start.countDown();
+            for (Thread caller : callers) {
+                caller.join();
+            }
+        }
+
+        assertThat(sold.get()).isEqualTo(1_000);
+        assertThat(water.getStock()).isZero();
+        assertThat(runners).hasSize(1);
+        assertThat(runners.iterator().next().getName()).isEqualTo("machine-actor");
+    }
+
+    @Test
+    @DisplayName("Should take a deep queue in batches")
+    void testBatching() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        VendingMachineActor actor = VendingMachineActor.start(machine, 256);
+        actor.submit(vm -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            int n = i;
+            results.add(actor.submit(vm -> n));
+        }
+        assertThat(actor.getQueueDepth()).isGreaterThanOrEqualTo(200);
+
+        release.countDown();
+        actor.close();
+
+        for (int i = 0; i < 200; i++) {
+            assertThat(results.get(i).get()).isEqualTo(i);
+        }
+        assertThat(actor.getLargestBatch()).isEqualTo(VendingMachineActor.MAX_BATCH);
+        assertThat(actor.getAverageBatch()).isGreaterThan(1);
+        assertThat(actor.getQueueDepth()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should finish queued commands on close and refuse new ones")
+    void testClose() throws Exception {
+        VendingMachineActor actor = VendingMachineActor.start(machine);
+        Drink water = new Drink("D1", "Water", 1, 500);
+        CompletableFuture<Void> added = actor.addItem(water);
+        actor.close();
+
+        assertThat(added).isCompleted();
+        assertThat(machine.getItem("D1")).isSameAs(water);
+        assertThatThrownBy(() -> actor.getItem("D1").get())
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> VendingMachineActor.start(machine, 3))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,175 @@
+package com.vendingmachine.service;
+
+import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.model.DispenseResult;
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.model.Snack;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VendingMachineConcurrencyTest {
+
+    private static final int THREADS = 64;
+
+    private VendingMachine vendingMachine;
+
+    @BeforeEach
+    void setUp() {
+        vendingMachine = new VendingMachine();
+    }
+
+    @RepeatedTest(20)
+    @DisplayName("Should never sell the last unit twice")
+    void testLastUnitRace() throws Exception {
+        Snack snack = new Snack("S1", "Chips", 2, LocalDate.now(), 30);
+        snack.setStock(1);
+        vendingMachine.addItem(snack);
+
+        AtomicInteger sold = new AtomicInteger();
+        runConcurrently(THREADS, () -> {
+            if (vendingMachine.dispenseItem("S1", Arrays.asList(2)).isSuccess()) {
+                sold.incrementAndGet();
+            }
+            return null;
+        });
+
+        assertThat(sold.get()).isEqualTo(1);
+        assertThat(snack.getStock()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not oversell under heavy contention on every code")
+    void testNoOversellAcrossCodes() throws Exception {
+        int stockPerItem = 500;
+        List<String> codes = Arrays.asList("S1", "S2", "S3", "D1", "D2", "D3");
+        for (int i = 1; i <= 3; i++) {
+            Snack snack = new Snack("S" + i, "Snack " + i, 2, LocalDate.now(), 30);
+            snack.setStock(stockPerItem);
+            vendingMachine.addItem(snack);
+            Drink drink = new Drink("D" + i, "Drink " + i, 3, 330);
+            drink.setStock(stockPerItem);
+            vendingMachine.addItem(drink);
+        }
+
+        int attemptsPerThread = 100;
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+        AtomicInteger threadIndex = new AtomicInteger();
+        runConcurrently(THREADS, () -> {
+            int t = threadIndex.getAndIncrement();
+            for (int i = 0; i < attemptsPerThread; i++) {
+                String code = codes.get((t + i) % codes.size());
+                DispenseResult result = vendingMachine.dispenseItem(code, Arrays.asList(5));
+                if (result.isSuccess()) {
+                    sold.incrementAndGet();
+                } else if (result.getMessage().contains("out of stock")) {
+                    soldOut.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        assertThat(sold.get()).isEqualTo(codes.size() * stockPerItem);
+        assertThat(sold.get() + soldOut.get()).isEqualTo(THREADS * attemptsPerThread);
+        for (String code : codes) {
+            assertThat(vendingMachine.getItem(code).getStock()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep type counts consistent under concurrent adds")
+    void testConcurrentAddItem() throws Exception {
+        AtomicInteger threadIndex = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        runConcurrently(THREADS, () -> {
+            int t = threadIndex.getAndIncrement();
+            try {
+                vendingMachine.addItem(new Snack("S" + t, "Snack " + t, 2, LocalDate.now(), 30));
+            } catch (VendingMachineException e) {
+                rejected.incrementAndGet();
+            }
+            return null;
+        });
+
+        assertThat(vendingMachine.getSnackCount()).isEqualTo(3);
+        assertThat(rejected.get()).isEqualTo(THREADS - 3);
+    }
+
+    @Test
+    @DisplayName("Should show concurrent buyers each restock batch as a single switch")
+    void testRestockBatchIsAtomic() throws Exception {
+        List<String> codes = Arrays.asList("S1", "S2", "S3", "D1", "D2", "D3");
+        for (int i = 1; i <= 3; i++) {
+            Snack snack = new Snack("S" + i, "Snack " + i, 1, LocalDate.now(), 30);
+            snack.setStock(1_000_000);
+            vendingMachine.addItem(snack);
+            Drink drink = new Drink("D" + i, "Drink " + i, 1, 330);
+            drink.setStock(1_000_000);
+            vendingMachine.addItem(drink);
+        }
+
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger mixedPrices = new AtomicInteger();
+        AtomicInteger threadIndex = new AtomicInteger();
+        runConcurrently(8, () -> {
+            int t = threadIndex.getAndIncrement();
+            for (int i = 0; i < 2_000; i++) {
+                if (t == 0) {
+                    RestockBatch batch = new RestockBatch();
+                    for (String code : codes) {
+                        batch.stock(code, 1_000_000).price(code, 1 + i % 2);
+                    }
+                    vendingMachine.restock(batch);
+                } else if (t == 1) {
+                    long distinct = vendingMachine.getItems().stream().mapToInt(item -> item.getPrice()).distinct().count();
+                    if (distinct != 1) {
+                        mixedPrices.incrementAndGet();
+                    }
+                } else if (!vendingMachine.dispenseItem(codes.get((t + i) % codes.size()), Arrays.asList(2))
+                        .isSuccess()) {
+                    failures.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        assertThat(failures.get()).isZero();
+        assertThat(mixedPrices.get()).isZero();
+    }
+
+    private void runConcurrently(int threads, Callable<Void> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startGate = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    return task.call();
+                }));
+            }
+            startGate.countDown();
+            for (Future<Void> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
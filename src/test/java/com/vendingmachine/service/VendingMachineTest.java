@@ -1,16 +1,29 @@
 package com.vendingmachine.service;
 
+import com.vendingmachine.exception.ItemNotFoundException;
 import com.vendingmachine.exception.VendingMachineException;
+import com.vendingmachine.metrics.VendingMetrics;
 import com.vendingmachine.model.DispenseResult;
 import com.vendingmachine.model.Drink;
+import com.vendingmachine.model.OrderResult;
+import com.vendingmachine.model.PaymentResult;
 import com.vendingmachine.model.Snack;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -187,4 +200,364 @@ class VendingMachineTest {
         assertThat(result.isSuccess()).isFalse();
         assertThat(result.getMessage()).contains("Invalid coins");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should refuse the sale when the coin float cannot make exact change")
+    void testRejectsSaleWithoutExactChange() throws VendingMachineException {
+        CoinHandler coinHandler = new CoinHandler();
+        CoinFloat coinFloat = new CoinFloat(coinHandler, new int[]{0, 0, 0, 0});
+        vendingMachine = new VendingMachine(coinHandler, coinFloat);
+
+        Snack snack = new Snack("S1", "Chips", 3, LocalDate.now(), 30);
+        snack.setStock(5);
+        vendingMachine.addItem(snack);
+
+        DispenseResult refused = vendingMachine.dispenseItem("S1", Arrays.asList(5));
+
+        assertThat(refused.isSuccess()).isFalse();
+        assertThat(refused.getMessage()).contains("exact change");
+        assertThat(snack.getStock()).isEqualTo(5);
+        assertThat(coinFloat.getTotal()).isZero();
+
+        DispenseResult exact = vendingMachine.dispenseItem("S1", Arrays.asList(2, 1));
+        DispenseResult withChange = vendingMachine.dispenseItem("S1", Arrays.asList(5));
+
+        assertThat(exact.isSuccess()).isTrue();
+        assertThat(withChange.isSuccess()).isTrue();
+        assertThat(withChange.getChange()).containsExactly(2);
+        assertThat(snack.getStock()).isEqualTo(3);
+        assertThat(coinFloat.getCounts()).containsExactly(1, 0, 1, 0);
+    }
+
+    @Test
+    @DisplayName("Should count a sale retried on a replaced slot once")
+    void testRetryCountedOnce() throws VendingMachineException {
+        boolean[] replaced = new boolean[1];
+        CoinHandler coinHandler = new CoinHandler() {
+            // Reprices the slot between the payment check and the stock claim.
+            @Override
+            PaymentResult checkPayment(List<Integer> coins, int price) {
+                if (!replaced[0]) {
+                    replaced[0] = true;
+                    try {
+                        vendingMachine.restock(new RestockBatch().price("D1", 2));
+                    } catch (VendingMachineException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                return super.checkPayment(coins, price);
+            }
+        };
+        vendingMachine = new VendingMachine(coinHandler, null);
+        Drink cola = new Drink("D1", "Cola", 3, 330);
+        cola.setStock(2);
+        vendingMachine.addItem(cola);
+        VendingMetrics metrics = new VendingMetrics(1);
+        vendingMachine.setMetrics(metrics);
+
+        DispenseResult result = vendingMachine.dispenseItem("D1", Arrays.asList(5));
+
+        assertThat(result.getChange()).containsExactly(2, 1);
+        assertThat(vendingMachine.getItem("D1").getStock()).isEqualTo(1);
+        assertThat(metrics.getDispenseCount()).isEqualTo(1);
+        assertThat(metrics.getPaymentCount()).isEqualTo(1);
+        assertThat(metrics.getPaymentLatency().snapshot().getCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should report inventory changes through its version")
+    void testInventoryVersion() throws VendingMachineException {
+        long empty = vendingMachine.getInventoryVersion();
+        Drink cola = new Drink("D1", "Cola", 2, 330);
+        cola.setStock(2);
+        vendingMachine.addItem(cola);
+
+        assertThat(vendingMachine.hasChangedSince(empty)).isTrue();
+        long stocked = vendingMachine.getInventoryVersion();
+        assertThat(vendingMachine.hasChangedSince(stocked)).isFalse();
+
+        vendingMachine.dispenseItem("D1", Arrays.asList(1));
+        assertThat(vendingMachine.hasChangedSince(stocked)).isFalse();
+
+        vendingMachine.dispenseItem("D1", Arrays.asList(2));
+        assertThat(vendingMachine.hasChangedSince(stocked)).isTrue();
+        long sold = vendingMachine.getInventoryVersion();
+
+        Snack chips = new Snack("S1", "Chips", 2, LocalDate.now(), 30);
+        vendingMachine.addItem(chips);
+        assertThat(vendingMachine.hasChangedSince(sold)).isTrue();
+        long added = vendingMachine.getInventoryVersion();
+
+        chips.withdraw();
+        assertThat(vendingMachine.hasChangedSince(added)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should not return to an earlier inventory version after a slot is replaced")
+    void testInventoryVersionAfterReplace() throws VendingMachineException {
+        Drink cola = new Drink("D1", "Cola", 1, 330);
+        cola.setStock(10);
+        vendingMachine.addItem(cola);
+        Drink water = new Drink("D2", "Water", 1, 500);
+        water.setStock(10);
+        vendingMachine.addItem(water);
+        for (int i = 0; i < 9; i++) {
+            vendingMachine.dispenseItem("D1", Arrays.asList(1));
+        }
+        long rendered = vendingMachine.getInventoryVersion();
+
+        vendingMachine.addItem(new Drink("D1", "Lemonade", 1, 330));
+        for (int i = 0; i < 9; i++) {
+            vendingMachine.dispenseItem("D2", Arrays.asList(1));
+        }
+        assertThat(vendingMachine.hasChangedSince(rendered)).isTrue();
+        long replaced = vendingMachine.getInventoryVersion();
+
+        vendingMachine.restock(new RestockBatch().price("D2", 2));
+        assertThat(vendingMachine.getInventoryVersion()).isGreaterThan(replaced);
+    }
+
+    @Test
+    @DisplayName("Should take payment and stock before the asynchronous dispense completes")
+    void testDispenseAsyncPipelines() throws Exception {
+        Drink cola = new Drink("D1", "Cola", 2, 330);
+        cola.setStock(2);
+        vendingMachine.addItem(cola);
+        CountDownLatch motor = new CountDownLatch(1);
+        List<String> released = new CopyOnWriteArrayList<>();
+        vendingMachine.setDispenseMechanism(item -> {
+            try {
+                motor.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            released.add(Thread.currentThread().getName());
+        });
+
+        CompletableFuture<DispenseResult> first = vendingMachine.dispenseItemAsync("D1", Arrays.asList(2));
+        CompletableFuture<DispenseResult> second = vendingMachine.dispenseItemAsync("D1", Arrays.asList(5));
+        CompletableFuture<DispenseResult> soldOut = vendingMachine.dispenseItemAsync("D1", Arrays.asList(2));
+
+        assertThat(first).isNotDone();
+        assertThat(second).isNotDone();
+        assertThat(cola.getStock()).isZero();
+        assertThat(soldOut).isCompleted();
+        assertThat(soldOut.get().getMessage()).contains("out of stock");
+
+        motor.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).isSuccess()).isTrue();
+        assertThat(second.get(5, TimeUnit.SECONDS).getChange()).containsExactly(2, 1);
+        assertThat(released).containsExactly("dispense-worker", "dispense-worker");
+    }
+
+    @Test
+    @DisplayName("Should stop its own dispense thread on close and leave a supplied one running")
+    void testCloseStopsDispenseThread() throws Exception {
+        Drink cola = new Drink("D1", "Cola", 2, 330);
+        cola.setStock(3);
+        vendingMachine.addItem(cola);
+        Thread[] worker = new Thread[1];
+        vendingMachine.setDispenseMechanism(item -> worker[0] = Thread.currentThread());
+
+        assertThat(vendingMachine.dispenseItemAsync("D1", Arrays.asList(2)).get().isSuccess()).isTrue();
+        vendingMachine.close();
+        worker[0].join(5_000);
+        assertThat(worker[0].isAlive()).isFalse();
+
+        ExecutorService supplied = Executors.newSingleThreadExecutor();
+        try {
+            vendingMachine.setDispenseExecutor(supplied);
+            assertThat(vendingMachine.dispenseItemAsync("D1", Arrays.asList(2)).get().isSuccess()).isTrue();
+            vendingMachine.close();
+            assertThat(supplied.isShutdown()).isFalse();
+        } finally {
+            supplied.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should sell a multi-item order for one payment and return change once")
+    void testDispenseOrder() throws VendingMachineException {
+        Snack chips = new Snack("S1", "Chips", 2, LocalDate.now(), 30);
+        chips.setStock(5);
+        Drink cola = new Drink("D1", "Cola", 3, 330);
+        cola.setStock(2);
+        vendingMachine.addItem(chips);
+        vendingMachine.addItem(cola);
+        List<String> released = new ArrayList<>();
+        vendingMachine.setDispenseMechanism(item -> released.add(item.getCode()));
+
+        Map<String, Integer> order = new LinkedHashMap<>();
+        order.put("S1", 3);
+        order.put("D1", 2);
+        OrderResult result = vendingMachine.dispenseOrder(order, Arrays.asList(10, 5));
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getTotalPrice()).isEqualTo(12);
+        assertThat(result.getChange()).containsExactly(2, 1);
+        assertThat(result.getQuantities()).containsExactly(Map.entry("S1", 3), Map.entry("D1", 2));
+        assertThat(chips.getStock()).isEqualTo(2);
+        assertThat(cola.getStock()).isZero();
+        assertThat(released).containsExactly("S1", "S1", "S1", "D1", "D1");
+    }
+
+    @Test
+    @DisplayName("Should sell nothing when any line of an order cannot be filled")
+    void testDispenseOrderAllOrNothing() throws VendingMachineException {
+        Snack chips = new Snack("S1", "Chips", 2, LocalDate.now(), 30);
+        chips.setStock(5);
+        Drink cola = new Drink("D1", "Cola", 3, 330);
+        cola.setStock(1);
+        vendingMachine.addItem(chips);
+        vendingMachine.addItem(cola);
+
+        Map<String, Integer> tooMany = new LinkedHashMap<>();
+        tooMany.put("S1", 2);
+        tooMany.put("D1", 2);
+        OrderResult short1 = vendingMachine.dispenseOrder(tooMany, Arrays.asList(10));
+        OrderResult unknown = vendingMachine.dispenseOrder(Map.of("X9", 1), Arrays.asList(10));
+        OrderResult underpaid = vendingMachine.dispenseOrder(Map.of("S1", 3), Arrays.asList(5));
+        OrderResult zero = vendingMachine.dispenseOrder(Map.of("S1", 0), Arrays.asList(5));
+        OrderResult empty = vendingMachine.dispenseOrder(Map.of(), Arrays.asList(5));
+
+        assertThat(short1.isSuccess()).isFalse();
+        assertThat(short1.getOutcome()).isEqualTo(OrderResult.Outcome.INSUFFICIENT_STOCK);
+        assertThat(short1.getMessage()).contains("Only 1 of Cola left");
+        assertThat(unknown.getOutcome()).isEqualTo(OrderResult.Outcome.ITEM_NOT_FOUND);
+        assertThat(unknown.getMessage()).contains("Item not found: X9");
+        assertThat(underpaid.getOutcome()).isEqualTo(OrderResult.Outcome.PAYMENT_FAILED);
+        assertThat(zero.getOutcome()).isEqualTo(OrderResult.Outcome.INVALID_QUANTITY);
+        assertThat(zero.getMessage()).contains("Invalid quantity");
+        assertThat(empty.getMessage()).isEqualTo("Order is empty");
+        assertThat(chips.getStock()).isEqualTo(5);
+        assertThat(cola.getStock()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should hand back every claim when the float cannot pay an order's change")
+    void testDispenseOrderRollsBackOnChange() throws VendingMachineException {
+        CoinHandler coinHandler = new CoinHandler();
+        CoinFloat coinFloat = new CoinFloat(coinHandler, new int[]{0, 0, 0, 0});
+        vendingMachine = new VendingMachine(coinHandler, coinFloat);
+        Snack chips = new Snack("S1", "Chips", 2, LocalDate.now(), 30);
+        chips.setStock(5);
+        Drink cola = new Drink("D1", "Cola", 3, 330);
+        cola.setStock(5);
+        vendingMachine.addItem(chips);
+        vendingMachine.addItem(cola);
+
+        Map<String, Integer> order = new LinkedHashMap<>();
+        order.put("S1", 1);
+        order.put("D1", 1);
+        OrderResult result = vendingMachine.dispenseOrder(order, Arrays.asList(10));
+
+        assertThat(result.getOutcome()).isEqualTo(OrderResult.Outcome.PAYMENT_FAILED);
+        assertThat(result.getMessage()).contains("exact change of $5");
+        assertThat(chips.getStock()).isEqualTo(5);
+        assertThat(cola.getStock()).isEqualTo(5);
+        assertThat(coinFloat.getTotal()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should apply stock, price and date changes from a restock batch together")
+    void testRestockBatch() throws VendingMachineException {
+        Snack chips = new Snack("S1", "Chips", 2, LocalDate.now().minusDays(40), 30);
+        chips.setStock(1);
+        Drink cola = new Drink("D1", "Cola", 3, 330);
+        cola.setStock(2);
+        vendingMachine.addItem(chips);
+        vendingMachine.addItem(cola);
+        long version = vendingMachine.getInventoryVersion();
+
+        vendingMachine.restock(new RestockBatch()
+                .stock("S1", 10).manufactureDate("S1", LocalDate.now())
+                .price("D1", 4));
+
+        Snack restockedChips = (Snack) vendingMachine.getItem("S1");
+        assertThat(restockedChips.getStock()).isEqualTo(10);
+        assertThat(restockedChips.canDispense()).isTrue();
+        assertThat(restockedChips.getStockVersion()).isGreaterThan(chips.getStockVersion());
+        assertThat(vendingMachine.getItem("D1").getPrice()).isEqualTo(4);
+        assertThat(vendingMachine.getItem("D1").getStock()).isEqualTo(2);
+        assertThat(chips.isRetired()).isTrue();
+        assertThat(vendingMachine.hasChangedSince(version)).isTrue();
+        assertThat(vendingMachine.getSnackCount()).isEqualTo(1);
+        assertThat(vendingMachine.dispenseItem("D1", Arrays.asList(2, 2)).isSuccess()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should change nothing when any line of a restock batch is invalid")
+    void testRestockBatchAllOrNothing() throws VendingMachineException {
+        Drink cola = new Drink("D1", "Cola", 3, 330);
+        cola.setStock(2);
+        vendingMachine.addItem(cola);
+
+        assertThatThrownBy(() -> vendingMachine.restock(new RestockBatch().stock("D1", 9).stock("X9", 1)))
+                .isInstanceOf(ItemNotFoundException.class);
+        assertThatThrownBy(() -> vendingMachine.restock(new RestockBatch()
+                .stock("D1", 9).manufactureDate("D1", LocalDate.now())))
+                .isInstanceOf(VendingMachineException.class);
+        assertThatThrownBy(() -> new RestockBatch().price("D1", 0)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(vendingMachine.getItem("D1")).isSameAs(cola);
+        assertThat(cola.getStock()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should not count a replaced item twice against the type limits")
+    void testReplaceItemKeepsCounts() throws VendingMachineException {
+        vendingMachine.addItem(new Snack("S1", "Chips", 2, LocalDate.now(), 30));
+        vendingMachine.addItem(new Snack("S1", "Chips", 3, LocalDate.now(), 30));
+        assertThat(vendingMachine.getSnackCount()).isEqualTo(1);
+
+        vendingMachine = new VendingMachine(Planogram.grid(1, 3, 10));
+        vendingMachine.addItem(new Snack("A1", "Chips", 2, LocalDate.now(), 30));
+        vendingMachine.addItem(new Drink("A1", "Cola", 3, 330));
+        assertThat(vendingMachine.getSnackCount()).isZero();
+        assertThat(vendingMachine.getDrinkCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should place items by slot code and list them in planogram order")
+    void testPlanogramLayout() throws VendingMachineException {
+        vendingMachine = new VendingMachine(Planogram.grid(10, 12, 8).withCapacity("J12", 20));
+        vendingMachine.addItem(new Drink("J12", "Water", 1, 500));
+        vendingMachine.addItem(new Snack("A2", "Chips", 2, LocalDate.now(), 30));
+        vendingMachine.addItem(new Drink("C1", "Cola", 3, 330));
+
+        assertThat(vendingMachine.getItems()).extracting(item -> item.getCode())
+                .containsExactly("A2", "C1", "J12");
+        assertThat(vendingMachine.getItem("C1").getDescription()).isEqualTo("Cola");
+        assertThat(vendingMachine.getItem("C2")).isNull();
+        assertThat(vendingMachine.getItem("K1")).isNull();
+        assertThat(vendingMachine.dispenseItem("A13", Arrays.asList(5)).getOutcome())
+                .isEqualTo(DispenseResult.Outcome.ITEM_NOT_FOUND);
+
+        assertThatThrownBy(() -> vendingMachine.addItem(new Drink("A13", "Cola", 3, 330)))
+                .isInstanceOf(VendingMachineException.class)
+                .hasMessage("No slot A13 in this machine");
+        Drink overfull = new Drink("B1", "Cola", 3, 330);
+        overfull.setStock(9);
+        assertThatThrownBy(() -> vendingMachine.addItem(overfull))
+                .hasMessage("Slot B1 holds at most 8");
+        assertThatThrownBy(() -> vendingMachine.restockItem("J12", 21))
+                .isInstanceOf(VendingMachineException.class)
+                .hasMessage("Slot J12 holds at most 20");
+        assertThatThrownBy(() -> vendingMachine.restockItem("J12", -5))
+                .isInstanceOf(VendingMachineException.class)
+                .hasMessage("Stock cannot be negative: -5");
+        assertThat(vendingMachine.getItem("J12").getStock()).isZero();
+        vendingMachine.restockItem("J12", 20);
+        assertThat(vendingMachine.getItem("J12").getStock()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("Should keep snacks and drinks in their own rows in the standard layout")
+    void testStandardLayoutRows() {
+        assertThatThrownBy(() -> vendingMachine.addItem(new Drink("S1", "Cola", 3, 330)))
+                .isInstanceOf(VendingMachineException.class)
+                .hasMessage("Slot S1 holds only snacks");
+        assertThatThrownBy(() -> vendingMachine.addItem(new Snack("D9", "Chips", 2, LocalDate.now(), 30)))
+                .hasMessage("No slot D9 in this machine");
+    }
+}
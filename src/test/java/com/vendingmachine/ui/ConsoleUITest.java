@@ -3,6 +3,9 @@ package com.vendingmachine.ui;
 import com.vendingmachine.model.DispenseResult;
 import com.vendingmachine.model.Snack;
 import com.vendingmachine.model.Item;
+import com.vendingmachine.service.Denominations;
+import com.vendingmachine.service.Reservation;
+import com.vendingmachine.service.ReservationManager;
 import com.vendingmachine.service.VendingMachine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -33,6 +36,10 @@ class ConsoleUITest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        Denominations denominations = Denominations.standard();
+        when(mockVendingMachine.getDenominations()).thenReturn(denominations);
+        when(mockVendingMachine.isAcceptedCoin(anyInt()))
+                .thenAnswer(invocation -> denominations.accepts(invocation.getArgument(0)));
         outputStream = new ByteArrayOutputStream();
         originalOut = System.out;
         System.setOut(new PrintStream(outputStream));
@@ -278,6 +285,47 @@ class ConsoleUITest {
         assertThat(output).contains("Returning coins: $5, $2");
     }
 
+    @Test
+    @DisplayName("Should hold the selected item while coins are entered")
+    void testReservationHeldDuringPayment() {
+        Snack testItem = new Snack("S1", "Test Snack", 3, LocalDate.now(), 30);
+        testItem.setStock(1);
+        when(mockVendingMachine.getItem("S1")).thenReturn(testItem);
+        ReservationManager reservations = ReservationManager.manual(mockVendingMachine, 10);
+        when(mockVendingMachine.dispenseReserved(any(Reservation.class), anyList())).thenAnswer(invocation -> {
+            assertThat(testItem.getStock()).isZero();
+            return DispenseResult.success(testItem, Arrays.asList());
+        });
+
+        String input = "1\nS1\n2\n1\ndone\n\n3\n";
+        System.setIn(new ByteArrayInputStream(input.getBytes()));
+
+        consoleUI = new ConsoleUI(mockVendingMachine, InventorySink.console(), reservations);
+        consoleUI.start();
+
+        verify(mockVendingMachine).dispenseReserved(any(Reservation.class), eq(Arrays.asList(2, 1)));
+        verify(mockVendingMachine, never()).dispenseItem(anyString(), anyList());
+    }
+
+    @Test
+    @DisplayName("Should return the held item when the purchase is cancelled")
+    void testReservationReleasedOnCancel() throws Exception {
+        VendingMachine machine = new VendingMachine();
+        Snack testItem = new Snack("S1", "Test Snack", 3, LocalDate.now(), 30);
+        testItem.setStock(1);
+        machine.addItem(testItem);
+        ReservationManager reservations = ReservationManager.manual(machine, 10);
+
+        String input = "1\nS1\n1\ncancel\n\n1\nS1\ncancel\n\n3\n";
+        System.setIn(new ByteArrayInputStream(input.getBytes()));
+
+        consoleUI = new ConsoleUI(machine, InventorySink.console(), reservations);
+        consoleUI.start();
+
+        assertThat(outputStream.toString()).doesNotContain("out of stock");
+        assertThat(testItem.getStock()).isEqualTo(1);
+    }
+
 
     @org.junit.jupiter.api.AfterEach
     void tearDown() {
@@ -0,0 +1,77 @@
+package com.vendingmachine.ui;
+
+import com.vendingmachine.model.Drink;
+import com.vendingmachine.model.Item;
+import com.vendingmachine.model.Snack;
+import com.vendingmachine.service.VendingMachine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class InventoryRendererTest {
+
+    @Test
+    @DisplayName("Should render one row per item with status and details")
+    void testRender() {
+        Snack chips = new Snack("S1", "Chips", 2, LocalDate.now().minusDays(40), 30);
+        chips.setStock(4);
+        Drink cola = new Drink("D1", "Cola", 3, 330);
+        cola.setStock(6);
+
+        String table = new InventoryRenderer().render(Arrays.<Item>asList(chips, cola)).toString();
+
+        assertThat(table).startsWith("\n=== VENDING MACHINE INVENTORY ===\nCode | Item | Price | Stock | Details\n");
+        assertThat(table).contains("✗ S1 | Chips | $2 | 4 | Chips (EXPIRED)\n");
+        assertThat(table).contains("✓ D1 | Cola | $3 | 6 | Cola - 330ml\n");
+        assertThat(table).endsWith("-".repeat(50) + "\n");
+    }
+
+    @Test
+    @DisplayName("Should hand the whole table to the sink in a single write")
+    void testSingleWrite() {
+        Drink cola = new Drink("D1", "Cola", 3, 330);
+        List<String> writes = new ArrayList<>();
+        InventoryRenderer renderer = new InventoryRenderer();
+
+        renderer.renderTo(Collections.singletonList(cola), text -> writes.add(text.toString()));
+        renderer.renderTo(Collections.<Item>emptyList(), text -> writes.add(text.toString()));
+
+        assertThat(writes).hasSize(2);
+        assertThat(writes.get(0)).contains("D1 | Cola");
+        assertThat(writes.get(1)).doesNotContain("D1");
+    }
+
+    @Test
+    @DisplayName("Should re-render only slots whose revision changed")
+    void testIncrementalRender() throws Exception {
+        Drink cola = spy(new Drink("D1", "Cola", 3, 330));
+        Drink water = spy(new Drink("D2", "Water", 1, 500));
+        cola.setStock(5);
+        water.setStock(5);
+        VendingMachine machine = new VendingMachine();
+        machine.addItem(cola);
+        machine.addItem(water);
+        InventoryRenderer renderer = new InventoryRenderer();
+
+        String first = renderer.render(machine).toString();
+        String unchanged = renderer.render(machine).toString();
+        machine.dispenseItem("D1", Arrays.asList(2, 1));
+        String afterSale = renderer.render(machine).toString();
+
+        assertThat(unchanged).isEqualTo(first);
+        assertThat(afterSale).contains("✓ D1 | Cola | $3 | 4 | Cola - 330ml\n");
+        assertThat(afterSale).contains("✓ D2 | Water | $1 | 5 | Water - 500ml\n");
+        verify(cola, times(2)).getItemDetails();
+        verify(water, times(1)).getItemDetails();
+    }
+}